@@ -34,4 +34,18 @@ public class ApiServiceCreateRequest {
     private Integer cacheDuration = 300;
     
     private Integer rateLimit = 100;
+    
+    private Boolean coalescingEnabled = true;
+    
+    private Integer queryTimeout = 30;
+    
+    private Integer maxResultRows = 0;
+    
+    private Long maxResultBytes = 0L;
+    
+    private Boolean paginationEnabled = false;
+    
+    private String paginationKey;
+    
+    private Integer pageSize = 100;
 }
\ No newline at end of file
@@ -23,6 +23,13 @@ public class ApiServiceResponse {
     private Boolean cacheEnabled;
     private Integer cacheDuration;
     private Integer rateLimit;
+    private Boolean coalescingEnabled;
+    private Integer queryTimeout;
+    private Integer maxResultRows;
+    private Long maxResultBytes;
+    private Boolean paginationEnabled;
+    private String paginationKey;
+    private Integer pageSize;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Long createdBy;
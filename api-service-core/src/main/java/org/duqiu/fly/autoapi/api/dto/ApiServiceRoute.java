@@ -0,0 +1,98 @@
+package org.duqiu.fly.autoapi.api.dto;
+
+import lombok.Data;
+import org.duqiu.fly.autoapi.api.model.ApiService;
+import org.duqiu.fly.autoapi.common.enums.ApiStatus;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * API服务路由投影
+ * 服务、激活版本、数据源摘要由一次关联查询得到，供网关服务发现使用
+ */
+@Data
+public class ApiServiceRoute {
+
+    // 服务
+    private Long serviceId;
+    private String name;
+    private String description;
+    private String path;
+    private ApiService.HttpMethod method;
+    private ApiStatus status;
+    private Long dataSourceId;
+    private Long tenantId;
+    private Long createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // 激活版本，没有激活版本时为null
+    private Long versionId;
+    private String version;
+    private String sqlContent;
+    private Boolean cacheEnabled;
+    private Integer cacheDuration;
+    private Integer rateLimit;
+    private Boolean coalescingEnabled;
+    private Integer queryTimeout;
+    private Integer maxResultRows;
+    private Long maxResultBytes;
+    private Boolean paginationEnabled;
+    private String paginationKey;
+    private Integer pageSize;
+
+    // 数据源摘要，数据源不存在时为null
+    private String dataSourceName;
+    private DataSourceType dataSourceType;
+    private String dataSourceHost;
+    private Integer dataSourcePort;
+    private String dataSourceDatabase;
+
+    public ApiServiceRoute(Long serviceId, String name, String description, String path,
+                           ApiService.HttpMethod method, ApiStatus status, Long dataSourceId, Long tenantId, Long createdBy,
+                           LocalDateTime createdAt, LocalDateTime updatedAt,
+                           Long versionId, String version, String sqlContent, Boolean cacheEnabled,
+                           Integer cacheDuration, Integer rateLimit, Boolean coalescingEnabled, Integer queryTimeout,
+                           Integer maxResultRows, Long maxResultBytes,
+                           Boolean paginationEnabled, String paginationKey, Integer pageSize,
+                           String dataSourceName, DataSourceType dataSourceType, String dataSourceHost,
+                           Integer dataSourcePort, String dataSourceDatabase) {
+        this.serviceId = serviceId;
+        this.name = name;
+        this.description = description;
+        this.path = path;
+        this.method = method;
+        this.status = status;
+        this.dataSourceId = dataSourceId;
+        this.tenantId = tenantId;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.versionId = versionId;
+        this.version = version;
+        this.sqlContent = sqlContent;
+        this.cacheEnabled = cacheEnabled;
+        this.cacheDuration = cacheDuration;
+        this.rateLimit = rateLimit;
+        this.coalescingEnabled = coalescingEnabled;
+        this.queryTimeout = queryTimeout;
+        this.maxResultRows = maxResultRows;
+        this.maxResultBytes = maxResultBytes;
+        this.paginationEnabled = paginationEnabled;
+        this.paginationKey = paginationKey;
+        this.pageSize = pageSize;
+        this.dataSourceName = dataSourceName;
+        this.dataSourceType = dataSourceType;
+        this.dataSourceHost = dataSourceHost;
+        this.dataSourcePort = dataSourcePort;
+        this.dataSourceDatabase = dataSourceDatabase;
+    }
+
+    /**
+     * 是否存在可路由的激活版本
+     */
+    public boolean hasActiveVersion() {
+        return versionId != null;
+    }
+}
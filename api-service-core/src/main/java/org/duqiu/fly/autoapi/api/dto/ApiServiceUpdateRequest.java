@@ -33,6 +33,20 @@ public class ApiServiceUpdateRequest {
     
     private Integer rateLimit;
     
+    private Boolean coalescingEnabled;
+    
+    private Integer queryTimeout;
+    
+    private Integer maxResultRows;
+    
+    private Long maxResultBytes;
+    
+    private Boolean paginationEnabled;
+    
+    private String paginationKey;
+    
+    private Integer pageSize;
+    
     /**
      * 更新说明
      */
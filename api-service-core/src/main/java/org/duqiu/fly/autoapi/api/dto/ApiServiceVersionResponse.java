@@ -31,6 +31,13 @@ public class ApiServiceVersionResponse {
     private Boolean cacheEnabled;
     private Integer cacheDuration;
     private Integer rateLimit;
+    private Boolean coalescingEnabled;
+    private Integer queryTimeout;
+    private Integer maxResultRows;
+    private Long maxResultBytes;
+    private Boolean paginationEnabled;
+    private String paginationKey;
+    private Integer pageSize;
     private LocalDateTime createdAt;
     private Long createdBy;
     private String createdByName; // 创建者姓名
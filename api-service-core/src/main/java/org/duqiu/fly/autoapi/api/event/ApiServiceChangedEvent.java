@@ -0,0 +1,50 @@
+package org.duqiu.fly.autoapi.api.event;
+
+import org.duqiu.fly.autoapi.api.model.ApiServiceChangeLog;
+
+/**
+ * API服务路由变更事件
+ * 在发布、下线、版本激活的事务内发布，监听方应在事务提交后处理
+ */
+public class ApiServiceChangedEvent {
+    
+    private final Long changeLogId;
+    private final Long apiServiceId;
+    private final ApiServiceChangeLog.ChangeType changeType;
+    private final Long versionId;
+    private final String version;
+    
+    public ApiServiceChangedEvent(ApiServiceChangeLog changeLog) {
+        this.changeLogId = changeLog.getId();
+        this.apiServiceId = changeLog.getApiServiceId();
+        this.changeType = changeLog.getChangeType();
+        this.versionId = changeLog.getVersionId();
+        this.version = changeLog.getVersion();
+    }
+    
+    public Long getChangeLogId() {
+        return changeLogId;
+    }
+    
+    public Long getApiServiceId() {
+        return apiServiceId;
+    }
+    
+    public ApiServiceChangeLog.ChangeType getChangeType() {
+        return changeType;
+    }
+    
+    public Long getVersionId() {
+        return versionId;
+    }
+    
+    public String getVersion() {
+        return version;
+    }
+    
+    @Override
+    public String toString() {
+        return "ApiServiceChangedEvent{serviceId=" + apiServiceId + ", type=" + changeType +
+               ", version=" + version + ", changeLogId=" + changeLogId + "}";
+    }
+}
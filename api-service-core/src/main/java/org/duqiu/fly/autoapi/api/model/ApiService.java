@@ -53,6 +53,27 @@ public class ApiService extends TenantAwareBaseEntity {
     @Column(name = "rate_limit")
     private Integer rateLimit = 100;
     
+    @Column(name = "coalescing_enabled")
+    private Boolean coalescingEnabled = true;
+    
+    @Column(name = "query_timeout")
+    private Integer queryTimeout = 30;
+    
+    @Column(name = "max_result_rows")
+    private Integer maxResultRows = 0;
+    
+    @Column(name = "max_result_bytes")
+    private Long maxResultBytes = 0L;
+    
+    @Column(name = "pagination_enabled")
+    private Boolean paginationEnabled = false;
+    
+    @Column(name = "pagination_key", length = 200)
+    private String paginationKey;
+    
+    @Column(name = "page_size")
+    private Integer pageSize = 100;
+    
     public enum HttpMethod {
         GET, POST, PUT, DELETE
     }
@@ -0,0 +1,77 @@
+package org.duqiu.fly.autoapi.api.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * API服务路由变更日志实体
+ * 与发布/下线操作在同一事务中写入，ID单调递增，网关节点按ID增量拉取
+ */
+@Entity
+@Table(name = "api_service_change_logs")
+@Data
+public class ApiServiceChangeLog {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    /**
+     * 关联的API服务ID
+     */
+    @Column(name = "api_service_id", nullable = false)
+    private Long apiServiceId;
+    
+    /**
+     * 变更类型
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 20)
+    private ChangeType changeType;
+    
+    /**
+     * 变更涉及的版本ID
+     */
+    @Column(name = "version_id")
+    private Long versionId;
+    
+    /**
+     * 变更涉及的版本号
+     */
+    @Column(length = 50)
+    private String version;
+    
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "created_by")
+    private Long createdBy;
+    
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+    
+    /**
+     * 变更类型枚举
+     */
+    public enum ChangeType {
+        PUBLISHED("发布"),
+        UNPUBLISHED("下线"),
+        VERSION_ACTIVATED("版本激活");
+        
+        private final String description;
+        
+        ChangeType(String description) {
+            this.description = description;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -123,4 +123,46 @@ public class ApiServiceVersion extends TenantAwareBaseEntity {
      */
     @Column(name = "rate_limit")
     private Integer rateLimit = 100;
+    
+    /**
+     * 并发相同请求合并配置（快照）
+     */
+    @Column(name = "coalescing_enabled")
+    private Boolean coalescingEnabled = true;
+    
+    /**
+     * 查询超时秒数（快照），0表示不限制
+     */
+    @Column(name = "query_timeout")
+    private Integer queryTimeout = 30;
+    
+    /**
+     * 结果行数上限（快照），0表示使用网关默认值
+     */
+    @Column(name = "max_result_rows")
+    private Integer maxResultRows = 0;
+    
+    /**
+     * 结果大小上限字节数（快照），0表示使用网关默认值
+     */
+    @Column(name = "max_result_bytes")
+    private Long maxResultBytes = 0L;
+    
+    /**
+     * 是否启用键集分页（快照）
+     */
+    @Column(name = "pagination_enabled")
+    private Boolean paginationEnabled = false;
+    
+    /**
+     * 分页键，格式为 表名.列名，必须是唯一索引列（快照）
+     */
+    @Column(name = "pagination_key", length = 200)
+    private String paginationKey;
+    
+    /**
+     * 默认每页行数（快照）
+     */
+    @Column(name = "page_size")
+    private Integer pageSize = 100;
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package org.duqiu.fly.autoapi.api.repository;
+
+import org.duqiu.fly.autoapi.api.model.ApiServiceChangeLog;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * API服务路由变更日志Repository
+ */
+@Repository
+public interface ApiServiceChangeLogRepository extends JpaRepository<ApiServiceChangeLog, Long> {
+    
+    /**
+     * 按ID增量拉取变更日志
+     */
+    List<ApiServiceChangeLog> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+    
+    /**
+     * 查找当前最大的变更日志ID，没有记录时返回0
+     */
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ApiServiceChangeLog c")
+    Long findMaxId();
+    
+    /**
+     * 删除指定时间之前的变更日志
+     */
+    @Modifying
+    @Query("DELETE FROM ApiServiceChangeLog c WHERE c.createdAt < :cutoffTime")
+    int deleteOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime);
+}
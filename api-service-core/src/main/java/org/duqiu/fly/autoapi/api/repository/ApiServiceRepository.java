@@ -1,18 +1,32 @@
 package org.duqiu.fly.autoapi.api.repository;
 
+import org.duqiu.fly.autoapi.api.dto.ApiServiceRoute;
 import org.duqiu.fly.autoapi.api.model.ApiService;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ApiServiceRepository extends JpaRepository<ApiService, Long> {
     
+    /**
+     * 服务路由投影的查询列，顺序与 {@link ApiServiceRoute} 构造参数一致
+     */
+    String ROUTE_SELECT = "s.id, s.name, s.description, s.path, s.method, s.status, s.dataSourceId, " +
+            "s.tenantId, s.createdBy, s.createdAt, s.updatedAt, " +
+            "v.id, v.version, v.sqlContent, v.cacheEnabled, v.cacheDuration, v.rateLimit, v.coalescingEnabled, v.queryTimeout, " +
+            "v.maxResultRows, v.maxResultBytes, v.paginationEnabled, v.paginationKey, v.pageSize, " +
+            "d.name, d.type, d.host, d.port, d.database";
+    
     /**
      * 分页查询用户的启用API服务
      */
@@ -58,6 +72,43 @@ public interface ApiServiceRepository extends JpaRepository<ApiService, Long> {
      */
     Page<ApiService> findByStatus(ApiStatus status, Pageable pageable);
     
+    /**
+     * 按ID键集分页查找指定状态且有激活版本的服务路由
+     * 服务、激活版本、数据源摘要一次关联查询得到
+     */
+    @Query("SELECT new org.duqiu.fly.autoapi.api.dto.ApiServiceRoute(" + ROUTE_SELECT + ") " +
+           "FROM ApiService s " +
+           "JOIN ApiServiceVersion v ON v.apiServiceId = s.id AND v.isActive = true " +
+           "LEFT JOIN DataSource d ON d.id = s.dataSourceId " +
+           "WHERE s.status = :status AND s.id > :afterId ORDER BY s.id ASC")
+    List<ApiServiceRoute> findRoutesByStatusAfterId(@Param("status") ApiStatus status,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+    
+    /**
+     * 按 (updatedAt, id) 键集分页查找指定时间点之后变更的服务路由，不限状态
+     * 没有激活版本的服务也会返回，版本字段为null
+     */
+    @Query("SELECT new org.duqiu.fly.autoapi.api.dto.ApiServiceRoute(" + ROUTE_SELECT + ") " +
+           "FROM ApiService s " +
+           "LEFT JOIN ApiServiceVersion v ON v.apiServiceId = s.id AND v.isActive = true " +
+           "LEFT JOIN DataSource d ON d.id = s.dataSourceId " +
+           "WHERE s.updatedAt > :since OR (s.updatedAt = :since AND s.id > :afterId) " +
+           "ORDER BY s.updatedAt ASC, s.id ASC")
+    List<ApiServiceRoute> findRoutesChangedSince(@Param("since") LocalDateTime since,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+    
+    /**
+     * 查找指定服务的路由，不限状态，没有激活版本的服务版本字段为null
+     */
+    @Query("SELECT new org.duqiu.fly.autoapi.api.dto.ApiServiceRoute(" + ROUTE_SELECT + ") " +
+           "FROM ApiService s " +
+           "LEFT JOIN ApiServiceVersion v ON v.apiServiceId = s.id AND v.isActive = true " +
+           "LEFT JOIN DataSource d ON d.id = s.dataSourceId " +
+           "WHERE s.id IN :serviceIds")
+    List<ApiServiceRoute> findRoutesByServiceIds(@Param("serviceIds") Collection<Long> serviceIds);
+    
     /**
      * 检查名称是否已被租户使用
      */
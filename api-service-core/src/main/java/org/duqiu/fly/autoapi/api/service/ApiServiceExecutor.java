@@ -4,13 +4,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.duqiu.fly.autoapi.api.dto.*;
+import org.duqiu.fly.autoapi.api.event.ApiServiceChangedEvent;
 import org.duqiu.fly.autoapi.api.model.ApiService;
 import org.duqiu.fly.autoapi.api.model.ApiServiceAuditLog;
+import org.duqiu.fly.autoapi.api.model.ApiServiceChangeLog;
 import org.duqiu.fly.autoapi.api.model.ApiServiceVersion;
 import org.duqiu.fly.autoapi.api.repository.ApiServiceAuditLogRepository;
+import org.duqiu.fly.autoapi.api.repository.ApiServiceChangeLogRepository;
 import org.duqiu.fly.autoapi.api.repository.ApiServiceRepository;
 import org.duqiu.fly.autoapi.api.repository.ApiServiceVersionRepository;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +39,9 @@ public class ApiServiceExecutor {
     private final ApiServiceRepository apiServiceRepository;
     private final ApiServiceVersionRepository versionRepository;
     private final ApiServiceAuditLogRepository auditLogRepository;
+    private final ApiServiceChangeLogRepository changeLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ApiServicePaginationValidator paginationValidator;
     private final ObjectMapper objectMapper;
     
     /**
@@ -61,6 +69,13 @@ public class ApiServiceExecutor {
             apiService.setCacheEnabled(request.getCacheEnabled());
             apiService.setCacheDuration(request.getCacheDuration());
             apiService.setRateLimit(request.getRateLimit());
+            apiService.setCoalescingEnabled(request.getCoalescingEnabled());
+            apiService.setQueryTimeout(request.getQueryTimeout());
+            apiService.setMaxResultRows(request.getMaxResultRows());
+            apiService.setMaxResultBytes(request.getMaxResultBytes());
+            apiService.setPaginationEnabled(request.getPaginationEnabled());
+            apiService.setPaginationKey(request.getPaginationKey());
+            apiService.setPageSize(request.getPageSize());
             apiService.setStatus(ApiStatus.DRAFT);
             apiService.setCreatedBy(userId);
             apiService.setUpdatedBy(userId);
@@ -114,6 +129,13 @@ public class ApiServiceExecutor {
             apiService.setCacheEnabled(request.getCacheEnabled());
             apiService.setCacheDuration(request.getCacheDuration());
             apiService.setRateLimit(request.getRateLimit());
+            apiService.setCoalescingEnabled(request.getCoalescingEnabled());
+            apiService.setQueryTimeout(request.getQueryTimeout());
+            apiService.setMaxResultRows(request.getMaxResultRows());
+            apiService.setMaxResultBytes(request.getMaxResultBytes());
+            apiService.setPaginationEnabled(request.getPaginationEnabled());
+            apiService.setPaginationKey(request.getPaginationKey());
+            apiService.setPageSize(request.getPageSize());
             apiService.setUpdatedBy(userId);
             
             apiService = apiServiceRepository.save(apiService);
@@ -159,6 +181,9 @@ public class ApiServiceExecutor {
                 throw new IllegalArgumentException("版本号已存在，请使用不同的版本号或选择强制发布");
             }
             
+            // 启用键集分页时校验分页键是唯一索引列
+            paginationValidator.validate(apiService);
+            
             // 创建版本快照
             ApiServiceVersion version = createVersionSnapshot(apiService, request);
             version = versionRepository.save(version);
@@ -166,11 +191,18 @@ public class ApiServiceExecutor {
             // 设置为激活版本
             versionRepository.setActiveVersion(id, version.getId());
             
-            // 更新服务状态
+            // 更新服务状态，重复发布时也刷新更新时间，保证网关增量发现能感知新版本
+            boolean alreadyPublished = apiService.getStatus() == ApiStatus.PUBLISHED;
             apiService.setStatus(ApiStatus.PUBLISHED);
             apiService.setUpdatedBy(userId);
+            apiService.setUpdatedAt(LocalDateTime.now());
             apiServiceRepository.save(apiService);
             
+            // 记录路由变更并通知网关
+            recordChange(id, alreadyPublished ? ApiServiceChangeLog.ChangeType.VERSION_ACTIVATED
+                                              : ApiServiceChangeLog.ChangeType.PUBLISHED,
+                    version.getId(), version.getVersion(), userId);
+            
             // 记录操作日志
             recordAuditLog(id, ApiServiceAuditLog.OperationType.PUBLISH, 
                     "发布API服务版本: " + request.getVersion(), 
@@ -220,6 +252,11 @@ public class ApiServiceExecutor {
                 versionRepository.save(version);
             }
             
+            // 记录路由变更并通知网关
+            recordChange(id, ApiServiceChangeLog.ChangeType.UNPUBLISHED,
+                    activeVersion.map(ApiServiceVersion::getId).orElse(null),
+                    activeVersion.map(ApiServiceVersion::getVersion).orElse(null), userId);
+            
             // 记录操作日志
             recordAuditLog(id, ApiServiceAuditLog.OperationType.UNPUBLISH, 
                     "下线API服务", beforeData, apiService, userId, 
@@ -334,8 +371,77 @@ public class ApiServiceExecutor {
         return publishedServices.map(this::convertToResponse);
     }
     
+    /**
+     * 按ID键集分页获取已发布且有激活版本的服务路由
+     * @param afterId 上一页最后一条记录的服务ID，首页传0
+     * @param limit 每页条数
+     */
+    public List<ApiServiceRoute> getPublishedServiceRoutes(Long afterId, int limit) {
+        return apiServiceRepository.findRoutesByStatusAfterId(ApiStatus.PUBLISHED, afterId, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * 按 (updatedAt, id) 键集分页获取变更过的服务路由，包含已下线的服务
+     * @param since 上一页最后一条记录的更新时间
+     * @param afterId 上一页最后一条记录的服务ID
+     * @param limit 每页条数
+     */
+    public List<ApiServiceRoute> getChangedServiceRoutes(LocalDateTime since, Long afterId, int limit) {
+        return apiServiceRepository.findRoutesChangedSince(since, afterId, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * 获取指定服务的路由，没有激活版本的服务版本字段为null
+     */
+    public List<ApiServiceRoute> getServiceRoutes(Collection<Long> serviceIds) {
+        if (serviceIds.isEmpty()) {
+            return List.of();
+        }
+        return apiServiceRepository.findRoutesByServiceIds(serviceIds);
+    }
+    
+    /**
+     * 按ID增量获取路由变更日志
+     * @param afterId 已处理的最大变更日志ID
+     * @param limit 每页条数
+     */
+    public List<ApiServiceChangeLog> getChangeLogsAfter(Long afterId, int limit) {
+        return changeLogRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit));
+    }
+    
+    /**
+     * 获取当前最大的路由变更日志ID
+     */
+    public Long getLatestChangeLogId() {
+        return changeLogRepository.findMaxId();
+    }
+    
+    /**
+     * 清理指定时间之前的路由变更日志
+     * @return 删除的条数
+     */
+    @Transactional
+    public int purgeChangeLogs(LocalDateTime cutoffTime) {
+        return changeLogRepository.deleteOlderThan(cutoffTime);
+    }
+    
     // ===== 私有方法 =====
     
+    /**
+     * 在当前事务中写入路由变更日志并发布变更事件
+     */
+    private void recordChange(Long apiServiceId, ApiServiceChangeLog.ChangeType changeType,
+                              Long versionId, String version, Long userId) {
+        ApiServiceChangeLog changeLog = new ApiServiceChangeLog();
+        changeLog.setApiServiceId(apiServiceId);
+        changeLog.setChangeType(changeType);
+        changeLog.setVersionId(versionId);
+        changeLog.setVersion(version);
+        changeLog.setCreatedBy(userId);
+        changeLog = changeLogRepository.save(changeLog);
+        eventPublisher.publishEvent(new ApiServiceChangedEvent(changeLog));
+    }
+    
     private ApiService getApiServiceByIdAndUser(Long id, Long userId) {
         return apiServiceRepository.findByIdAndCreatedBy(id, userId)
                 .orElseThrow(() -> new IllegalArgumentException("API服务不存在或无权限访问"));
@@ -360,6 +466,13 @@ public class ApiServiceExecutor {
         version.setCacheEnabled(apiService.getCacheEnabled());
         version.setCacheDuration(apiService.getCacheDuration());
         version.setRateLimit(apiService.getRateLimit());
+        version.setCoalescingEnabled(apiService.getCoalescingEnabled());
+        version.setQueryTimeout(apiService.getQueryTimeout());
+        version.setMaxResultRows(apiService.getMaxResultRows());
+        version.setMaxResultBytes(apiService.getMaxResultBytes());
+        version.setPaginationEnabled(apiService.getPaginationEnabled());
+        version.setPaginationKey(apiService.getPaginationKey());
+        version.setPageSize(apiService.getPageSize());
         version.setCreatedBy(apiService.getCreatedBy());
         version.setUpdatedBy(apiService.getUpdatedBy());
         
@@ -380,6 +493,13 @@ public class ApiServiceExecutor {
         compareField(differences, "cacheEnabled", "缓存启用", source.getCacheEnabled(), target.getCacheEnabled());
         compareField(differences, "cacheDuration", "缓存时长", source.getCacheDuration(), target.getCacheDuration());
         compareField(differences, "rateLimit", "限流配置", source.getRateLimit(), target.getRateLimit());
+        compareField(differences, "coalescingEnabled", "请求合并", source.getCoalescingEnabled(), target.getCoalescingEnabled());
+        compareField(differences, "queryTimeout", "查询超时", source.getQueryTimeout(), target.getQueryTimeout());
+        compareField(differences, "maxResultRows", "结果行数上限", source.getMaxResultRows(), target.getMaxResultRows());
+        compareField(differences, "maxResultBytes", "结果大小上限", source.getMaxResultBytes(), target.getMaxResultBytes());
+        compareField(differences, "paginationEnabled", "键集分页", source.getPaginationEnabled(), target.getPaginationEnabled());
+        compareField(differences, "paginationKey", "分页键", source.getPaginationKey(), target.getPaginationKey());
+        compareField(differences, "pageSize", "每页行数", source.getPageSize(), target.getPageSize());
         
         return differences;
     }
@@ -468,6 +588,13 @@ public class ApiServiceExecutor {
         response.setCacheEnabled(apiService.getCacheEnabled());
         response.setCacheDuration(apiService.getCacheDuration());
         response.setRateLimit(apiService.getRateLimit());
+        response.setCoalescingEnabled(apiService.getCoalescingEnabled());
+        response.setQueryTimeout(apiService.getQueryTimeout());
+        response.setMaxResultRows(apiService.getMaxResultRows());
+        response.setMaxResultBytes(apiService.getMaxResultBytes());
+        response.setPaginationEnabled(apiService.getPaginationEnabled());
+        response.setPaginationKey(apiService.getPaginationKey());
+        response.setPageSize(apiService.getPageSize());
         response.setCreatedAt(apiService.getCreatedAt());
         response.setUpdatedAt(apiService.getUpdatedAt());
         response.setCreatedBy(apiService.getCreatedBy());
@@ -497,6 +624,13 @@ public class ApiServiceExecutor {
         response.setCacheEnabled(version.getCacheEnabled());
         response.setCacheDuration(version.getCacheDuration());
         response.setRateLimit(version.getRateLimit());
+        response.setCoalescingEnabled(version.getCoalescingEnabled());
+        response.setQueryTimeout(version.getQueryTimeout());
+        response.setMaxResultRows(version.getMaxResultRows());
+        response.setMaxResultBytes(version.getMaxResultBytes());
+        response.setPaginationEnabled(version.getPaginationEnabled());
+        response.setPaginationKey(version.getPaginationKey());
+        response.setPageSize(version.getPageSize());
         response.setCreatedAt(version.getCreatedAt());
         response.setCreatedBy(version.getCreatedBy());
         
@@ -7,6 +7,9 @@ import org.duqiu.fly.autoapi.api.repository.ApiServiceRepository;
 import org.duqiu.fly.autoapi.common.dto.PageResult;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
 import org.duqiu.fly.autoapi.common.context.TenantContext;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcConnection;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcDataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
 import org.springframework.data.domain.Page;
@@ -16,9 +19,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -29,11 +32,14 @@ public class ApiServiceManager {
     
     private final ApiServiceRepository apiServiceRepository;
     private final DataSourceRepository dataSourceRepository;
+    private final JdbcDataSourceFactory jdbcDataSourceFactory;
     
     public ApiServiceManager(ApiServiceRepository apiServiceRepository,
-                           DataSourceRepository dataSourceRepository) {
+                           DataSourceRepository dataSourceRepository,
+                           JdbcDataSourceFactory jdbcDataSourceFactory) {
         this.apiServiceRepository = apiServiceRepository;
         this.dataSourceRepository = dataSourceRepository;
+        this.jdbcDataSourceFactory = jdbcDataSourceFactory;
     }
     
     public ApiServiceResponse createApiService(ApiServiceCreateRequest request, Long userId) {
@@ -62,6 +68,13 @@ public class ApiServiceManager {
         apiService.setCacheEnabled(request.getCacheEnabled());
         apiService.setCacheDuration(request.getCacheDuration());
         apiService.setRateLimit(request.getRateLimit());
+        apiService.setCoalescingEnabled(request.getCoalescingEnabled());
+        apiService.setQueryTimeout(request.getQueryTimeout());
+        apiService.setMaxResultRows(request.getMaxResultRows());
+        apiService.setMaxResultBytes(request.getMaxResultBytes());
+        apiService.setPaginationEnabled(request.getPaginationEnabled());
+        apiService.setPaginationKey(request.getPaginationKey());
+        apiService.setPageSize(request.getPageSize());
         apiService.setCreatedBy(userId);
         apiService.setUpdatedBy(userId);
         
@@ -130,6 +143,13 @@ public class ApiServiceManager {
         apiService.setCacheEnabled(request.getCacheEnabled());
         apiService.setCacheDuration(request.getCacheDuration());
         apiService.setRateLimit(request.getRateLimit());
+        apiService.setCoalescingEnabled(request.getCoalescingEnabled());
+        apiService.setQueryTimeout(request.getQueryTimeout());
+        apiService.setMaxResultRows(request.getMaxResultRows());
+        apiService.setMaxResultBytes(request.getMaxResultBytes());
+        apiService.setPaginationEnabled(request.getPaginationEnabled());
+        apiService.setPaginationKey(request.getPaginationKey());
+        apiService.setPageSize(request.getPageSize());
         apiService.setUpdatedBy(userId);
         apiService.setUpdatedAt(LocalDateTime.now());
         
@@ -191,24 +211,27 @@ public class ApiServiceManager {
     private Map<String, Object> executeSql(DataSource dataSource, String sql, Map<String, Object> params) {
         Map<String, Object> result = new HashMap<>();
         
-        try (Connection connection = DriverManager.getConnection(
-                dataSource.getConnectionUrl(),
-                dataSource.getUsername(),
-                dataSource.getPassword())) {
+        try (JdbcConnection pooledConnection = borrowConnection(dataSource)) {
+            Connection connection = pooledConnection.getJdbcConnection();
             
-            try (PreparedStatement statement = connection.prepareStatement(sql)) {
-                // 简化处理，实际应该解析参数并设置到PreparedStatement中
+            NamedParameterSql namedSql = NamedParameterSql.compile(sql, dataSource.getType());
+            try (PreparedStatement statement = connection.prepareStatement(namedSql.getSql())) {
+                namedSql.bind(statement, params);
                 
                 try (ResultSet resultSet = statement.executeQuery()) {
                     List<Map<String, Object>> rows = new ArrayList<>();
                     
-                    int columnCount = resultSet.getMetaData().getColumnCount();
+                    ResultSetMetaData metaData = resultSet.getMetaData();
+                    int columnCount = metaData.getColumnCount();
+                    String[] columnNames = new String[columnCount + 1];
+                    for (int i = 1; i <= columnCount; i++) {
+                        columnNames[i] = metaData.getColumnName(i);
+                    }
+                    
                     while (resultSet.next()) {
                         Map<String, Object> row = new HashMap<>();
                         for (int i = 1; i <= columnCount; i++) {
-                            String columnName = resultSet.getMetaData().getColumnName(i);
-                            Object value = resultSet.getObject(i);
-                            row.put(columnName, value);
+                            row.put(columnNames[i], resultSet.getObject(i));
                         }
                         rows.add(row);
                     }
@@ -224,6 +247,13 @@ public class ApiServiceManager {
         return result;
     }
     
+    /**
+     * 从数据源连接池借用连接，关闭即归还
+     */
+    private JdbcConnection borrowConnection(DataSource dataSource) {
+        return (JdbcConnection) jdbcDataSourceFactory.getConnectionPool(dataSource).getConnection();
+    }
+    
     private ApiServiceResponse convertToResponse(ApiService apiService) {
         ApiServiceResponse response = new ApiServiceResponse();
         response.setId(apiService.getId());
@@ -247,6 +277,13 @@ public class ApiServiceManager {
         response.setCacheEnabled(apiService.getCacheEnabled());
         response.setCacheDuration(apiService.getCacheDuration());
         response.setRateLimit(apiService.getRateLimit());
+        response.setCoalescingEnabled(apiService.getCoalescingEnabled());
+        response.setQueryTimeout(apiService.getQueryTimeout());
+        response.setMaxResultRows(apiService.getMaxResultRows());
+        response.setMaxResultBytes(apiService.getMaxResultBytes());
+        response.setPaginationEnabled(apiService.getPaginationEnabled());
+        response.setPaginationKey(apiService.getPaginationKey());
+        response.setPageSize(apiService.getPageSize());
         response.setCreatedAt(apiService.getCreatedAt());
         response.setUpdatedAt(apiService.getUpdatedAt());
         return response;
@@ -0,0 +1,106 @@
+package org.duqiu.fly.autoapi.api.service;
+
+import lombok.RequiredArgsConstructor;
+import org.duqiu.fly.autoapi.api.model.ApiService;
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.factory.UnifiedDataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 键集分页配置校验
+ * 分页键必须是数据源中某张表上单列唯一索引的列，否则按键排序和续页条件无法保证不重不漏
+ */
+@Component
+@RequiredArgsConstructor
+public class ApiServicePaginationValidator {
+
+    /**
+     * 支持键集分页的数据源类型
+     */
+    static final Set<DataSourceType> SUPPORTED_TYPES =
+            EnumSet.of(DataSourceType.MYSQL, DataSourceType.POSTGRESQL, DataSourceType.H2, DataSourceType.ORACLE);
+
+    private final DataSourceRepository dataSourceRepository;
+    private final UnifiedDataSourceFactory dataSourceFactory;
+
+    /**
+     * 校验服务的分页配置，未启用分页时直接返回
+     * @throws IllegalArgumentException 配置不合法
+     */
+    public void validate(ApiService apiService) {
+        if (!Boolean.TRUE.equals(apiService.getPaginationEnabled())) {
+            return;
+        }
+        if (apiService.getPageSize() == null || apiService.getPageSize() <= 0) {
+            throw new IllegalArgumentException("每页行数必须大于0");
+        }
+        String[] key = parseKey(apiService.getPaginationKey());
+
+        DataSource dataSource = dataSourceRepository.findById(apiService.getDataSourceId())
+                .orElseThrow(() -> new IllegalArgumentException("数据源不存在"));
+        if (!SUPPORTED_TYPES.contains(dataSource.getType())) {
+            throw new IllegalArgumentException("数据源类型不支持键集分页: " + dataSource.getType());
+        }
+
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
+            DataSourceConnection.TableSchema schema = loadSchema(connection, key[0]);
+            if (schema == null) {
+                throw new IllegalArgumentException("分页键所在的表不存在: " + key[0]);
+            }
+            if (!hasUniqueIndex(schema, key[1])) {
+                throw new IllegalArgumentException("分页键必须是单列唯一索引或主键: " + apiService.getPaginationKey());
+            }
+        }
+    }
+
+    /**
+     * 解析 表名.列名 形式的分页键
+     */
+    static String[] parseKey(String paginationKey) {
+        if (paginationKey == null || paginationKey.isBlank()) {
+            throw new IllegalArgumentException("启用分页时必须指定分页键");
+        }
+        String key = paginationKey.trim();
+        int dot = key.lastIndexOf('.');
+        if (dot <= 0 || dot == key.length() - 1) {
+            throw new IllegalArgumentException("分页键格式应为 表名.列名: " + paginationKey);
+        }
+        String column = key.substring(dot + 1);
+        if (!column.matches("\\w+")) {
+            throw new IllegalArgumentException("分页键列名不合法: " + column);
+        }
+        return new String[]{key.substring(0, dot), column};
+    }
+
+    /**
+     * 元数据中表名的大小写随数据库而定（Oracle/H2默认大写，PostgreSQL默认小写），依次尝试
+     */
+    private DataSourceConnection.TableSchema loadSchema(DataSourceConnection connection, String table) {
+        for (String candidate : List.of(table, table.toUpperCase(Locale.ROOT), table.toLowerCase(Locale.ROOT))) {
+            DataSourceConnection.TableSchema schema = connection.getTableSchema(candidate);
+            if (schema != null && schema.getColumns() != null && !schema.getColumns().isEmpty()) {
+                return schema;
+            }
+        }
+        return null;
+    }
+
+    static boolean hasUniqueIndex(DataSourceConnection.TableSchema schema, String column) {
+        if (schema.getIndexes() == null) {
+            return false;
+        }
+        return schema.getIndexes().stream()
+                .filter(DataSourceConnection.IndexInfo::isUnique)
+                .map(DataSourceConnection.IndexInfo::getColumns)
+                .anyMatch(columns -> columns != null && columns.size() == 1
+                        && columns.get(0).equalsIgnoreCase(column));
+    }
+}
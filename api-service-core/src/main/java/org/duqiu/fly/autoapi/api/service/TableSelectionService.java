@@ -96,7 +96,7 @@ public class TableSelectionService {
                 throw new IllegalArgumentException("无权访问该数据源");
             }
             
-            try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+            try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
                 List<DataSourceConnection.TableInfo> tables;
                 
                 if (connection instanceof SchemaAwareConnection && (database != null || schema != null)) {
@@ -136,7 +136,7 @@ public class TableSelectionService {
                 throw new IllegalArgumentException("无权访问该数据源");
             }
             
-            try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+            try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
                 DataSourceConnection.TableSchema tableSchema;
                 
                 if (connection instanceof SchemaAwareConnection && (database != null || schema != null)) {
@@ -3,6 +3,9 @@ package org.duqiu.fly.autoapi.test.service;
 import org.duqiu.fly.autoapi.api.model.ApiService;
 import org.duqiu.fly.autoapi.api.repository.ApiServiceRepository;
 import org.duqiu.fly.autoapi.api.service.ApiServiceManager;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcConnection;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcDataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
 import org.duqiu.fly.autoapi.test.dto.ApiTestRequest;
@@ -14,8 +17,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 public class ApiTestExecutor {
@@ -23,13 +24,16 @@ public class ApiTestExecutor {
     private final ApiServiceRepository apiServiceRepository;
     private final DataSourceRepository dataSourceRepository;
     private final ApiServiceManager apiServiceManager;
+    private final JdbcDataSourceFactory jdbcDataSourceFactory;
     
     public ApiTestExecutor(ApiServiceRepository apiServiceRepository,
                            DataSourceRepository dataSourceRepository,
-                           ApiServiceManager apiServiceManager) {
+                           ApiServiceManager apiServiceManager,
+                           JdbcDataSourceFactory jdbcDataSourceFactory) {
         this.apiServiceRepository = apiServiceRepository;
         this.dataSourceRepository = dataSourceRepository;
         this.apiServiceManager = apiServiceManager;
+        this.jdbcDataSourceFactory = jdbcDataSourceFactory;
     }
     
     public ApiTestResponse testApi(ApiTestRequest request, Long userId) {
@@ -82,10 +86,8 @@ public class ApiTestExecutor {
         
         Map<String, Object> result = new HashMap<>();
         
-        try (Connection connection = DriverManager.getConnection(
-                dataSource.getConnectionUrl(),
-                dataSource.getUsername(),
-                dataSource.getPassword())) {
+        try (JdbcConnection pooledConnection = borrowConnection(dataSource)) {
+            Connection connection = pooledConnection.getJdbcConnection();
             
             // 执行EXPLAIN或类似操作来验证SQL
             String validateSql = "EXPLAIN " + sql;
@@ -106,17 +108,16 @@ public class ApiTestExecutor {
     private Object executeSqlWithParams(DataSource dataSource, String sql, Map<String, Object> params) {
         Map<String, Object> result = new HashMap<>();
         
-        try (Connection connection = DriverManager.getConnection(
-                dataSource.getConnectionUrl(),
-                dataSource.getUsername(),
-                dataSource.getPassword())) {
+        try (JdbcConnection pooledConnection = borrowConnection(dataSource)) {
+            Connection connection = pooledConnection.getJdbcConnection();
             
             // 解析SQL中的参数占位符
-            String processedSql = replaceSqlParameters(sql, params);
+            NamedParameterSql namedSql = NamedParameterSql.compile(sql, dataSource.getType());
             
-            try (PreparedStatement statement = connection.prepareStatement(processedSql)) {
+            try (PreparedStatement statement = connection.prepareStatement(namedSql.getSql())) {
+                namedSql.bind(statement, params);
                 
-                if (isSelectStatement(processedSql)) {
+                if (isSelectStatement(namedSql.getSql())) {
                     try (ResultSet resultSet = statement.executeQuery()) {
                         List<Map<String, Object>> rows = new ArrayList<>();
                         ResultSetMetaData metaData = resultSet.getMetaData();
@@ -149,28 +150,11 @@ public class ApiTestExecutor {
         return result;
     }
     
-    private String replaceSqlParameters(String sql, Map<String, Object> params) {
-        if (params == null || params.isEmpty()) {
-            return sql;
-        }
-        
-        String result = sql;
-        Pattern pattern = Pattern.compile("\\$\\{(\\w+)\\}");
-        Matcher matcher = pattern.matcher(sql);
-        
-        while (matcher.find()) {
-            String paramName = matcher.group(1);
-            Object paramValue = params.get(paramName);
-            if (paramValue != null) {
-                String replacement = paramValue.toString();
-                if (paramValue instanceof String) {
-                    replacement = "'" + replacement.replace("'", "''") + "'";
-                }
-                result = result.replace("${" + paramName + "}", replacement);
-            }
-        }
-        
-        return result;
+    /**
+     * 从数据源连接池借用连接，关闭即归还
+     */
+    private JdbcConnection borrowConnection(DataSource dataSource) {
+        return (JdbcConnection) jdbcDataSourceFactory.getConnectionPool(dataSource).getConnection();
     }
     
     private boolean isSelectStatement(String sql) {
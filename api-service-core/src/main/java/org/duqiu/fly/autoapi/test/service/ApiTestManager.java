@@ -13,6 +13,9 @@ import org.duqiu.fly.autoapi.datasource.factory.UnifiedDataSourceFactory;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.core.QueryOptions;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcConnection;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
 import org.duqiu.fly.autoapi.test.dto.ApiTestRequest;
 import org.duqiu.fly.autoapi.test.dto.ApiTestResponse;
 import org.springframework.stereotype.Service;
@@ -33,6 +36,8 @@ import java.util.regex.Pattern;
 @Slf4j
 public class ApiTestManager {
     
+    private static final Pattern SQL_PARAMETER_PATTERN = Pattern.compile("\\$\\{([^}]+)\\}");
+    
     private final ApiServiceRepository apiServiceRepository;
     private final ApiServiceVersionRepository versionRepository;
     private final DataSourceRepository dataSourceRepository;
@@ -62,7 +67,9 @@ public class ApiTestManager {
             
             // 执行测试
             ApiTestResponse response = executeApiTest(dataSource, apiService.getSqlContent(), 
-                                                    request.getParameters(), startTime);
+                                                    request.getParameters(), startTime,
+                                                    queryOptions(apiService.getQueryTimeout(),
+                                                            apiService.getMaxResultRows(), apiService.getMaxResultBytes()));
             response.setTestTime(LocalDateTime.now());
             response.setTestParameters(request.getParameters());
             
@@ -121,7 +128,9 @@ public class ApiTestManager {
             
             // 执行测试
             ApiTestResponse response = executeApiTest(dataSource, serviceVersion.getSqlContent(), 
-                                                    parameters, startTime);
+                                                    parameters, startTime,
+                                                    queryOptions(serviceVersion.getQueryTimeout(),
+                                                            serviceVersion.getMaxResultRows(), serviceVersion.getMaxResultBytes()));
             response.setTestTime(LocalDateTime.now());
             response.setTestParameters(parameters);
             
@@ -169,7 +178,7 @@ public class ApiTestManager {
             String processedSql = processSqlParameters(sql, parameters);
             
             // 使用统一数据源工厂进行验证
-            try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+            try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
                 // 尝试执行简单的验证查询（如SELECT 1）
                 // 这里使用简单的验证方式，实际项目中可能需要更复杂的SQL验证
                 Map<String, Object> validationResult = new HashMap<>();
@@ -213,7 +222,7 @@ public class ApiTestManager {
             String processedSql = processSqlParameters(sql, parameters);
             
             // 获取执行计划
-            try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+            try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
                 // 这里使用简单的执行计划模拟，实际项目中可能需要数据库特定的EXPLAIN功能
                 Map<String, Object> explainResult = new HashMap<>();
                 explainResult.put("explainType", "simulated");
@@ -252,20 +261,38 @@ public class ApiTestManager {
     
     // ===== 私有方法 =====
     
+    /**
+     * 测试执行与网关使用相同的超时和结果上限，大结果溢出到临时文件
+     */
+    private QueryOptions queryOptions(Integer queryTimeout, Integer maxResultRows, Long maxResultBytes) {
+        return QueryOptions.defaults()
+                .setQueryTimeoutSeconds(queryTimeout != null ? queryTimeout : 0)
+                .setMaxResultRows(maxResultRows != null ? maxResultRows : 0)
+                .setMaxResultBytes(maxResultBytes != null ? maxResultBytes : 0)
+                .setSpillThresholdBytes(QueryOptions.DEFAULT_SPILL_THRESHOLD_BYTES);
+    }
+    
     private ApiTestResponse executeApiTest(DataSource dataSource, String sql, 
-                                         Map<String, Object> parameters, long startTime) {
+                                         Map<String, Object> parameters, long startTime,
+                                         QueryOptions options) {
         try {
             long connectionStart = System.currentTimeMillis();
             
-            try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+            try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
                 long connectionTime = System.currentTimeMillis() - connectionStart;
                 
-                // 处理SQL参数
+                // 处理SQL参数：JDBC数据源按名称绑定到预编译语句，其他数据源按文本替换
                 long queryStart = System.currentTimeMillis();
-                String processedSql = processSqlParameters(sql, parameters);
-                
-                // 执行查询
-                DataSourceConnection.QueryResult queryResult = connection.executeQuery(processedSql, parameters);
+                String processedSql;
+                DataSourceConnection.QueryResult queryResult;
+                if (connection instanceof JdbcConnection jdbcConnection) {
+                    NamedParameterSql namedSql = NamedParameterSql.compile(sql, dataSource.getType());
+                    processedSql = namedSql.getSql();
+                    queryResult = jdbcConnection.executeQuery(namedSql, parameters, options);
+                } else {
+                    processedSql = processSqlParameters(sql, parameters);
+                    queryResult = connection.executeQuery(processedSql, parameters, options);
+                }
                 long queryTime = System.currentTimeMillis() - queryStart;
                 
                 // 处理结果
@@ -303,8 +330,7 @@ public class ApiTestManager {
         String processedSql = sql;
         
         // 处理 ${param} 格式的参数
-        Pattern pattern = Pattern.compile("\\$\\{([^}]+)\\}");
-        Matcher matcher = pattern.matcher(sql);
+        Matcher matcher = SQL_PARAMETER_PATTERN.matcher(sql);
         
         while (matcher.find()) {
             String paramName = matcher.group(1);
@@ -16,6 +16,13 @@ CREATE TABLE api_services (
     cache_enabled BOOLEAN DEFAULT FALSE COMMENT '是否启用缓存',
     cache_duration INT DEFAULT 300 COMMENT '缓存时长(秒)',
     rate_limit INT DEFAULT 100 COMMENT '限流配置(每分钟请求数)',
+    coalescing_enabled BOOLEAN DEFAULT TRUE COMMENT '是否合并并发的相同请求',
+    query_timeout INT DEFAULT 30 COMMENT '查询超时秒数，0表示不限制',
+    max_result_rows INT DEFAULT 0 COMMENT '结果行数上限，0表示使用网关默认值',
+    max_result_bytes BIGINT DEFAULT 0 COMMENT '结果大小上限字节数，0表示使用网关默认值',
+    pagination_enabled BOOLEAN DEFAULT FALSE COMMENT '是否启用键集分页',
+    pagination_key VARCHAR(200) COMMENT '分页键(表名.列名)，必须是唯一索引列',
+    page_size INT DEFAULT 100 COMMENT '默认每页行数',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     created_by BIGINT NOT NULL COMMENT '创建人ID',
@@ -25,6 +32,7 @@ CREATE TABLE api_services (
     INDEX idx_status (status),
     INDEX idx_path_method (path, method),
     INDEX idx_datasource_id (datasource_id),
+    INDEX idx_updated_at (updated_at, id),
     UNIQUE KEY uk_name_created_by (name, created_by)
 ) COMMENT='API服务表';
 
@@ -49,6 +57,13 @@ CREATE TABLE api_service_versions (
     cache_enabled BOOLEAN DEFAULT FALSE COMMENT '缓存配置快照',
     cache_duration INT DEFAULT 300 COMMENT '缓存时长快照',
     rate_limit INT DEFAULT 100 COMMENT '限流配置快照',
+    coalescing_enabled BOOLEAN DEFAULT TRUE COMMENT '请求合并配置快照',
+    query_timeout INT DEFAULT 30 COMMENT '查询超时配置快照',
+    max_result_rows INT DEFAULT 0 COMMENT '结果行数上限快照',
+    max_result_bytes BIGINT DEFAULT 0 COMMENT '结果大小上限快照',
+    pagination_enabled BOOLEAN DEFAULT FALSE COMMENT '键集分页配置快照',
+    pagination_key VARCHAR(200) COMMENT '分页键快照',
+    page_size INT DEFAULT 100 COMMENT '每页行数快照',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     created_by BIGINT NOT NULL COMMENT '创建人ID',
@@ -112,6 +127,19 @@ CREATE TABLE api_service_table_selections (
     INDEX idx_sort_order (sort_order)
 ) COMMENT='API服务表选择配置表';
 
+-- API服务路由变更日志表
+CREATE TABLE api_service_change_logs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    api_service_id BIGINT NOT NULL COMMENT '关联的API服务ID',
+    change_type VARCHAR(20) NOT NULL COMMENT '变更类型',
+    version_id BIGINT COMMENT '版本ID',
+    version VARCHAR(50) COMMENT '版本号',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    created_by BIGINT COMMENT '操作人ID',
+    
+    INDEX idx_change_created_at (created_at)
+) COMMENT='API服务路由变更日志表';
+
 -- 创建外键约束
 ALTER TABLE api_service_versions 
 ADD CONSTRAINT fk_version_api_service 
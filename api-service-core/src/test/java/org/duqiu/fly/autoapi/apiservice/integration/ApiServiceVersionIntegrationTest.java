@@ -3,6 +3,7 @@ package org.duqiu.fly.autoapi.service.integration;
 import org.duqiu.fly.autoapi.api.dto.*;
 import org.duqiu.fly.autoapi.api.model.ApiService;
 import org.duqiu.fly.autoapi.api.model.ApiServiceVersion;
+import org.duqiu.fly.autoapi.api.service.ApiServiceExecutor;
 import org.duqiu.fly.autoapi.api.service.EnhancedApiServiceService;
 import org.duqiu.fly.autoapi.service.util.ApiServiceTestFactory;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
@@ -26,6 +27,9 @@ public class ApiServiceVersionIntegrationTest extends ApiServiceIntegrationTestB
     @Autowired
     private EnhancedApiServiceService apiServiceService;
     
+    @Autowired
+    private ApiServiceExecutor apiServiceExecutor;
+    
     @Test
     @DisplayName("发布API服务版本 - 成功")
     void testPublishApiService_Success() {
@@ -388,4 +392,26 @@ public class ApiServiceVersionIntegrationTest extends ApiServiceIntegrationTestB
         assertEquals(created.getName(), versionEntity.getName()); // 仍然是原始名称
         assertEquals(created.getSqlContent(), versionEntity.getSqlContent()); // 仍然是原始SQL
     }
-}
\ No newline at end of file
+    
+    @Test
+    @DisplayName("服务路由投影 - 关联激活版本")
+    void testGetPublishedServiceRoutes_JoinsActiveVersion() {
+        // Given
+        ApiServiceResponse created = apiServiceService.createApiService(
+                ApiServiceTestFactory.createBasicApiServiceRequest(), TEST_USER_ID);
+        apiServiceService.publishApiService(created.getId(), ApiServiceTestFactory.createPublishRequest("1.0.0"), TEST_USER_ID);
+        apiServiceService.publishApiService(created.getId(), ApiServiceTestFactory.createPublishRequest("1.0.1"), TEST_USER_ID);
+        
+        // When
+        List<ApiServiceRoute> routes = apiServiceExecutor.getPublishedServiceRoutes(0L, 100);
+        
+        // Then - 每个服务只返回激活版本一行
+        List<ApiServiceRoute> serviceRoutes = routes.stream()
+                .filter(route -> route.getServiceId().equals(created.getId()))
+                .toList();
+        assertEquals(1, serviceRoutes.size());
+        assertEquals("1.0.1", serviceRoutes.get(0).getVersion());
+        assertEquals(created.getSqlContent(), serviceRoutes.get(0).getSqlContent());
+        assertTrue(serviceRoutes.get(0).hasActiveVersion());
+    }
+}
@@ -60,6 +60,13 @@ CREATE TABLE api_services (
     cache_enabled BOOLEAN DEFAULT FALSE,
     cache_duration INT DEFAULT 300,
     rate_limit INT DEFAULT 100,
+    coalescing_enabled BOOLEAN DEFAULT TRUE,
+    query_timeout INT DEFAULT 30,
+    max_result_rows INT DEFAULT 0,
+    max_result_bytes BIGINT DEFAULT 0,
+    pagination_enabled BOOLEAN DEFAULT FALSE,
+    pagination_key VARCHAR(200),
+    page_size INT DEFAULT 100,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     created_by BIGINT NOT NULL,
@@ -69,6 +76,7 @@ CREATE TABLE api_services (
     INDEX idx_status (status),
     INDEX idx_path_method (path, method),
     INDEX idx_datasource_id (datasource_id),
+    INDEX idx_updated_at (updated_at, id),
     UNIQUE KEY uk_name_created_by (name, created_by)
 );
 
@@ -93,6 +101,13 @@ CREATE TABLE api_service_versions (
     cache_enabled BOOLEAN DEFAULT FALSE,
     cache_duration INT DEFAULT 300,
     rate_limit INT DEFAULT 100,
+    coalescing_enabled BOOLEAN DEFAULT TRUE,
+    query_timeout INT DEFAULT 30,
+    max_result_rows INT DEFAULT 0,
+    max_result_bytes BIGINT DEFAULT 0,
+    pagination_enabled BOOLEAN DEFAULT FALSE,
+    pagination_key VARCHAR(200),
+    page_size INT DEFAULT 100,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     created_by BIGINT NOT NULL,
@@ -153,6 +168,19 @@ CREATE TABLE api_service_table_selections (
     INDEX idx_is_primary (is_primary)
 );
 
+-- 创建路由变更日志表
+CREATE TABLE api_service_change_logs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    api_service_id BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    version_id BIGINT,
+    version VARCHAR(50),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by BIGINT,
+    
+    INDEX idx_change_created_at (created_at)
+);
+
 -- 创建业务测试表
 -- 用户表
 CREATE TABLE test_users (
@@ -31,4 +31,26 @@ public abstract class TenantAwareBaseEntity {
     
     @Column(name = "tenant_id", nullable = false)
     private Long tenantId;
+
+    /**
+     * 插入时补齐创建/更新时间
+     */
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (updatedAt == null) {
+            updatedAt = now;
+        }
+    }
+    
+    /**
+     * 更新时刷新更新时间，服务发现依赖该字段做增量扫描
+     */
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,445 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * 列式查询结果
+ * 列名只保存一份，数据按列存储：Integer/Long/Double列使用原生数组，其余使用Object数组。
+ * 需要 Map 形式时通过 {@link #asMaps()} 按需生成只读视图。
+ */
+public final class ColumnarRowSet {
+
+    private static final ColumnarRowSet EMPTY = new ColumnarRowSet(new String[0], new Column[0], 0);
+
+    /**
+     * 缺失单元格标记（文档型数据源各行字段可能不同）
+     */
+    private static final Object ABSENT = new Object();
+
+    private static final byte KIND_NONE = 0;
+    private static final byte KIND_INT = 1;
+    private static final byte KIND_LONG = 2;
+    private static final byte KIND_DOUBLE = 3;
+    private static final byte KIND_OBJECT = 4;
+
+    private final String[] columnNames;
+    private final Map<String, Integer> columnIndex;
+    private final Column[] columns;
+    private final int rowCount;
+    private final boolean hasAbsentCells;
+
+    private ColumnarRowSet(String[] columnNames, Column[] columns, int rowCount) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.rowCount = rowCount;
+        Map<String, Integer> index = new HashMap<>(columnNames.length * 4 / 3 + 1);
+        boolean absent = false;
+        for (int i = 0; i < columnNames.length; i++) {
+            index.put(columnNames[i], i);
+            absent |= columns[i].absent != null;
+        }
+        this.columnIndex = index;
+        this.hasAbsentCells = absent;
+    }
+
+    public static ColumnarRowSet empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder(String[] columnNames) {
+        return new Builder(columnNames);
+    }
+
+    /**
+     * 由行式结果转换，列取所有行字段的并集，保持首次出现的顺序
+     */
+    public static ColumnarRowSet fromRows(List<Map<String, Object>> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Integer> union = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            for (String key : row.keySet()) {
+                union.putIfAbsent(key, union.size());
+            }
+        }
+
+        Builder builder = new Builder(union.keySet().toArray(new String[0]));
+        Object[] values = new Object[union.size()];
+        for (Map<String, Object> row : rows) {
+            Arrays.fill(values, ABSENT);
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                values[union.get(entry.getKey())] = entry.getValue();
+            }
+            builder.addRow(values);
+        }
+        return builder.build();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * 获取列序号，不存在时返回-1
+     */
+    public int indexOf(String columnName) {
+        Integer index = columnIndex.get(columnName);
+        return index == null ? -1 : index;
+    }
+
+    public Object getValue(int row, int column) {
+        checkRow(row);
+        return columns[column].get(row);
+    }
+
+    /**
+     * 单元格是否存在（JDBC结果的单元格总是存在，值可能为null）
+     */
+    public boolean isPresent(int row, int column) {
+        checkRow(row);
+        return !columns[column].isAbsent(row);
+    }
+
+    /**
+     * 将一行数据复制到调用方提供的数组中，缺失单元格填null
+     */
+    public void copyRow(int row, Object[] target) {
+        checkRow(row);
+        for (int i = 0; i < columns.length; i++) {
+            target[i] = columns[i].get(row);
+        }
+    }
+
+    /**
+     * 行式只读视图，Map在访问时才创建
+     */
+    public List<Map<String, Object>> asMaps() {
+        return new RowListView();
+    }
+
+    /**
+     * 若列表是某个列式结果的视图则返回该结果，否则返回null
+     */
+    public static ColumnarRowSet unwrap(List<?> rows) {
+        if (rows instanceof ColumnarRowSet.RowListView view) {
+            return view.rowSet();
+        }
+        return null;
+    }
+
+    /**
+     * 粗略估算占用的堆内存字节数
+     */
+    public long estimateBytes() {
+        long size = 64 + 48L * columnNames.length;
+        for (int i = 0; i < columns.length; i++) {
+            size += 40 + 2L * columnNames[i].length() + columns[i].estimateBytes();
+        }
+        return size;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row + ", 总行数: " + rowCount);
+        }
+    }
+
+    /**
+     * 按行追加构建列式结果
+     */
+    public static final class Builder {
+        private final String[] columnNames;
+        private final Column[] columns;
+        private int rowCount;
+
+        private Builder(String[] columnNames) {
+            this.columnNames = columnNames.clone();
+            this.columns = new Column[columnNames.length];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new Column();
+            }
+        }
+
+        /**
+         * 追加一行，数组内容会被复制，调用方可以复用数组
+         */
+        public Builder addRow(Object[] values) {
+            if (values.length != columns.length) {
+                throw new IllegalArgumentException("列数不匹配: 期望 " + columns.length + ", 实际 " + values.length);
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].add(rowCount, values[i]);
+            }
+            rowCount++;
+            return this;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public ColumnarRowSet build() {
+            for (Column column : columns) {
+                column.trim(rowCount);
+            }
+            return new ColumnarRowSet(columnNames, columns, rowCount);
+        }
+    }
+
+    /**
+     * 单列存储，首个非空值决定存储类型，类型不一致时退化为Object数组
+     */
+    private static final class Column {
+        private byte kind = KIND_NONE;
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private Object[] objects;
+        private int capacity;
+        private final BitSet nulls = new BitSet();
+        private BitSet absent;
+
+        void add(int row, Object value) {
+            if (value == ABSENT) {
+                if (absent == null) {
+                    absent = new BitSet();
+                }
+                absent.set(row);
+                nulls.set(row);
+                return;
+            }
+            if (value == null) {
+                nulls.set(row);
+                return;
+            }
+            if (kind == KIND_NONE) {
+                kind = kindOf(value);
+            } else if (kind != KIND_OBJECT && kindOf(value) != kind) {
+                promoteToObject(row);
+            }
+            ensureCapacity(row + 1);
+            switch (kind) {
+                case KIND_INT -> ints[row] = (Integer) value;
+                case KIND_LONG -> longs[row] = (Long) value;
+                case KIND_DOUBLE -> doubles[row] = (Double) value;
+                default -> objects[row] = value;
+            }
+        }
+
+        Object get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            return switch (kind) {
+                case KIND_INT -> ints[row];
+                case KIND_LONG -> longs[row];
+                case KIND_DOUBLE -> doubles[row];
+                case KIND_OBJECT -> objects[row];
+                default -> null;
+            };
+        }
+
+        boolean isAbsent(int row) {
+            return absent != null && absent.get(row);
+        }
+
+        void trim(int rowCount) {
+            if (kind != KIND_NONE && capacity != rowCount) {
+                resize(rowCount);
+            }
+        }
+
+        long estimateBytes() {
+            long size = 48 + nulls.size() / 8 + (absent != null ? absent.size() / 8 : 0);
+            switch (kind) {
+                case KIND_INT -> size += 16 + 4L * capacity;
+                case KIND_LONG, KIND_DOUBLE -> size += 16 + 8L * capacity;
+                case KIND_OBJECT -> {
+                    size += 16 + 8L * capacity;
+                    for (int i = 0; i < capacity; i++) {
+                        Object value = objects[i];
+                        if (value instanceof CharSequence text) {
+                            size += 40 + 2L * text.length();
+                        } else if (value instanceof byte[] bytes) {
+                            size += 16 + bytes.length;
+                        } else if (value != null) {
+                            size += 24;
+                        }
+                    }
+                }
+                default -> { }
+            }
+            return size;
+        }
+
+        private static byte kindOf(Object value) {
+            if (value instanceof Integer) {
+                return KIND_INT;
+            }
+            if (value instanceof Long) {
+                return KIND_LONG;
+            }
+            if (value instanceof Double) {
+                return KIND_DOUBLE;
+            }
+            return KIND_OBJECT;
+        }
+
+        private void promoteToObject(int row) {
+            Object[] boxed = new Object[Math.max(capacity, row + 1)];
+            for (int i = 0; i < Math.min(capacity, row); i++) {
+                boxed[i] = get(i);
+            }
+            ints = null;
+            longs = null;
+            doubles = null;
+            objects = boxed;
+            capacity = boxed.length;
+            kind = KIND_OBJECT;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > capacity) {
+                resize(Math.max(required, Math.max(16, capacity + (capacity >> 1))));
+            }
+        }
+
+        private void resize(int newCapacity) {
+            switch (kind) {
+                case KIND_INT -> ints = ints == null ? new int[newCapacity] : Arrays.copyOf(ints, newCapacity);
+                case KIND_LONG -> longs = longs == null ? new long[newCapacity] : Arrays.copyOf(longs, newCapacity);
+                case KIND_DOUBLE -> doubles = doubles == null ? new double[newCapacity] : Arrays.copyOf(doubles, newCapacity);
+                default -> objects = objects == null ? new Object[newCapacity] : Arrays.copyOf(objects, newCapacity);
+            }
+            capacity = newCapacity;
+        }
+    }
+
+    /**
+     * 行列表视图
+     */
+    private final class RowListView extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+        @Override
+        public Map<String, Object> get(int row) {
+            checkRow(row);
+            return new RowView(row);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+
+        ColumnarRowSet rowSet() {
+            return ColumnarRowSet.this;
+        }
+    }
+
+    /**
+     * 单行Map视图，只读
+     */
+    private final class RowView extends AbstractMap<String, Object> {
+        private final int row;
+
+        RowView(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            Integer column = columnIndex.get(key);
+            return column == null ? null : columns[column].get(row);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            Integer column = columnIndex.get(key);
+            return column != null && !columns[column].isAbsent(row);
+        }
+
+        @Override
+        public int size() {
+            if (!hasAbsentCells) {
+                return columns.length;
+            }
+            int size = 0;
+            for (Column column : columns) {
+                if (!column.isAbsent(row)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int next = advance(0);
+
+                        private int advance(int from) {
+                            int column = from;
+                            while (column < columns.length && columns[column].isAbsent(row)) {
+                                column++;
+                            }
+                            return column;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < columns.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int column = next;
+                            next = advance(column + 1);
+                            return new SimpleImmutableEntry<>(columnNames[column], columns[column].get(row));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return RowView.this.size();
+                }
+            };
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarRowSet{columns=" + Arrays.toString(columnNames) + ", rows=" + rowCount + "}";
+    }
+}
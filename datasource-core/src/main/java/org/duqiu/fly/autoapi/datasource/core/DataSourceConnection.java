@@ -18,6 +18,13 @@ public interface DataSourceConnection extends AutoCloseable {
      */
     QueryResult executeQuery(String query, Map<String, Object> parameters);
     
+    /**
+     * 按执行选项执行查询，默认忽略超时和取消设置，由支持的实现覆盖
+     */
+    default QueryResult executeQuery(String query, Map<String, Object> parameters, QueryOptions options) {
+        return executeQuery(query, parameters);
+    }
+    
     /**
      * 执行更新操作
      */
@@ -49,6 +56,15 @@ public interface DataSourceConnection extends AutoCloseable {
      */
     interface QueryResult {
         List<Map<String, Object>> getData();
+        
+        /**
+         * 列式形式的结果，默认由 getData() 转换
+         */
+        default ColumnarRowSet getRowSet() {
+            ColumnarRowSet rowSet = ColumnarRowSet.unwrap(getData());
+            return rowSet != null ? rowSet : ColumnarRowSet.fromRows(getData());
+        }
+        
         long getCount();
         List<ColumnInfo> getColumns();
         long getExecutionTime();
@@ -0,0 +1,49 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+/**
+ * 查询取消句柄
+ * 执行方在查询开始时登记取消动作（如 Statement.cancel），其他线程调用 {@link #cancel()} 中止正在执行的查询。
+ * 先取消后登记的动作会立即执行。
+ */
+public final class QueryCancellation {
+
+    private boolean cancelled;
+    private Runnable action;
+
+    /**
+     * 登记取消动作，传入null表示查询已结束、解除登记
+     */
+    public void onCancel(Runnable action) {
+        boolean runNow;
+        synchronized (this) {
+            this.action = action;
+            runNow = cancelled && action != null;
+        }
+        if (runNow) {
+            action.run();
+        }
+    }
+
+    /**
+     * 取消查询
+     * @return 首次取消返回true
+     */
+    public boolean cancel() {
+        Runnable toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            toRun = action;
+        }
+        if (toRun != null) {
+            toRun.run();
+        }
+        return true;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,135 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import java.nio.file.Path;
+
+/**
+ * 查询执行选项
+ */
+public class QueryOptions {
+    
+    /**
+     * 默认驱动端每批抓取行数
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    
+    /**
+     * 默认溢出阈值：结果在堆内超过32MB后写入临时文件
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD_BYTES = 32L << 20;
+    
+    /**
+     * 驱动端每批抓取行数，0表示使用驱动默认值
+     */
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    
+    /**
+     * 最大返回行数，0表示不限制
+     */
+    private int maxRows;
+    
+    /**
+     * 查询超时秒数，0表示不限制
+     */
+    private int queryTimeoutSeconds;
+    
+    /**
+     * 取消句柄，可为null
+     */
+    private QueryCancellation cancellation;
+    
+    /**
+     * 结果行数硬上限，超过时查询失败；0表示不限制
+     */
+    private int maxResultRows;
+    
+    /**
+     * 结果估算字节数硬上限，超过时查询失败；0表示不限制
+     */
+    private long maxResultBytes;
+    
+    /**
+     * 结果在堆内累积超过该字节数后，后续行写入内存映射的临时文件；0表示不溢出
+     */
+    private long spillThresholdBytes;
+    
+    /**
+     * 溢出文件目录，null时使用系统临时目录
+     */
+    private Path spillDirectory;
+    
+    public static QueryOptions defaults() {
+        return new QueryOptions();
+    }
+    
+    public int getFetchSize() {
+        return fetchSize;
+    }
+    
+    public QueryOptions setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(0, fetchSize);
+        return this;
+    }
+    
+    public int getMaxRows() {
+        return maxRows;
+    }
+    
+    public QueryOptions setMaxRows(int maxRows) {
+        this.maxRows = Math.max(0, maxRows);
+        return this;
+    }
+    
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+    
+    public QueryOptions setQueryTimeoutSeconds(int queryTimeoutSeconds) {
+        this.queryTimeoutSeconds = Math.max(0, queryTimeoutSeconds);
+        return this;
+    }
+    
+    public QueryCancellation getCancellation() {
+        return cancellation;
+    }
+    
+    public QueryOptions setCancellation(QueryCancellation cancellation) {
+        this.cancellation = cancellation;
+        return this;
+    }
+    
+    public int getMaxResultRows() {
+        return maxResultRows;
+    }
+    
+    public QueryOptions setMaxResultRows(int maxResultRows) {
+        this.maxResultRows = Math.max(0, maxResultRows);
+        return this;
+    }
+    
+    public long getMaxResultBytes() {
+        return maxResultBytes;
+    }
+    
+    public QueryOptions setMaxResultBytes(long maxResultBytes) {
+        this.maxResultBytes = Math.max(0, maxResultBytes);
+        return this;
+    }
+    
+    public long getSpillThresholdBytes() {
+        return spillThresholdBytes;
+    }
+    
+    public QueryOptions setSpillThresholdBytes(long spillThresholdBytes) {
+        this.spillThresholdBytes = Math.max(0, spillThresholdBytes);
+        return this;
+    }
+    
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+    
+    public QueryOptions setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+}
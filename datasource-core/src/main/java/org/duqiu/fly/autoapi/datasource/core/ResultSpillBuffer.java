@@ -0,0 +1,275 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import org.duqiu.fly.autoapi.datasource.exception.DataSourceExceptions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 需要完整结果的查询使用的结果缓冲
+ * 堆内按列累积，估算大小超过溢出阈值后，后续行顺序写入临时文件，读取时按段内存映射；
+ * 行数或估算大小超过硬上限时抛出 {@link DataSourceExceptions.ResultLimitExceededException}
+ */
+public final class ResultSpillBuffer implements AutoCloseable {
+
+    /**
+     * 单个映射段的目标大小，段内只包含完整的行
+     */
+    static final long SEGMENT_BYTES = 64L << 20;
+
+    /**
+     * 每隔多少行记录一次段内偏移，用于按下标读取
+     */
+    static final int CHECKPOINT_INTERVAL = 256;
+
+    private static final int WRITE_BUFFER_BYTES = 256 << 10;
+
+    private final String[] columnNames;
+    private final int maxRows;
+    private final long maxBytes;
+    private final long spillThresholdBytes;
+    private final Path spillDirectory;
+    private final boolean measuring;
+    private final ColumnarRowSet.Builder head;
+
+    private long rowCount;
+    private long estimatedBytes;
+
+    private Path file;
+    private FileChannel channel;
+    private RowBytes rowBytes;
+    private DataOutputStream rowOut;
+    private ByteBuffer writeBuffer;
+    private long position;
+    private long segmentStart;
+    private int segmentRows;
+    private int[] segmentCheckpoints;
+    private final List<Segment> segments = new ArrayList<>();
+    private boolean finished;
+
+    private ResultSpillBuffer(String[] columnNames, QueryOptions options) {
+        this.columnNames = columnNames.clone();
+        this.maxRows = options != null ? options.getMaxResultRows() : 0;
+        this.maxBytes = options != null ? options.getMaxResultBytes() : 0;
+        this.spillThresholdBytes = options != null ? options.getSpillThresholdBytes() : 0;
+        this.spillDirectory = options != null ? options.getSpillDirectory() : null;
+        this.measuring = maxBytes > 0 || spillThresholdBytes > 0;
+        this.head = ColumnarRowSet.builder(columnNames);
+    }
+
+    /**
+     * @param options 执行选项，为null时不限制也不溢出
+     */
+    public static ResultSpillBuffer create(String[] columnNames, QueryOptions options) {
+        return new ResultSpillBuffer(columnNames, options);
+    }
+
+    /**
+     * 追加一行，数组内容会被复制，调用方可以复用数组
+     */
+    public void addRow(Object[] values) {
+        rowCount++;
+        if (maxRows > 0 && rowCount > maxRows) {
+            throw new DataSourceExceptions.ResultLimitExceededException(
+                "查询结果超过行数上限(" + maxRows + ")，请增加过滤条件或使用流式查询");
+        }
+        if (measuring) {
+            estimatedBytes += estimateRowBytes(values);
+            if (maxBytes > 0 && estimatedBytes > maxBytes) {
+                throw new DataSourceExceptions.ResultLimitExceededException(
+                    "查询结果超过大小上限(" + (maxBytes >> 10) + "KB)，请增加过滤条件或使用流式查询");
+            }
+        }
+        if (channel == null && (spillThresholdBytes == 0 || estimatedBytes <= spillThresholdBytes)) {
+            head.addRow(values);
+            return;
+        }
+        try {
+            spill(values);
+        } catch (IOException e) {
+            throw new DataSourceExceptions.QueryExecutionException("写入结果溢出文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 结束写入并返回结果行
+     * 未溢出时返回列式结果的视图；溢出时映射各段后删除文件，映射在结果不再被引用后释放
+     */
+    public List<Map<String, Object>> finish() {
+        finished = true;
+        ColumnarRowSet rowSet = head.build();
+        if (channel == null) {
+            return rowSet.asMaps();
+        }
+        try {
+            flushWriteBuffer();
+            closeSegment();
+            MappedByteBuffer[] mapped = new MappedByteBuffer[segments.size()];
+            for (int i = 0; i < mapped.length; i++) {
+                Segment segment = segments.get(i);
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, segment.start, segment.length);
+            }
+            return new SpilledRowList(columnNames, rowSet, mapped,
+                segments.stream().mapToInt(segment -> segment.rows).toArray(),
+                segments.stream().map(segment -> segment.checkpoints).toArray(int[][]::new));
+        } catch (IOException e) {
+            throw new DataSourceExceptions.QueryExecutionException("映射结果溢出文件失败: " + e.getMessage(), e);
+        } finally {
+            closeAndDelete();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public boolean isSpilled() {
+        return channel != null || !segments.isEmpty();
+    }
+
+    /**
+     * 已写入溢出文件的字节数
+     */
+    public long getSpilledBytes() {
+        return position;
+    }
+
+    @Override
+    public void close() {
+        if (!finished) {
+            closeAndDelete();
+        }
+    }
+
+    private void spill(Object[] values) throws IOException {
+        if (channel == null) {
+            Path directory = spillDirectory != null ? spillDirectory : Path.of(System.getProperty("java.io.tmpdir"));
+            Files.createDirectories(directory);
+            // 临时文件默认只有属主可读写
+            file = Files.createTempFile(directory, "autoapi-spill-", ".tmp");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            rowBytes = new RowBytes();
+            rowOut = new DataOutputStream(rowBytes);
+            writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+            segmentCheckpoints = new int[16];
+        }
+
+        rowBytes.reset();
+        SpillCodec.writeRow(rowOut, values);
+        rowOut.flush();
+        int length = rowBytes.size();
+
+        if (segmentRows > 0 && position + length - segmentStart > SEGMENT_BYTES) {
+            flushWriteBuffer();
+            closeSegment();
+        }
+        if (segmentRows % CHECKPOINT_INTERVAL == 0) {
+            int index = segmentRows / CHECKPOINT_INTERVAL;
+            if (index == segmentCheckpoints.length) {
+                segmentCheckpoints = Arrays.copyOf(segmentCheckpoints, index * 2);
+            }
+            segmentCheckpoints[index] = (int) (position - segmentStart);
+        }
+
+        ByteBuffer row = rowBytes.view();
+        if (row.remaining() > writeBuffer.remaining()) {
+            flushWriteBuffer();
+        }
+        if (row.remaining() > writeBuffer.capacity()) {
+            writeFully(row);
+        } else {
+            writeBuffer.put(row);
+        }
+        position += length;
+        segmentRows++;
+    }
+
+    private void flushWriteBuffer() throws IOException {
+        writeBuffer.flip();
+        writeFully(writeBuffer);
+        writeBuffer.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void closeSegment() {
+        if (segmentRows == 0) {
+            return;
+        }
+        int checkpoints = (segmentRows + CHECKPOINT_INTERVAL - 1) / CHECKPOINT_INTERVAL;
+        segments.add(new Segment(segmentStart, position - segmentStart, segmentRows,
+            Arrays.copyOf(segmentCheckpoints, checkpoints)));
+        segmentStart = position;
+        segmentRows = 0;
+    }
+
+    private void closeAndDelete() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // 忽略关闭异常
+            }
+            channel = null;
+        }
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // 部分平台不允许删除仍被映射的文件
+                file.toFile().deleteOnExit();
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * 估算一行在堆内占用的字节数，与 {@link ColumnarRowSet#estimateBytes()} 口径一致
+     */
+    static long estimateRowBytes(Object[] values) {
+        long size = 16;
+        for (Object value : values) {
+            if (value instanceof CharSequence text) {
+                size += 40 + 2L * text.length();
+            } else if (value instanceof byte[] bytes) {
+                size += 16 + bytes.length;
+            } else if (value != null) {
+                size += 24;
+            } else {
+                size += 8;
+            }
+        }
+        return size;
+    }
+
+    private record Segment(long start, long length, int rows, int[] checkpoints) {
+    }
+
+    /**
+     * 可直接取得内部数组的字节输出流，避免每行复制
+     */
+    private static final class RowBytes extends ByteArrayOutputStream {
+        ByteBuffer view() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import java.io.IOException;
+
+/**
+ * 流式查询结果处理器
+ * 结果逐行回调，不在内存中累积整个结果集
+ */
+public interface RowStreamHandler {
+    
+    /**
+     * 开始输出，返回列名
+     */
+    void onStart(String[] columnNames) throws IOException;
+    
+    /**
+     * 输出一行，values数组在回调间复用，处理器不应持有引用
+     */
+    void onRow(Object[] values) throws IOException;
+    
+    /**
+     * 输出完成
+     */
+    void onComplete(long rowCount) throws IOException;
+}
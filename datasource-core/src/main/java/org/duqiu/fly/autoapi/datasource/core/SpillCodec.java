@@ -0,0 +1,167 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+
+/**
+ * 溢出文件的行编码
+ * 每个单元格为一个类型标记加值；驱动返回的其他类型按字符串保存
+ */
+final class SpillCodec {
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte SHORT = 7;
+    private static final byte BYTE = 8;
+    private static final byte BIG_DECIMAL = 9;
+    private static final byte BIG_INTEGER = 10;
+    private static final byte BYTES = 11;
+    private static final byte SQL_TIMESTAMP = 12;
+    private static final byte SQL_DATE = 13;
+    private static final byte SQL_TIME = 14;
+    private static final byte LOCAL_DATE_TIME = 15;
+    private static final byte LOCAL_DATE = 16;
+    private static final byte LOCAL_TIME = 17;
+    private static final byte OFFSET_DATE_TIME = 18;
+
+    private SpillCodec() {
+    }
+
+    static void writeRow(DataOutputStream out, Object[] values) throws IOException {
+        for (Object value : values) {
+            writeValue(out, value);
+        }
+    }
+
+    static Object[] readRow(ByteBuffer buffer, int columnCount) {
+        Object[] values = new Object[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            values[i] = readValue(buffer);
+        }
+        return values;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String text) {
+            out.writeByte(STRING);
+            writeString(out, text);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INT);
+            out.writeInt(number);
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeLong(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Float number) {
+            out.writeByte(FLOAT);
+            out.writeFloat(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        } else if (value instanceof Short number) {
+            out.writeByte(SHORT);
+            out.writeShort(number);
+        } else if (value instanceof Byte number) {
+            out.writeByte(BYTE);
+            out.writeByte(number);
+        } else if (value instanceof BigDecimal number) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, number.toString());
+        } else if (value instanceof BigInteger number) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, number.toString());
+        } else if (value instanceof byte[] bytes) {
+            out.writeByte(BYTES);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (value instanceof java.sql.Timestamp timestamp) {
+            out.writeByte(SQL_TIMESTAMP);
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        } else if (value instanceof java.sql.Date date) {
+            out.writeByte(SQL_DATE);
+            out.writeLong(date.getTime());
+        } else if (value instanceof java.sql.Time time) {
+            out.writeByte(SQL_TIME);
+            out.writeLong(time.getTime());
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(LOCAL_DATE_TIME);
+            writeString(out, dateTime.toString());
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(LOCAL_DATE);
+            writeString(out, date.toString());
+        } else if (value instanceof LocalTime time) {
+            out.writeByte(LOCAL_TIME);
+            writeString(out, time.toString());
+        } else if (value instanceof OffsetDateTime dateTime) {
+            out.writeByte(OFFSET_DATE_TIME);
+            writeString(out, dateTime.toString());
+        } else {
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> readString(buffer);
+            case INT -> buffer.getInt();
+            case LONG -> buffer.getLong();
+            case DOUBLE -> buffer.getDouble();
+            case FLOAT -> buffer.getFloat();
+            case BOOLEAN -> buffer.get() != 0;
+            case SHORT -> buffer.getShort();
+            case BYTE -> buffer.get();
+            case BIG_DECIMAL -> new BigDecimal(readString(buffer));
+            case BIG_INTEGER -> new BigInteger(readString(buffer));
+            case BYTES -> {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                yield bytes;
+            }
+            case SQL_TIMESTAMP -> {
+                java.sql.Timestamp timestamp = new java.sql.Timestamp(buffer.getLong());
+                timestamp.setNanos(buffer.getInt());
+                yield timestamp;
+            }
+            case SQL_DATE -> new java.sql.Date(buffer.getLong());
+            case SQL_TIME -> new java.sql.Time(buffer.getLong());
+            case LOCAL_DATE_TIME -> LocalDateTime.parse(readString(buffer));
+            case LOCAL_DATE -> LocalDate.parse(readString(buffer));
+            case LOCAL_TIME -> LocalTime.parse(readString(buffer));
+            case OFFSET_DATE_TIME -> OffsetDateTime.parse(readString(buffer));
+            default -> throw new IllegalStateException("溢出文件数据损坏，未知类型: " + type);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,129 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 部分行溢出到内存映射文件的查询结果，只读
+ * 前段为堆内的列式结果，其余行在迭代时按顺序从映射段解码；按下标读取时从最近的检查点开始解码
+ */
+public final class SpilledRowList extends AbstractList<Map<String, Object>> {
+
+    private final String[] columnNames;
+    private final ColumnarRowSet head;
+    private final MappedByteBuffer[] segments;
+    private final int[] segmentRows;
+    private final int[][] checkpoints;
+    private final long[] segmentFirstRow;
+    private final int size;
+
+    SpilledRowList(String[] columnNames, ColumnarRowSet head, MappedByteBuffer[] segments,
+                   int[] segmentRows, int[][] checkpoints) {
+        this.columnNames = columnNames;
+        this.head = head;
+        this.segments = segments;
+        this.segmentRows = segmentRows;
+        this.checkpoints = checkpoints;
+        this.segmentFirstRow = new long[segments.length];
+        long total = head.getRowCount();
+        for (int i = 0; i < segments.length; i++) {
+            segmentFirstRow[i] = total;
+            total += segmentRows[i];
+        }
+        this.size = (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * 列表是否包含溢出到文件的行
+     */
+    public static boolean isSpilled(List<?> rows) {
+        return rows instanceof SpilledRowList;
+    }
+
+    /**
+     * 堆内部分的行数
+     */
+    public int getInMemoryRowCount() {
+        return head.getRowCount();
+    }
+
+    @Override
+    public Map<String, Object> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("行号越界: " + index + ", 总行数: " + size);
+        }
+        if (index < head.getRowCount()) {
+            return head.asMaps().get(index);
+        }
+        int segment = segments.length - 1;
+        while (segmentFirstRow[segment] > index) {
+            segment--;
+        }
+        int row = (int) (index - segmentFirstRow[segment]);
+        ByteBuffer buffer = segments[segment].duplicate();
+        buffer.position(checkpoints[segment][row / ResultSpillBuffer.CHECKPOINT_INTERVAL]);
+        for (int skip = row % ResultSpillBuffer.CHECKPOINT_INTERVAL; skip > 0; skip--) {
+            SpillCodec.readRow(buffer, columnNames.length);
+        }
+        return toMap(SpillCodec.readRow(buffer, columnNames.length));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Map<String, Object>> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Map<String, Object>> headIterator = head.asMaps().iterator();
+            private int segment = -1;
+            private int remainingInSegment;
+            private ByteBuffer buffer;
+
+            @Override
+            public boolean hasNext() {
+                if (headIterator.hasNext()) {
+                    return true;
+                }
+                while (remainingInSegment == 0 && segment + 1 < segments.length) {
+                    segment++;
+                    buffer = segments[segment].duplicate();
+                    remainingInSegment = segmentRows[segment];
+                }
+                return remainingInSegment > 0;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (headIterator.hasNext()) {
+                    return headIterator.next();
+                }
+                remainingInSegment--;
+                return toMap(SpillCodec.readRow(buffer, columnNames.length));
+            }
+        };
+    }
+
+    private Map<String, Object> toMap(Object[] values) {
+        Map<String, Object> row = new LinkedHashMap<>(columnNames.length * 4 / 3 + 1);
+        for (int i = 0; i < columnNames.length; i++) {
+            row.put(columnNames[i], values[i]);
+        }
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return "SpilledRowList{rows=" + size + ", inMemory=" + head.getRowCount() + ", segments=" + segments.length + "}";
+    }
+}
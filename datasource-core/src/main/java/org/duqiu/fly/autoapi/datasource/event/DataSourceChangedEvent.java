@@ -0,0 +1,33 @@
+package org.duqiu.fly.autoapi.datasource.event;
+
+/**
+ * 数据源配置变更事件
+ * 数据源更新保存后发布，持有连接池或数据源配置缓存的一方据此切换
+ */
+public class DataSourceChangedEvent {
+    
+    private final Long dataSourceId;
+    
+    /**
+     * 连接池是否已按新配置切换
+     */
+    private final boolean poolSwapped;
+    
+    public DataSourceChangedEvent(Long dataSourceId, boolean poolSwapped) {
+        this.dataSourceId = dataSourceId;
+        this.poolSwapped = poolSwapped;
+    }
+    
+    public Long getDataSourceId() {
+        return dataSourceId;
+    }
+    
+    public boolean isPoolSwapped() {
+        return poolSwapped;
+    }
+    
+    @Override
+    public String toString() {
+        return "DataSourceChangedEvent{dataSourceId=" + dataSourceId + ", poolSwapped=" + poolSwapped + "}";
+    }
+}
@@ -67,6 +67,15 @@ public class DataSourceExceptions {
         }
     }
     
+    /**
+     * 查询结果超过行数或大小上限
+     */
+    public static class ResultLimitExceededException extends DataSourceException {
+        public ResultLimitExceededException(String message) {
+            super("RESULT_LIMIT_EXCEEDED", message);
+        }
+    }
+    
     /**
      * 元数据查询失败
      */
@@ -1,7 +1,5 @@
 package org.duqiu.fly.autoapi.datasource.factory;
 
-import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
 import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceFactory;
@@ -11,9 +9,12 @@ import org.duqiu.fly.autoapi.datasource.jdbc.JdbcConnection;
 import org.duqiu.fly.autoapi.datasource.jdbc.JdbcDataSourceFactory;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.nosql.ElasticsearchConnection;
-import org.duqiu.fly.autoapi.datasource.nosql.MongoConnection;
+import org.duqiu.fly.autoapi.datasource.nosql.MongoClientRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import jakarta.annotation.PreDestroy;
+
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.util.concurrent.ConcurrentHashMap;
@@ -27,10 +28,23 @@ public class UnifiedDataSourceFactory implements DataSourceFactory {
     private final JdbcDataSourceFactory jdbcFactory;
     private final ConcurrentHashMap<String, Object> connectionCache = new ConcurrentHashMap<>();
     
+    /**
+     * 每个数据源配置共享一个长期存活的MongoClient
+     */
+    private final MongoClientRegistry mongoClientRegistry = new MongoClientRegistry();
+    
     public UnifiedDataSourceFactory() {
         this.jdbcFactory = new JdbcDataSourceFactory();
     }
     
+    /**
+     * 与容器中的JDBC工厂共享连接池，避免同一数据源出现两套池
+     */
+    @Autowired
+    public UnifiedDataSourceFactory(JdbcDataSourceFactory jdbcFactory) {
+        this.jdbcFactory = jdbcFactory;
+    }
+    
     @Override
     public DataSourceConnection createConnection(DataSource dataSource) {
         DataSourceType type = dataSource.getType();
@@ -51,6 +65,19 @@ public class UnifiedDataSourceFactory implements DataSourceFactory {
         }
     }
     
+    /**
+     * 借用用于元数据浏览、查询校验和接口测试的连接，调用方负责关闭（池化连接关闭即归还）
+     * 已保存的JDBC数据源从元数据分区连接池借用，不占用业务查询的连接；
+     * 尚未保存或关闭了连接池的数据源直接创建连接
+     */
+    public DataSourceConnection borrowMetadataConnection(DataSource dataSource) {
+        if (dataSource.getType().isJdbcType() && dataSource.getId() != null
+                && !Boolean.FALSE.equals(dataSource.getConnectionPoolEnabled())) {
+            return jdbcFactory.getMetadataConnectionPool(dataSource).getConnection();
+        }
+        return createConnection(dataSource);
+    }
+    
     @Override
     public boolean testConnection(DataSource dataSource) {
         try (DataSourceConnection connection = createConnection(dataSource)) {
@@ -70,6 +97,31 @@ public class UnifiedDataSourceFactory implements DataSourceFactory {
         return null;
     }
     
+    /**
+     * 数据源配置更新后切换连接池，MongoDB数据源切换共享的客户端
+     * @return 是否发生了切换
+     */
+    public boolean refreshConnectionPool(DataSource dataSource) {
+        if (dataSource.getType() == DataSourceType.MONGODB) {
+            return mongoClientRegistry.refresh(dataSource);
+        }
+        return dataSource.getType().isJdbcType() && jdbcFactory.refreshConnectionPool(dataSource);
+    }
+    
+    /**
+     * 数据源移除后释放其连接池和共享客户端，借出的连接关闭后才真正关闭
+     * @param dataSourceId 数据源ID
+     */
+    public void releaseDataSource(Long dataSourceId) {
+        jdbcFactory.release(dataSourceId);
+        mongoClientRegistry.remove(dataSourceId);
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        mongoClientRegistry.closeAll();
+    }
+    
     @Override
     public ValidationResult validateConfiguration(DataSource dataSource) {
         DataSourceType type = dataSource.getType();
@@ -153,11 +205,12 @@ public class UnifiedDataSourceFactory implements DataSourceFactory {
         }
     }
     
+    /**
+     * 返回共享客户端上的连接句柄，关闭句柄不会关闭客户端
+     */
     private DataSourceConnection createMongoConnection(DataSource dataSource) {
         try {
-            String connectionString = buildMongoConnectionString(dataSource);
-            MongoClient mongoClient = MongoClients.create(connectionString);
-            return new MongoConnection(mongoClient, dataSource.getDatabase());
+            return mongoClientRegistry.openConnection(dataSource);
         } catch (Exception e) {
             throw new RuntimeException("创建MongoDB连接失败: " + e.getMessage() + 
                                      ", 请添加依赖: " + dataSource.getType().getDependencyCoordinate(), e);
@@ -174,26 +227,6 @@ public class UnifiedDataSourceFactory implements DataSourceFactory {
         throw new UnsupportedOperationException("Kafka连接暂未实现");
     }
     
-    private String buildMongoConnectionString(DataSource dataSource) {
-        StringBuilder sb = new StringBuilder("mongodb://");
-        
-        if (dataSource.getUsername() != null && !dataSource.getUsername().isEmpty()) {
-            sb.append(dataSource.getUsername());
-            if (dataSource.getPassword() != null && !dataSource.getPassword().isEmpty()) {
-                sb.append(":").append(dataSource.getPassword());
-            }
-            sb.append("@");
-        }
-        
-        sb.append(dataSource.getHost()).append(":").append(dataSource.getPort());
-        
-        if (dataSource.getDatabase() != null && !dataSource.getDatabase().isEmpty()) {
-            sb.append("/").append(dataSource.getDatabase());
-        }
-        
-        return sb.toString();
-    }
-    
     private ValidationResult validateJdbcConfiguration(DataSource dataSource) {
         if (dataSource.getUsername() == null || dataSource.getUsername().isEmpty()) {
             return new UnifiedValidationResult(false, "用户名不能为空", "请提供有效的数据库用户名");
@@ -6,7 +6,15 @@ import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * HikariCP连接池实现
@@ -16,6 +24,28 @@ public class HikariConnectionPool implements ConnectionPool {
     private final HikariDataSource dataSource;
     private final HikariPoolMXBean poolBean;
     
+    /**
+     * 借用/归还统计
+     */
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder borrowFailureCount = new LongAdder();
+    private final LongAdder releaseCount = new LongAdder();
+    private final LongAdder totalAcquireNanos = new LongAdder();
+    private final LongAdder totalHoldNanos = new LongAdder();
+    private final AtomicLong maxAcquireNanos = new AtomicLong();
+    
+    /**
+     * 未归还的连接数，包括正在借用中的；退役后归零时关闭连接池
+     * 借用前先登记再检查退役状态，与退役时的检查配对，借用途中连接池不会被关闭
+     */
+    private final AtomicInteger outstanding = new AtomicInteger();
+    
+    /**
+     * 配置变更后接替本池的新池，设置后新的借用都转到新池
+     */
+    private volatile HikariConnectionPool successor;
+    private volatile boolean retired;
+    
     public HikariConnectionPool(HikariDataSource dataSource) {
         this.dataSource = dataSource;
         this.poolBean = dataSource.getHikariPoolMXBean();
@@ -23,14 +53,145 @@ public class HikariConnectionPool implements ConnectionPool {
     
     @Override
     public DataSourceConnection getConnection() {
+        HikariConnectionPool target = successor;
+        if (target != null) {
+            return target.getConnection();
+        }
+        outstanding.incrementAndGet();
+        if (retired) {
+            releaseOutstanding();
+            target = successor;
+            if (target != null) {
+                return target.getConnection();
+            }
+            throw new IllegalStateException("连接池已关闭");
+        }
+        long start = System.nanoTime();
+        Connection connection = null;
         try {
-            Connection connection = dataSource.getConnection();
-            return new JdbcConnection(connection);
+            connection = dataSource.getConnection();
+            long acquired = System.nanoTime();
+            PooledJdbcConnection pooled = new PooledJdbcConnection(connection, acquired);
+            recordAcquire(acquired - start);
+            return pooled;
         } catch (SQLException e) {
+            closeQuietly(connection);
+            releaseOutstanding();
+            // 借用过程中本池被替换并关闭，转到新池重试
+            if (successor != null) {
+                return successor.getConnection();
+            }
+            borrowFailureCount.increment();
             throw new RuntimeException("获取数据库连接失败: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 退役本池：新的借用转到successor（为null时拒绝借用），空闲连接立即关闭，
+     * 借出的连接归还时关闭，全部归还后关闭连接池
+     * @param successor 接替的新池，可为null
+     */
+    public void retire(HikariConnectionPool successor) {
+        this.successor = successor;
+        this.retired = true;
+        poolBean.softEvictConnections();
+        closeIfDrained();
+    }
+    
+    public boolean isRetired() {
+        return retired;
+    }
+    
+    /**
+     * 是否可继续借用：未退役且未关闭
+     */
+    public boolean isUsable() {
+        return !retired && !dataSource.isClosed();
+    }
+    
+    /**
+     * 当前实际提供连接的池：退役后沿接替链找到最新的池
+     */
+    public HikariConnectionPool getActivePool() {
+        HikariConnectionPool target = successor;
+        return target != null ? target.getActivePool() : this;
+    }
+    
+    /**
+     * 预热：同时借出最小空闲数个连接使连接池建满，在每个连接上执行测试查询并预编译给定语句后归还
+     * 已有借出的连接时只补足剩余容量，不与请求争抢连接；语句本身有误时跳过，请求时照常报错
+     * @param testQuery 测试查询，可为null
+     * @param statements 需要预编译的语句
+     * @return 完成预热的连接数
+     */
+    public int warmUp(String testQuery, Collection<String> statements) {
+        HikariConnectionPool target = successor;
+        if (target != null) {
+            return target.warmUp(testQuery, statements);
+        }
+        outstanding.incrementAndGet();
+        if (retired) {
+            releaseOutstanding();
+            return 0;
+        }
+        int count = Math.min(dataSource.getMinimumIdle(),
+                dataSource.getMaximumPoolSize() - poolBean.getActiveConnections());
+        List<Connection> warmed = new ArrayList<>(Math.max(count, 0));
+        try {
+            for (int i = 0; i < count; i++) {
+                Connection connection = dataSource.getConnection();
+                warmed.add(connection);
+                warmConnection(connection, testQuery, statements);
+            }
+            return warmed.size();
+        } catch (SQLException e) {
+            throw new RuntimeException("连接池预热失败: " + e.getMessage(), e);
+        } finally {
+            warmed.forEach(HikariConnectionPool::closeQuietly);
+            releaseOutstanding();
+        }
+    }
+    
+    private void warmConnection(Connection connection, String testQuery, Collection<String> statements)
+            throws SQLException {
+        if (testQuery != null && !testQuery.isBlank()) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(testQuery);
+            }
+        }
+        for (String sql : statements) {
+            try (PreparedStatement ignored = connection.prepareStatement(sql)) {
+                // 仅预编译，驱动的语句缓存保留解析结果
+            } catch (SQLException e) {
+                if (connection.isClosed()) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private void releaseOutstanding() {
+        outstanding.decrementAndGet();
+        closeIfDrained();
+    }
+    
+    private void closeIfDrained() {
+        if (retired && outstanding.get() == 0) {
+            close();
+        }
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // 归还失败的连接由HikariCP回收
+        }
+    }
+    
     @Override
     public void returnConnection(DataSourceConnection connection) {
         // HikariCP会自动管理连接的归还，这里主要是关闭连接
@@ -42,7 +203,7 @@ public class HikariConnectionPool implements ConnectionPool {
         return new HikariPoolStatus(
             poolBean.getActiveConnections(),
             poolBean.getIdleConnections(),
-            poolBean.getTotalConnections(),
+            dataSource.getMaximumPoolSize(),
             dataSource.getMinimumIdle(),
             !dataSource.isClosed() && dataSource.isRunning()
         );
@@ -59,6 +220,92 @@ public class HikariConnectionPool implements ConnectionPool {
         return dataSource;
     }
     
+    /**
+     * 获取借用/归还统计快照
+     */
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(
+            borrowCount.sum(),
+            borrowFailureCount.sum(),
+            releaseCount.sum(),
+            totalAcquireNanos.sum(),
+            maxAcquireNanos.get(),
+            totalHoldNanos.sum()
+        );
+    }
+    
+    private void recordAcquire(long nanos) {
+        borrowCount.increment();
+        totalAcquireNanos.add(nanos);
+        maxAcquireNanos.accumulateAndGet(nanos, Math::max);
+    }
+    
+    private void recordRelease(long holdNanos) {
+        releaseCount.increment();
+        totalHoldNanos.add(holdNanos);
+    }
+    
+    /**
+     * 池化连接，关闭时归还连接池并记录占用时长
+     */
+    private class PooledJdbcConnection extends JdbcConnection {
+        private final long acquiredAt;
+        private boolean released;
+        
+        PooledJdbcConnection(Connection connection, long acquiredAt) throws SQLException {
+            super(connection);
+            this.acquiredAt = acquiredAt;
+        }
+        
+        @Override
+        public void close() {
+            super.close();
+            if (!released) {
+                released = true;
+                recordRelease(System.nanoTime() - acquiredAt);
+                releaseOutstanding();
+            }
+        }
+    }
+    
+    /**
+     * 连接池借用统计
+     */
+    public static class PoolMetrics {
+        private final long borrowCount;
+        private final long borrowFailureCount;
+        private final long releaseCount;
+        private final long totalAcquireNanos;
+        private final long maxAcquireNanos;
+        private final long totalHoldNanos;
+        
+        public PoolMetrics(long borrowCount, long borrowFailureCount, long releaseCount,
+                          long totalAcquireNanos, long maxAcquireNanos, long totalHoldNanos) {
+            this.borrowCount = borrowCount;
+            this.borrowFailureCount = borrowFailureCount;
+            this.releaseCount = releaseCount;
+            this.totalAcquireNanos = totalAcquireNanos;
+            this.maxAcquireNanos = maxAcquireNanos;
+            this.totalHoldNanos = totalHoldNanos;
+        }
+        
+        public long getBorrowCount() { return borrowCount; }
+        public long getBorrowFailureCount() { return borrowFailureCount; }
+        public long getReleaseCount() { return releaseCount; }
+        public long getInUseCount() { return borrowCount - releaseCount; }
+        public long getMaxAcquireNanos() { return maxAcquireNanos; }
+        public long getTotalAcquireNanos() { return totalAcquireNanos; }
+        public long getTotalHoldNanos() { return totalHoldNanos; }
+        
+        public double getAverageAcquireMillis() {
+            return borrowCount == 0 ? 0 : totalAcquireNanos / 1_000_000.0 / borrowCount;
+        }
+        
+        public double getAverageHoldMillis() {
+            return releaseCount == 0 ? 0 : totalHoldNanos / 1_000_000.0 / releaseCount;
+        }
+    }
+    
     static class HikariPoolStatus implements PoolStatus {
         private final int activeConnections;
         private final int idleConnections;
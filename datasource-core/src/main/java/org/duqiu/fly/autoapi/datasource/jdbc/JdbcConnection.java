@@ -1,7 +1,15 @@
 package org.duqiu.fly.autoapi.datasource.jdbc;
 
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.datasource.core.QueryOptions;
+import org.duqiu.fly.autoapi.datasource.core.ResultSpillBuffer;
+import org.duqiu.fly.autoapi.datasource.core.RowStreamHandler;
+import org.duqiu.fly.autoapi.datasource.exception.DataSourceException;
+import org.duqiu.fly.autoapi.datasource.exception.DataSourceExceptions;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 
@@ -10,9 +18,15 @@ import java.util.*;
  */
 public class JdbcConnection implements DataSourceConnection {
     
+    /**
+     * 字符串字面量默认使用反斜杠转义的数据库产品
+     */
+    private static final Set<String> BACKSLASH_ESCAPE_PRODUCTS = Set.of("mysql", "mariadb", "starrocks", "clickhouse");
+    
     private final Connection connection;
     private final String url;
     private final DatabaseMetaData metaData;
+    private Boolean backslashEscapes;
     
     public JdbcConnection(Connection connection) throws SQLException {
         this.connection = connection;
@@ -35,42 +49,223 @@ public class JdbcConnection implements DataSourceConnection {
     
     @Override
     public QueryResult executeQuery(String query, Map<String, Object> parameters) {
+        return executeQuery(compile(query), parameters);
+    }
+    
+    @Override
+    public QueryResult executeQuery(String query, Map<String, Object> parameters, QueryOptions options) {
+        return executeQuery(compile(query), parameters, options);
+    }
+    
+    /**
+     * 执行已编译的命名参数查询
+     */
+    public QueryResult executeQuery(NamedParameterSql query, Map<String, Object> parameters) {
+        return executeQuery(query, parameters, null);
+    }
+    
+    /**
+     * 执行已编译的命名参数查询，应用超时、结果上限与溢出设置，并支持从其他线程取消
+     * @param options 执行选项，可为null
+     */
+    public QueryResult executeQuery(NamedParameterSql query, Map<String, Object> parameters, QueryOptions options) {
         long startTime = System.currentTimeMillis();
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+        QueryCancellation cancellation = options != null ? options.getCancellation() : null;
+        try (PreparedStatement stmt = connection.prepareStatement(query.getSql())) {
             
             // 设置参数
-            setParameters(stmt, parameters);
+            setParameters(stmt, query, parameters);
+            applyOptions(stmt, options);
+            if (options != null && options.getMaxRows() == 0
+                    && options.getMaxResultRows() > 0 && options.getMaxResultRows() < Integer.MAX_VALUE) {
+                // 多取一行用于判断是否超过硬上限
+                stmt.setMaxRows(options.getMaxResultRows() + 1);
+            }
             
-            try (ResultSet rs = stmt.executeQuery()) {
-                List<Map<String, Object>> data = new ArrayList<>();
-                List<ColumnInfo> columns = extractColumnInfo(rs.getMetaData());
+            try (ResultSet rs = executeCancellable(stmt, cancellation)) {
+                ResultSetMetaData rsMetaData = rs.getMetaData();
+                List<ColumnInfo> columns = extractColumnInfo(rsMetaData);
                 
-                while (rs.next()) {
-                    Map<String, Object> row = new HashMap<>();
-                    for (int i = 1; i <= rs.getMetaData().getColumnCount(); i++) {
-                        String columnName = rs.getMetaData().getColumnName(i);
-                        Object value = rs.getObject(i);
-                        row.put(columnName, value);
-                    }
-                    data.add(row);
+                // 列名只解析一次，数据按列存储
+                int columnCount = rsMetaData.getColumnCount();
+                String[] columnNames = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    columnNames[i] = rsMetaData.getColumnName(i + 1);
                 }
                 
-                long executionTime = System.currentTimeMillis() - startTime;
-                return new JdbcQueryResult(data, data.size(), columns, executionTime, true, null);
+                try (ResultSpillBuffer buffer = ResultSpillBuffer.create(columnNames, options)) {
+                    Object[] values = new Object[columnCount];
+                    while (rs.next()) {
+                        for (int i = 0; i < columnCount; i++) {
+                            values[i] = rs.getObject(i + 1);
+                        }
+                        buffer.addRow(values);
+                    }
+                    List<Map<String, Object>> data = buffer.finish();
+                    
+                    long executionTime = System.currentTimeMillis() - startTime;
+                    return new JdbcQueryResult(data, data.size(), columns, executionTime, true, null);
+                } catch (DataSourceException e) {
+                    // 超过上限时先取消语句，避免关闭结果集时驱动读完剩余数据
+                    cancelQuietly(stmt);
+                    long executionTime = System.currentTimeMillis() - startTime;
+                    return new JdbcQueryResult(ColumnarRowSet.empty(), 0, Collections.emptyList(),
+                                             executionTime, false, e.getMessage());
+                }
             }
         } catch (SQLException e) {
             long executionTime = System.currentTimeMillis() - startTime;
-            return new JdbcQueryResult(Collections.emptyList(), 0, Collections.emptyList(), 
-                                     executionTime, false, e.getMessage());
+            return new JdbcQueryResult(ColumnarRowSet.empty(), 0, Collections.emptyList(), 
+                                     executionTime, false, describeFailure(e, options));
+        } finally {
+            if (cancellation != null) {
+                cancellation.onCancel(null);
+            }
+        }
+    }
+    
+    /**
+     * 流式查询：按fetchSize分批从驱动拉取，逐行回调处理器，不累积结果集
+     * @return 输出的行数
+     */
+    public long streamQuery(NamedParameterSql query, Map<String, Object> parameters,
+                            QueryOptions options, RowStreamHandler handler) {
+        boolean restoreAutoCommit = false;
+        QueryCancellation cancellation = options.getCancellation();
+        try {
+            // PostgreSQL只有在事务内才会使用游标按批抓取
+            if (options.getFetchSize() > 0 && isPostgreSql() && connection.getAutoCommit()) {
+                connection.setAutoCommit(false);
+                restoreAutoCommit = true;
+            }
+            
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    query.getSql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                if (options.getFetchSize() > 0) {
+                    stmt.setFetchSize(options.getFetchSize());
+                }
+                applyOptions(stmt, options);
+                setParameters(stmt, query, parameters);
+                
+                try (ResultSet rs = executeCancellable(stmt, cancellation)) {
+                    ResultSetMetaData rsMetaData = rs.getMetaData();
+                    int columnCount = rsMetaData.getColumnCount();
+                    String[] columnNames = new String[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        columnNames[i] = rsMetaData.getColumnName(i + 1);
+                    }
+                    Object[] values = new Object[columnCount];
+                    long rowCount = 0;
+                    try {
+                        handler.onStart(columnNames);
+                        while (rs.next()) {
+                            for (int i = 0; i < columnCount; i++) {
+                                values[i] = rs.getObject(i + 1);
+                            }
+                            handler.onRow(values);
+                            rowCount++;
+                        }
+                        handler.onComplete(rowCount);
+                    } catch (IOException e) {
+                        // 客户端已断开：先取消语句，避免关闭结果集时驱动读完剩余数据才归还连接
+                        cancelQuietly(stmt);
+                        throw e;
+                    }
+                    return rowCount;
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataSourceExceptions.QueryExecutionException("流式查询失败: " + describeFailure(e, options), e);
+        } catch (IOException e) {
+            throw new DataSourceExceptions.QueryExecutionException("输出查询结果失败: " + e.getMessage(), e);
+        } finally {
+            if (cancellation != null) {
+                cancellation.onCancel(null);
+            }
+            if (restoreAutoCommit) {
+                try {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    // 连接归还连接池时会重置状态
+                }
+            }
         }
     }
     
+    private void applyOptions(Statement stmt, QueryOptions options) throws SQLException {
+        if (options == null) {
+            return;
+        }
+        if (options.getMaxRows() > 0) {
+            stmt.setMaxRows(options.getMaxRows());
+        }
+        if (options.getQueryTimeoutSeconds() > 0) {
+            stmt.setQueryTimeout(options.getQueryTimeoutSeconds());
+        }
+    }
+    
+    /**
+     * 登记 Statement.cancel 后执行查询，取消时驱动中止数据库端的执行
+     */
+    private ResultSet executeCancellable(PreparedStatement stmt, QueryCancellation cancellation) throws SQLException {
+        if (cancellation == null) {
+            return stmt.executeQuery();
+        }
+        cancellation.onCancel(() -> cancelQuietly(stmt));
+        if (cancellation.isCancelled()) {
+            throw new SQLException("查询已取消");
+        }
+        return stmt.executeQuery();
+    }
+    
+    private void cancelQuietly(Statement stmt) {
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            // 语句可能已结束
+        }
+    }
+    
+    private String describeFailure(SQLException e, QueryOptions options) {
+        if (options != null && options.getCancellation() != null && options.getCancellation().isCancelled()) {
+            return "查询已取消";
+        }
+        if (e instanceof SQLTimeoutException && options != null) {
+            return "查询超时(" + options.getQueryTimeoutSeconds() + "秒): " + e.getMessage();
+        }
+        return e.getMessage();
+    }
+    
+    /**
+     * 按连接的数据库方言编译SQL，MySQL系方言的字符串按反斜杠转义识别
+     */
+    private NamedParameterSql compile(String sql) {
+        Boolean escapes = backslashEscapes;
+        if (escapes == null) {
+            String product;
+            try {
+                product = metaData.getDatabaseProductName();
+            } catch (SQLException e) {
+                product = null;
+            }
+            escapes = product != null && BACKSLASH_ESCAPE_PRODUCTS.contains(product.toLowerCase(Locale.ROOT));
+            backslashEscapes = escapes;
+        }
+        return NamedParameterSql.compile(sql, escapes);
+    }
+    
+    private boolean isPostgreSql() throws SQLException {
+        return "PostgreSQL".equalsIgnoreCase(metaData.getDatabaseProductName());
+    }
+    
     @Override
     public UpdateResult executeUpdate(String command, Map<String, Object> parameters) {
         long startTime = System.currentTimeMillis();
-        try (PreparedStatement stmt = connection.prepareStatement(command)) {
+        NamedParameterSql compiled = compile(command);
+        try (PreparedStatement stmt = connection.prepareStatement(compiled.getSql())) {
             
-            setParameters(stmt, parameters);
+            setParameters(stmt, compiled, parameters);
             int affectedRows = stmt.executeUpdate();
             
             long executionTime = System.currentTimeMillis() - startTime;
@@ -173,15 +368,17 @@ public class JdbcConnection implements DataSourceConnection {
         }
     }
     
-    private void setParameters(PreparedStatement stmt, Map<String, Object> parameters) throws SQLException {
-        if (parameters == null || parameters.isEmpty()) {
+    private void setParameters(PreparedStatement stmt, NamedParameterSql query,
+                               Map<String, Object> parameters) throws SQLException {
+        if (query.hasParameters()) {
+            // 命名参数按名称绑定
+            query.bind(stmt, parameters);
             return;
         }
         
-        // 简化处理：按照参数顺序设置
-        int index = 1;
-        for (Object value : parameters.values()) {
-            stmt.setObject(index++, value);
+        // 参数Map没有顺序，无法对应位置占位符
+        if (parameters != null && !parameters.isEmpty() && query.hasPositionalParameters()) {
+            throw new SQLException("不支持按位置绑定参数，请使用 ${name} 命名参数");
         }
     }
     
@@ -206,6 +403,11 @@ public class JdbcConnection implements DataSourceConnection {
         private final boolean success;
         private final String errorMessage;
         
+        public JdbcQueryResult(ColumnarRowSet rowSet, long count, List<ColumnInfo> columns,
+                              long executionTime, boolean success, String errorMessage) {
+            this(rowSet.asMaps(), count, columns, executionTime, success, errorMessage);
+        }
+        
         public JdbcQueryResult(List<Map<String, Object>> data, long count, List<ColumnInfo> columns,
                               long executionTime, boolean success, String errorMessage) {
             this.data = data;
@@ -1,17 +1,33 @@
 package org.duqiu.fly.autoapi.datasource.jdbc;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * JDBC数据源工厂实现
@@ -19,7 +35,38 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class JdbcDataSourceFactory implements DataSourceFactory {
     
-    private final ConcurrentHashMap<String, HikariConnectionPool> connectionPools = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(JdbcDataSourceFactory.class);
+    
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    
+    /**
+     * 元数据分区每个连接池的默认最大连接数
+     */
+    static final int DEFAULT_METADATA_POOL_SIZE = 3;
+    
+    private static final long METADATA_IDLE_TIMEOUT_MS = 60000;
+    
+    /**
+     * 元数据分区连接池大小，不超过数据源配置的连接池大小
+     */
+    @Value("${app.datasource.metadata-pool-size:3}")
+    private int metadataPoolSize = DEFAULT_METADATA_POOL_SIZE;
+    
+    /**
+     * 业务查询使用的主分区
+     */
+    private final PoolPartition primaryPartition = new PoolPartition(false);
+    
+    /**
+     * 元数据浏览、查询校验和测试使用的分区，与业务查询互不占用连接
+     */
+    private final PoolPartition metadataPartition = new PoolPartition(true);
+    
+    /**
+     * 数据源配置指纹缓存，按更新时间失效，借用连接时不再重复解析额外属性和计算摘要
+     * Key: 数据源ID
+     */
+    private final ConcurrentHashMap<Long, CachedPoolKey> poolKeys = new ConcurrentHashMap<>();
     
     @Override
     public DataSourceConnection createConnection(DataSource dataSource) {
@@ -46,10 +93,36 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
         }
     }
     
+    /**
+     * 获取数据源的连接池，连接池按完整生效配置的指纹共享
+     * 数据源配置变化后返回按新配置建立的池，旧池不再被引用时退役并在连接归还后关闭
+     */
     @Override
     public ConnectionPool getConnectionPool(DataSource dataSource) {
+        return primaryPartition.getPool(dataSource);
+    }
+    
+    /**
+     * 获取数据源元数据分区的连接池
+     * 分区连接数较少且空闲连接很快回收，管理端浏览不会占用业务查询的连接
+     */
+    public ConnectionPool getMetadataConnectionPool(DataSource dataSource) {
+        return metadataPartition.getPool(dataSource);
+    }
+    
+    /**
+     * 数据源配置更新后切换连接池
+     * 仅当该数据源已有连接池且生效配置发生变化时，在旧池旁建立新池并切换借用
+     * @return 是否发生了切换
+     */
+    public boolean refreshConnectionPool(DataSource dataSource) {
         String poolKey = generatePoolKey(dataSource);
-        return connectionPools.computeIfAbsent(poolKey, k -> createConnectionPool(dataSource));
+        if (dataSource.getId() != null) {
+            poolKeys.put(dataSource.getId(), new CachedPoolKey(dataSource.getUpdatedAt(), poolKey));
+        }
+        boolean primarySwapped = primaryPartition.refresh(dataSource, poolKey);
+        boolean metadataSwapped = metadataPartition.refresh(dataSource, poolKey);
+        return primarySwapped || metadataSwapped;
     }
     
     @Override
@@ -87,7 +160,7 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
                       .replace("{database}", dataSource.getDatabase() != null ? dataSource.getDatabase() : "");
     }
     
-    private HikariConnectionPool createConnectionPool(DataSource dataSource) {
+    private HikariConnectionPool createConnectionPool(DataSource dataSource, boolean metadata) {
         HikariConfig config = new HikariConfig();
         
         config.setJdbcUrl(buildConnectionUrl(dataSource));
@@ -99,8 +172,8 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
         config.setMaximumPoolSize(dataSource.getMaxPoolSize() != null ? dataSource.getMaxPoolSize() : 10);
         config.setMinimumIdle(Math.max(1, config.getMaximumPoolSize() / 4));
         config.setConnectionTimeout(dataSource.getConnectionTimeout() != null ? dataSource.getConnectionTimeout() : 30000);
-        config.setIdleTimeout(600000); // 10分钟
-        config.setMaxLifetime(1800000); // 30分钟
+        config.setIdleTimeout(dataSource.getIdleTimeout() != null ? dataSource.getIdleTimeout() : 600000); // 10分钟
+        config.setMaxLifetime(dataSource.getMaxLifetime() != null ? dataSource.getMaxLifetime() : 1800000); // 30分钟
         config.setLeakDetectionThreshold(60000); // 1分钟
         
         // 连接验证
@@ -111,9 +184,19 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         
+        if (metadata) {
+            config.setPoolName("autoapi-metadata-" + dataSource.getId());
+            config.setMaximumPoolSize(Math.max(1, Math.min(metadataPoolSize, config.getMaximumPoolSize())));
+            config.setMinimumIdle(0);
+            config.setIdleTimeout(METADATA_IDLE_TIMEOUT_MS);
+        }
+        
         // 根据数据库类型进行特殊配置
         configureByDatabaseType(config, dataSource);
         
+        // 用户配置的驱动属性优先于默认值
+        parseAdditionalProperties(dataSource).forEach(config::addDataSourceProperty);
+        
         HikariDataSource hikariDataSource = new HikariDataSource(config);
         return new HikariConnectionPool(hikariDataSource);
     }
@@ -128,6 +211,10 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
                 config.addDataSourceProperty("cacheResultSetMetadata", "true");
                 config.addDataSourceProperty("cacheServerConfiguration", "true");
                 config.addDataSourceProperty("maintainTimeStats", "false");
+                // 设置fetchSize时使用服务端游标分批返回，避免流式查询一次性加载结果
+                if (dataSource.getType() == DataSourceType.MYSQL) {
+                    config.addDataSourceProperty("useCursorFetch", "true");
+                }
                 break;
                 
             case POSTGRESQL:
@@ -153,17 +240,188 @@ public class JdbcDataSourceFactory implements DataSourceFactory {
         }
     }
     
-    private String generatePoolKey(DataSource dataSource) {
-        return String.format("%s_%s_%s_%s", 
-            dataSource.getType().name(),
-            dataSource.getHost(),
-            dataSource.getPort(),
-            dataSource.getDatabase());
+    /**
+     * 连接池配置指纹：覆盖建池时生效的全部配置，凭据、池大小或驱动属性不同的数据源不会共享连接池
+     */
+    String generatePoolKey(DataSource dataSource) {
+        StringBuilder config = new StringBuilder(256)
+            .append(dataSource.getType().name()).append('\n')
+            .append(buildConnectionUrl(dataSource)).append('\n')
+            .append(dataSource.getUsername()).append('\n')
+            .append(dataSource.getPassword()).append('\n')
+            .append(dataSource.getMaxPoolSize()).append('\n')
+            .append(dataSource.getConnectionTimeout()).append('\n')
+            .append(dataSource.getIdleTimeout()).append('\n')
+            .append(dataSource.getMaxLifetime()).append('\n')
+            .append(dataSource.getTestQuery()).append('\n')
+            .append(new TreeMap<>(parseAdditionalProperties(dataSource)));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(config.toString().getBytes(StandardCharsets.UTF_8));
+            return dataSource.getType().name() + "_" + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+    
+    /**
+     * 获取数据源的连接池配置指纹，数据源更新时间不变时使用缓存
+     * 未保存的数据源每次计算；仅在内存中修改的配置通过 {@link #refreshConnectionPool} 重新计算
+     */
+    private String poolKey(DataSource dataSource) {
+        Long dataSourceId = dataSource.getId();
+        if (dataSourceId == null) {
+            return generatePoolKey(dataSource);
+        }
+        CachedPoolKey cached = poolKeys.get(dataSourceId);
+        if (cached != null && Objects.equals(cached.updatedAt(), dataSource.getUpdatedAt())) {
+            return cached.poolKey();
+        }
+        String poolKey = generatePoolKey(dataSource);
+        poolKeys.put(dataSourceId, new CachedPoolKey(dataSource.getUpdatedAt(), poolKey));
+        return poolKey;
+    }
+    
+    /**
+     * 额外属性以JSON对象保存，作为驱动属性传给连接池
+     */
+    private Map<String, String> parseAdditionalProperties(DataSource dataSource) {
+        String json = dataSource.getAdditionalProperties();
+        if (json == null || json.isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Object> properties = OBJECT_MAPPER.readValue(json, new TypeReference<Map<String, Object>>() {});
+            Map<String, String> result = new TreeMap<>();
+            properties.forEach((key, value) -> {
+                if (value != null) {
+                    result.put(key, String.valueOf(value));
+                }
+            });
+            return result;
+        } catch (Exception e) {
+            logger.warn("Ignoring invalid additional properties of datasource {}: {}", dataSource.getId(), e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+    
+    /**
+     * 数据源移除后释放其在各分区的连接池，仍有其他数据源使用相同配置时保留，
+     * 借出的连接归还后关闭
+     * @param dataSourceId 数据源ID
+     */
+    public void release(Long dataSourceId) {
+        primaryPartition.release(dataSourceId);
+        metadataPartition.release(dataSourceId);
+        poolKeys.remove(dataSourceId);
     }
     
     public void closeAllPools() {
-        connectionPools.values().forEach(HikariConnectionPool::close);
-        connectionPools.clear();
+        primaryPartition.closeAll();
+        metadataPartition.closeAll();
+        poolKeys.clear();
+    }
+    
+    private record CachedPoolKey(LocalDateTime updatedAt, String poolKey) {
+    }
+    
+    /**
+     * 连接池分区
+     * 各分区按配置指纹独立建池，数据源配置变化时分别切换
+     */
+    private class PoolPartition {
+        
+        private final boolean metadata;
+        
+        /**
+         * Key: 连接池配置指纹
+         */
+        private final ConcurrentHashMap<String, HikariConnectionPool> connectionPools = new ConcurrentHashMap<>();
+        
+        /**
+         * 数据源当前使用的连接池指纹
+         * Key: 数据源ID
+         */
+        private final ConcurrentHashMap<Long, String> dataSourcePoolKeys = new ConcurrentHashMap<>();
+        
+        /**
+         * 连接池切换锁，保证指纹映射更新与旧池退役的顺序
+         */
+        private final ReentrantLock swapLock = new ReentrantLock();
+        
+        PoolPartition(boolean metadata) {
+            this.metadata = metadata;
+        }
+        
+        HikariConnectionPool getPool(DataSource dataSource) {
+            String poolKey = poolKey(dataSource);
+            Long dataSourceId = dataSource.getId();
+            HikariConnectionPool pool = connectionPools.get(poolKey);
+            if (pool != null && pool.isUsable()
+                    && (dataSourceId == null || poolKey.equals(dataSourcePoolKeys.get(dataSourceId)))) {
+                return pool;
+            }
+            
+            swapLock.lock();
+            try {
+                // 已关闭或已退役的池不再复用，按当前配置重建
+                pool = connectionPools.compute(poolKey, (k, existing) -> existing != null && existing.isUsable()
+                        ? existing : createConnectionPool(dataSource, metadata));
+                if (dataSourceId != null) {
+                    String previousKey = dataSourcePoolKeys.put(dataSourceId, poolKey);
+                    if (previousKey != null && !previousKey.equals(poolKey)) {
+                        retirePool(previousKey, pool);
+                        logger.info("{} connection pool for datasource {} switched to new configuration",
+                                   metadata ? "Metadata" : "Primary", dataSourceId);
+                    }
+                }
+                return pool;
+            } finally {
+                swapLock.unlock();
+            }
+        }
+        
+        boolean refresh(DataSource dataSource, String poolKey) {
+            String currentKey = dataSource.getId() != null ? dataSourcePoolKeys.get(dataSource.getId()) : null;
+            if (currentKey == null || currentKey.equals(poolKey)) {
+                return false;
+            }
+            getPool(dataSource);
+            return true;
+        }
+        
+        void release(Long dataSourceId) {
+            swapLock.lock();
+            try {
+                String poolKey = dataSourcePoolKeys.remove(dataSourceId);
+                if (poolKey != null) {
+                    retirePool(poolKey, null);
+                    logger.info("{} connection pool for removed datasource {} released",
+                               metadata ? "Metadata" : "Primary", dataSourceId);
+                }
+            } finally {
+                swapLock.unlock();
+            }
+        }
+        
+        /**
+         * 退役旧池，仍有其他数据源使用相同配置时保留
+         */
+        private void retirePool(String poolKey, HikariConnectionPool successor) {
+            if (dataSourcePoolKeys.containsValue(poolKey)) {
+                return;
+            }
+            HikariConnectionPool previous = connectionPools.remove(poolKey);
+            if (previous != null) {
+                previous.retire(successor);
+            }
+        }
+        
+        void closeAll() {
+            connectionPools.values().forEach(HikariConnectionPool::close);
+            connectionPools.clear();
+            dataSourcePoolKeys.clear();
+        }
     }
     
     static class JdbcValidationResult implements ValidationResult {
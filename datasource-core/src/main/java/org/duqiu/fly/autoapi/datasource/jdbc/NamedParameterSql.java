@@ -0,0 +1,308 @@
+package org.duqiu.fly.autoapi.datasource.jdbc;
+
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 命名参数SQL
+ * 将 ${name} 模板编译为 ? 占位符和按位置排列的参数名表，按名称绑定参数。
+ * 同一SQL模板只产生一条语句文本，便于驱动和数据库复用预编译语句。
+ * 占位符不能出现在字符串字面量内部（如 LIKE '%${kw}%'），需改写为 LIKE CONCAT('%', ${kw}, '%')；
+ * 注释和带引号的标识符原样保留，MySQL系方言的字符串按反斜杠转义识别。
+ */
+public final class NamedParameterSql {
+
+    /**
+     * 匹配 ${name}
+     */
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\$\\{\\s*([^}\\s]+)\\s*}");
+
+    /**
+     * 匹配 '${name}'，带引号的写法整体替换为一个占位符
+     */
+    private static final Pattern QUOTED_PARAMETER_PATTERN = Pattern.compile("'\\$\\{\\s*([^}\\s]+)\\s*}'");
+
+    private static final int MAX_CACHE_SIZE = 2048;
+
+    /**
+     * 按访问顺序淘汰最久未用的模板，临时SQL（如接口测试）不会挤掉常用模板
+     */
+    private static final Map<CacheKey, NamedParameterSql> CACHE = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, NamedParameterSql> eldest) {
+                return size() > MAX_CACHE_SIZE;
+            }
+        });
+
+    private final String originalSql;
+    private final String sql;
+    private final String[] parameterNames;
+    private final Map<String, int[]> parameterIndexes;
+    private final boolean positionalParameters;
+
+    /**
+     * 各占位符 ? 在编译后SQL中的位置，与参数名一一对应
+     */
+    private final int[] placeholderOffsets;
+    private final boolean backslashEscapes;
+
+    private NamedParameterSql(String originalSql, String sql, List<String> names, List<Integer> offsets,
+                              boolean positionalParameters, boolean backslashEscapes) {
+        this.originalSql = originalSql;
+        this.sql = sql;
+        this.parameterNames = names.toArray(new String[0]);
+        this.placeholderOffsets = offsets.stream().mapToInt(Integer::intValue).toArray();
+        this.positionalParameters = positionalParameters;
+        this.backslashEscapes = backslashEscapes;
+
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < parameterNames.length; i++) {
+            positions.computeIfAbsent(parameterNames[i], k -> new ArrayList<>()).add(i + 1);
+        }
+        Map<String, int[]> indexes = new LinkedHashMap<>();
+        positions.forEach((name, list) -> indexes.put(name, list.stream().mapToInt(Integer::intValue).toArray()));
+        this.parameterIndexes = Collections.unmodifiableMap(indexes);
+    }
+
+    /**
+     * 按标准SQL的引号规则编译SQL模板，结果按SQL文本缓存，超出容量时淘汰最久未用的模板
+     * @param template 含 ${name} 占位符的SQL
+     * @return 编译结果
+     */
+    public static NamedParameterSql compile(String template) {
+        return compile(template, false);
+    }
+
+    /**
+     * 按数据源方言编译SQL模板
+     * @param template 含 ${name} 占位符的SQL
+     * @param type 数据源类型
+     * @return 编译结果
+     */
+    public static NamedParameterSql compile(String template, DataSourceType type) {
+        return compile(template, usesBackslashEscapes(type));
+    }
+
+    /**
+     * 编译SQL模板
+     * @param template 含 ${name} 占位符的SQL
+     * @param backslashEscapes 字符串中的反斜杠是否为转义符（MySQL系方言）
+     * @return 编译结果
+     */
+    public static NamedParameterSql compile(String template, boolean backslashEscapes) {
+        if (template == null) {
+            throw new IllegalArgumentException("SQL不能为空");
+        }
+
+        CacheKey key = new CacheKey(template, backslashEscapes);
+        NamedParameterSql compiled = CACHE.get(key);
+        if (compiled != null) {
+            return compiled;
+        }
+
+        compiled = parse(template, backslashEscapes);
+        NamedParameterSql existing = CACHE.putIfAbsent(key, compiled);
+        return existing != null ? existing : compiled;
+    }
+
+    /**
+     * 字符串中的反斜杠是否为转义符：MySQL、StarRocks、ClickHouse 默认如此，标准SQL只用 '' 转义
+     */
+    public static boolean usesBackslashEscapes(DataSourceType type) {
+        return type == DataSourceType.MYSQL || type == DataSourceType.STARROCKS || type == DataSourceType.CLICKHOUSE;
+    }
+
+    /**
+     * 逐字符扫描模板：引号内和注释中的内容原样保留，其余位置的 ${name} 替换为 ?
+     */
+    private static NamedParameterSql parse(String template, boolean backslashEscapes) {
+        int length = template.length();
+        StringBuilder sql = new StringBuilder(length);
+        List<String> names = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        boolean positional = false;
+        Matcher parameter = PARAMETER_PATTERN.matcher(template);
+        Matcher quotedParameter = QUOTED_PARAMETER_PATTERN.matcher(template);
+
+        int i = 0;
+        while (i < length) {
+            char c = template.charAt(i);
+            char next = i + 1 < length ? template.charAt(i + 1) : 0;
+            int end;
+            if (c == '\'' && quotedParameter.region(i, length).lookingAt()) {
+                names.add(quotedParameter.group(1));
+                offsets.add(sql.length());
+                sql.append('?');
+                i = quotedParameter.end();
+                continue;
+            }
+            if (c == '$' && next == '{' && parameter.region(i, length).lookingAt()) {
+                names.add(parameter.group(1));
+                offsets.add(sql.length());
+                sql.append('?');
+                i = parameter.end();
+                continue;
+            }
+            if (c == '\'' || c == '"' || c == '`') {
+                // MySQL系方言中双引号同样是字符串，反引号是标识符
+                boolean identifier = c == '`' || (c == '"' && !backslashEscapes);
+                end = skipQuoted(template, i, c, backslashEscapes && !identifier);
+                rejectParameterInside(parameter, i, end, identifier);
+            } else if (c == '-' && next == '-') {
+                int newline = template.indexOf('\n', i);
+                end = newline < 0 ? length : newline;
+            } else if (c == '/' && next == '*') {
+                int close = template.indexOf("*/", i + 2);
+                end = close < 0 ? length : close + 2;
+            } else {
+                positional |= c == '?';
+                end = i + 1;
+            }
+            sql.append(template, i, end);
+            i = end;
+        }
+
+        return new NamedParameterSql(template, sql.toString(), names, offsets, positional, backslashEscapes);
+    }
+
+    /**
+     * 返回引号内容结束后的位置，未闭合时返回模板末尾（交由数据库报错）
+     */
+    private static int skipQuoted(String template, int start, char quote, boolean backslashEscapes) {
+        int length = template.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = template.charAt(i);
+            if (backslashEscapes && c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                if (i + 1 < length && template.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static void rejectParameterInside(Matcher parameter, int start, int end, boolean identifier) {
+        if (!parameter.region(start, end).find()) {
+            return;
+        }
+        String placeholder = parameter.group();
+        if (identifier) {
+            throw new IllegalArgumentException("参数 " + placeholder + " 位于带引号的标识符内，无法绑定");
+        }
+        throw new IllegalArgumentException("参数 " + placeholder + " 位于字符串字面量内，无法绑定，"
+            + "请改写为 CONCAT('%', " + placeholder + ", '%') 等拼接形式");
+    }
+
+    /**
+     * 按名称绑定参数，缺失的参数绑定为NULL
+     */
+    public void bind(PreparedStatement stmt, Map<String, Object> parameters) throws SQLException {
+        for (int i = 0; i < parameterNames.length; i++) {
+            Object value = parameters != null ? parameters.get(parameterNames[i]) : null;
+            if (value == null) {
+                stmt.setNull(i + 1, Types.NULL);
+            } else {
+                stmt.setObject(i + 1, value);
+            }
+        }
+    }
+
+    /**
+     * 按编译结果把参数值内联为字面量生成文本SQL，缺失的参数替换为NULL，供不支持参数绑定的数据源使用
+     * 占位符的识别与 bind 完全一致：'${name}' 只生成一层引号，注释和引号内的内容不替换
+     */
+    public String render(Map<String, Object> parameters) {
+        if (parameterNames.length == 0) {
+            return sql;
+        }
+
+        StringBuilder rendered = new StringBuilder(sql.length() + 16 * parameterNames.length);
+        int last = 0;
+        for (int i = 0; i < parameterNames.length; i++) {
+            rendered.append(sql, last, placeholderOffsets[i]);
+            last = placeholderOffsets[i] + 1;
+            Object value = parameters != null ? parameters.get(parameterNames[i]) : null;
+            if (value == null) {
+                rendered.append("NULL");
+            } else if (value instanceof Number || value instanceof Boolean) {
+                rendered.append(value);
+            } else {
+                String text = value.toString();
+                if (backslashEscapes) {
+                    text = text.replace("\\", "\\\\");
+                }
+                rendered.append('\'').append(text.replace("'", "''")).append('\'');
+            }
+        }
+        rendered.append(sql, last, sql.length());
+        return rendered.toString();
+    }
+
+    /**
+     * 是否包含命名参数
+     */
+    public boolean hasParameters() {
+        return parameterNames.length > 0;
+    }
+
+    /**
+     * 模板中引号和注释以外是否出现 ? 位置参数
+     */
+    public boolean hasPositionalParameters() {
+        return positionalParameters;
+    }
+
+    /**
+     * 原始SQL模板
+     */
+    public String getOriginalSql() {
+        return originalSql;
+    }
+
+    /**
+     * 编译后的SQL（? 占位符）
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * 按位置排列的参数名
+     */
+    public List<String> getParameterNames() {
+        return List.of(parameterNames);
+    }
+
+    /**
+     * 参数名到占位符位置（从1开始）的映射
+     */
+    public Map<String, int[]> getParameterIndexes() {
+        return parameterIndexes;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+
+    private record CacheKey(String template, boolean backslashEscapes) {
+    }
+}
@@ -54,7 +54,7 @@ public class MetadataService {
      * 获取数据源连接信息
      */
     public DataSourceConnection.ConnectionInfo getConnectionInfo(DataSource dataSource) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             return connection.getConnectionInfo();
         } catch (Exception e) {
             throw new RuntimeException("获取连接信息失败: " + e.getMessage(), e);
@@ -65,7 +65,7 @@ public class MetadataService {
      * 获取数据库列表
      */
     public List<String> getDatabases(DataSource dataSource) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof DatabaseAwareConnection) {
                 return ((DatabaseAwareConnection) connection).getDatabases();
             }
@@ -86,7 +86,7 @@ public class MetadataService {
      * 获取模式列表
      */
     public List<String> getSchemas(DataSource dataSource, String database) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof SchemaAwareConnection) {
                 return ((SchemaAwareConnection) connection).getSchemas();
             }
@@ -107,7 +107,7 @@ public class MetadataService {
      * 获取表列表
      */
     public List<DataSourceConnection.TableInfo> getTables(DataSource dataSource, String database, String schema) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof SchemaAwareConnection && (database != null || schema != null)) {
                 return ((SchemaAwareConnection) connection).getTables(database, schema);
             }
@@ -128,7 +128,7 @@ public class MetadataService {
      * 获取表结构
      */
     public DataSourceConnection.TableSchema getTableSchema(DataSource dataSource, String tableName, String database, String schema) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof SchemaAwareConnection && (database != null || schema != null)) {
                 return ((SchemaAwareConnection) connection).getTableSchema(tableName, database, schema);
             }
@@ -149,7 +149,7 @@ public class MetadataService {
      * 获取表的详细统计信息
      */
     public Map<String, Object> getTableStatistics(DataSource dataSource, String tableName, String database, String schema) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             MetadataAdapter adapter = adapters.get(dataSource.getType());
             if (adapter != null) {
                 return adapter.getTableStatistics(connection, tableName, database, schema);
@@ -165,7 +165,7 @@ public class MetadataService {
      * 获取表的样本数据
      */
     public List<Map<String, Object>> getTableSampleData(DataSource dataSource, String tableName, String database, String schema, int limit) {
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             MetadataAdapter adapter = adapters.get(dataSource.getType());
             if (adapter != null) {
                 return adapter.getTableSampleData(connection, tableName, database, schema, limit);
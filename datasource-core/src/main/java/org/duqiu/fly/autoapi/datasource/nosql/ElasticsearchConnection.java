@@ -1,8 +1,11 @@
 package org.duqiu.fly.autoapi.datasource.nosql;
 
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.core.QueryOptions;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.*;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 
 import java.util.*;
 
@@ -14,6 +17,7 @@ public class ElasticsearchConnection implements DataSourceConnection {
     private final String baseUrl;
     private final String username;
     private final String password;
+    private final SimpleClientHttpRequestFactory requestFactory;
     private final RestTemplate restTemplate;
     private final HttpHeaders headers;
     
@@ -21,7 +25,8 @@ public class ElasticsearchConnection implements DataSourceConnection {
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
         this.username = username;
         this.password = password;
-        this.restTemplate = new RestTemplate();
+        this.requestFactory = new SimpleClientHttpRequestFactory();
+        this.restTemplate = new RestTemplate(requestFactory);
         this.headers = new HttpHeaders();
         
         // 设置认证
@@ -49,8 +54,19 @@ public class ElasticsearchConnection implements DataSourceConnection {
     
     @Override
     public QueryResult executeQuery(String query, Map<String, Object> parameters) {
+        return executeQuery(query, parameters, null);
+    }
+    
+    /**
+     * 查询超时作为读超时；客户端断开连接后Elasticsearch会取消对应的搜索任务
+     */
+    @Override
+    public QueryResult executeQuery(String query, Map<String, Object> parameters, QueryOptions options) {
         long startTime = System.currentTimeMillis();
         try {
+            if (options != null && options.getQueryTimeoutSeconds() > 0) {
+                requestFactory.setReadTimeout(options.getQueryTimeoutSeconds() * 1000);
+            }
             ESQuery esQuery = parseESQuery(query, parameters);
             
             String searchUrl = baseUrl + "/" + esQuery.getIndex() + "/_search";
@@ -313,7 +329,7 @@ public class ElasticsearchConnection implements DataSourceConnection {
     
     // Result实现类...
     static class ESQueryResult implements QueryResult {
-        private final List<Map<String, Object>> data;
+        private final ColumnarRowSet rowSet;
         private final long count;
         private final List<ColumnInfo> columns;
         private final long executionTime;
@@ -322,7 +338,8 @@ public class ElasticsearchConnection implements DataSourceConnection {
         
         public ESQueryResult(List<Map<String, Object>> data, long count, List<ColumnInfo> columns,
                             long executionTime, boolean success, String errorMessage) {
-            this.data = data;
+            // 文档按列压缩保存，原始行Map可被回收
+            this.rowSet = ColumnarRowSet.fromRows(data);
             this.count = count;
             this.columns = columns;
             this.executionTime = executionTime;
@@ -331,7 +348,9 @@ public class ElasticsearchConnection implements DataSourceConnection {
         }
         
         @Override
-        public List<Map<String, Object>> getData() { return data; }
+        public List<Map<String, Object>> getData() { return rowSet.asMaps(); }
+        @Override
+        public ColumnarRowSet getRowSet() { return rowSet; }
         @Override
         public long getCount() { return count; }
         @Override
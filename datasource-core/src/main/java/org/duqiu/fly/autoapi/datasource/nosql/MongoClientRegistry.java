@@ -0,0 +1,258 @@
+package org.duqiu.fly.autoapi.datasource.nosql;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MongoDB客户端注册表
+ * MongoClient自带连接池、监控线程和集群发现，按数据源配置指纹只保留一个长期存活的客户端，连接只是其上的句柄；
+ * 数据源配置变化或移除时旧客户端退役，借出的句柄全部关闭后再关闭客户端
+ */
+public class MongoClientRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoClientRegistry.class);
+
+    /**
+     * Key: 客户端配置指纹
+     */
+    private final ConcurrentHashMap<String, SharedClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * 数据源当前使用的客户端指纹
+     * Key: 数据源ID
+     */
+    private final ConcurrentHashMap<Long, String> dataSourceClientKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 客户端切换锁，保证指纹映射更新与旧客户端退役的顺序
+     */
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    /**
+     * 打开数据源的连接句柄，调用方负责关闭
+     * 未保存的数据源（如保存前的连接测试）使用独占客户端，句柄关闭时一并关闭
+     */
+    public MongoConnection openConnection(DataSource dataSource) {
+        if (dataSource.getId() == null) {
+            MongoClient client = MongoClients.create(buildClientSettings(dataSource));
+            return new MongoConnection(client, dataSource.getDatabase());
+        }
+        while (true) {
+            SharedClient shared = getClient(dataSource);
+            if (shared.acquire()) {
+                return new MongoConnection(shared.client, dataSource.getDatabase(), shared::release);
+            }
+            // 取得客户端后恰好被退役，按最新映射重新获取
+        }
+    }
+
+    /**
+     * 数据源配置更新后切换客户端，仅当该数据源已有客户端且生效配置发生变化时切换
+     * @return 是否发生了切换
+     */
+    public boolean refresh(DataSource dataSource) {
+        String currentKey = dataSource.getId() != null ? dataSourceClientKeys.get(dataSource.getId()) : null;
+        if (currentKey == null || currentKey.equals(generateClientKey(dataSource))) {
+            return false;
+        }
+        getClient(dataSource);
+        return true;
+    }
+
+    /**
+     * 数据源移除后退役其客户端
+     * @param dataSourceId 数据源ID
+     */
+    public void remove(Long dataSourceId) {
+        swapLock.lock();
+        try {
+            String clientKey = dataSourceClientKeys.remove(dataSourceId);
+            if (clientKey != null) {
+                retireClient(clientKey);
+                logger.info("MongoDB client for removed datasource {} retired", dataSourceId);
+            }
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前客户端数量
+     */
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    public void closeAll() {
+        clients.values().forEach(SharedClient::retire);
+        clients.clear();
+        dataSourceClientKeys.clear();
+    }
+
+    private SharedClient getClient(DataSource dataSource) {
+        String clientKey = generateClientKey(dataSource);
+        Long dataSourceId = dataSource.getId();
+        SharedClient shared = clients.get(clientKey);
+        if (shared != null && clientKey.equals(dataSourceClientKeys.get(dataSourceId))) {
+            return shared;
+        }
+
+        swapLock.lock();
+        try {
+            shared = clients.computeIfAbsent(clientKey,
+                k -> new SharedClient(MongoClients.create(buildClientSettings(dataSource))));
+            String previousKey = dataSourceClientKeys.put(dataSourceId, clientKey);
+            if (previousKey != null && !previousKey.equals(clientKey)) {
+                retireClient(previousKey);
+                logger.info("MongoDB client for datasource {} switched to new configuration", dataSourceId);
+            }
+            return shared;
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    /**
+     * 退役客户端，仍有其他数据源使用相同配置时保留
+     */
+    private void retireClient(String clientKey) {
+        if (dataSourceClientKeys.containsValue(clientKey)) {
+            return;
+        }
+        SharedClient previous = clients.remove(clientKey);
+        if (previous != null) {
+            previous.retire();
+        }
+    }
+
+    /**
+     * 客户端配置：连接池上限、最小连接数、借用等待、空闲和存活时间取自数据源的连接池配置
+     */
+    static MongoClientSettings buildClientSettings(DataSource dataSource) {
+        int maxSize = dataSource.getMaxPoolSize() != null ? Math.max(1, dataSource.getMaxPoolSize()) : 10;
+        int minSize = dataSource.getMinPoolSize() != null ? Math.min(maxSize, Math.max(0, dataSource.getMinPoolSize())) : 0;
+        int connectionTimeout = dataSource.getConnectionTimeout() != null ? dataSource.getConnectionTimeout() : 30000;
+        long idleTimeout = dataSource.getIdleTimeout() != null ? dataSource.getIdleTimeout() : 600000L;
+        long maxLifetime = dataSource.getMaxLifetime() != null ? dataSource.getMaxLifetime() : 1800000L;
+
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(buildConnectionString(dataSource)))
+            .applyToConnectionPoolSettings(pool -> pool
+                .maxSize(maxSize)
+                .minSize(minSize)
+                .maxWaitTime(connectionTimeout, TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(idleTimeout, TimeUnit.MILLISECONDS)
+                .maxConnectionLifeTime(maxLifetime, TimeUnit.MILLISECONDS))
+            .applyToSocketSettings(socket -> socket.connectTimeout(connectionTimeout, TimeUnit.MILLISECONDS))
+            .applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(connectionTimeout, TimeUnit.MILLISECONDS));
+        if (Boolean.TRUE.equals(dataSource.getSslEnabled())) {
+            builder.applyToSslSettings(ssl -> ssl.enabled(true));
+        }
+        return builder.build();
+    }
+
+    static String buildConnectionString(DataSource dataSource) {
+        StringBuilder sb = new StringBuilder("mongodb://");
+
+        if (dataSource.getUsername() != null && !dataSource.getUsername().isEmpty()) {
+            sb.append(dataSource.getUsername());
+            if (dataSource.getPassword() != null && !dataSource.getPassword().isEmpty()) {
+                sb.append(":").append(dataSource.getPassword());
+            }
+            sb.append("@");
+        }
+
+        sb.append(dataSource.getHost()).append(":").append(dataSource.getPort());
+
+        if (dataSource.getDatabase() != null && !dataSource.getDatabase().isEmpty()) {
+            sb.append("/").append(dataSource.getDatabase());
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * 客户端配置指纹：覆盖建客户端时生效的全部配置，凭据或连接池配置不同的数据源不会共享客户端
+     */
+    static String generateClientKey(DataSource dataSource) {
+        String config = buildConnectionString(dataSource) + '\n'
+            + dataSource.getMaxPoolSize() + '\n'
+            + dataSource.getMinPoolSize() + '\n'
+            + dataSource.getConnectionTimeout() + '\n'
+            + dataSource.getIdleTimeout() + '\n'
+            + dataSource.getMaxLifetime() + '\n'
+            + dataSource.getSslEnabled();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(config.getBytes(StandardCharsets.UTF_8));
+            return "MONGODB_" + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 共享客户端，记录借出的句柄数，退役后在句柄全部关闭时关闭
+     * 锁内只更新计数，关闭客户端在锁外执行
+     */
+    private static final class SharedClient {
+        private final MongoClient client;
+        private int handles;
+        private boolean retired;
+        private boolean closed;
+
+        SharedClient(MongoClient client) {
+            this.client = client;
+        }
+
+        synchronized boolean acquire() {
+            if (retired) {
+                return false;
+            }
+            handles++;
+            return true;
+        }
+
+        void release() {
+            boolean drained;
+            synchronized (this) {
+                handles--;
+                drained = markClosedIfDrained();
+            }
+            if (drained) {
+                client.close();
+            }
+        }
+
+        void retire() {
+            boolean drained;
+            synchronized (this) {
+                retired = true;
+                drained = markClosedIfDrained();
+            }
+            if (drained) {
+                client.close();
+            }
+        }
+
+        private boolean markClosedIfDrained() {
+            if (retired && handles == 0 && !closed) {
+                closed = true;
+                return true;
+            }
+            return false;
+        }
+    }
+}
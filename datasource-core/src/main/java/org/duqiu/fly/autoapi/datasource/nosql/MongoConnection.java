@@ -2,12 +2,17 @@ package org.duqiu.fly.autoapi.datasource.nosql;
 
 import com.mongodb.client.*;
 import org.bson.Document;
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
 import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.datasource.core.QueryOptions;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * MongoDB连接实现
+ * 连接是共享客户端上的轻量句柄，关闭句柄只通知客户端的持有方，不关闭客户端本身
  */
 public class MongoConnection implements DataSourceConnection {
     
@@ -15,10 +20,31 @@ public class MongoConnection implements DataSourceConnection {
     private final MongoDatabase database;
     private final String databaseName;
     
+    /**
+     * 句柄关闭时的回调，只执行一次
+     */
+    private final Runnable onClose;
+    private boolean closed;
+    
+    /**
+     * 独占客户端的连接，关闭时一并关闭客户端
+     */
     public MongoConnection(MongoClient mongoClient, String databaseName) {
+        this(mongoClient, databaseName, mongoClient::close);
+    }
+    
+    /**
+     * @param onClose 句柄关闭时的回调，共享客户端时用于归还
+     */
+    public MongoConnection(MongoClient mongoClient, String databaseName, Runnable onClose) {
         this.mongoClient = mongoClient;
         this.databaseName = databaseName;
         this.database = mongoClient.getDatabase(databaseName);
+        this.onClose = onClose;
+    }
+    
+    public MongoClient getMongoClient() {
+        return mongoClient;
     }
     
     @Override
@@ -34,7 +60,16 @@ public class MongoConnection implements DataSourceConnection {
     
     @Override
     public QueryResult executeQuery(String query, Map<String, Object> parameters) {
+        return executeQuery(query, parameters, null);
+    }
+    
+    /**
+     * 查询超时通过maxTime交给服务端执行，取消后停止读取游标
+     */
+    @Override
+    public QueryResult executeQuery(String query, Map<String, Object> parameters, QueryOptions options) {
         long startTime = System.currentTimeMillis();
+        QueryCancellation cancellation = options != null ? options.getCancellation() : null;
         try {
             // 解析MongoDB查询
             MongoQuery mongoQuery = parseMongoQuery(query, parameters);
@@ -68,9 +103,18 @@ public class MongoConnection implements DataSourceConnection {
                 iterable = iterable.limit(mongoQuery.getLimit());
             }
             
+            if (options != null && options.getQueryTimeoutSeconds() > 0) {
+                iterable = iterable.maxTime(options.getQueryTimeoutSeconds(), TimeUnit.SECONDS);
+            }
+            
             // 收集结果
-            for (Document doc : iterable) {
-                data.add(documentToMap(doc));
+            try (MongoCursor<Document> cursor = iterable.iterator()) {
+                while (cursor.hasNext()) {
+                    if (cancellation != null && cancellation.isCancelled()) {
+                        throw new IllegalStateException("查询已取消");
+                    }
+                    data.add(documentToMap(cursor.next()));
+                }
             }
             
             long executionTime = System.currentTimeMillis() - startTime;
@@ -191,8 +235,9 @@ public class MongoConnection implements DataSourceConnection {
     
     @Override
     public void close() {
-        if (mongoClient != null) {
-            mongoClient.close();
+        if (!closed) {
+            closed = true;
+            onClose.run();
         }
     }
     
@@ -299,7 +344,7 @@ public class MongoConnection implements DataSourceConnection {
     
     // Result实现类...
     static class MongoQueryResult implements QueryResult {
-        private final List<Map<String, Object>> data;
+        private final ColumnarRowSet rowSet;
         private final long count;
         private final List<ColumnInfo> columns;
         private final long executionTime;
@@ -308,7 +353,8 @@ public class MongoConnection implements DataSourceConnection {
         
         public MongoQueryResult(List<Map<String, Object>> data, long count, List<ColumnInfo> columns,
                                long executionTime, boolean success, String errorMessage) {
-            this.data = data;
+            // 文档按列压缩保存，原始行Map可被回收
+            this.rowSet = ColumnarRowSet.fromRows(data);
             this.count = count;
             this.columns = columns;
             this.executionTime = executionTime;
@@ -317,7 +363,9 @@ public class MongoConnection implements DataSourceConnection {
         }
         
         @Override
-        public List<Map<String, Object>> getData() { return data; }
+        public List<Map<String, Object>> getData() { return rowSet.asMaps(); }
+        @Override
+        public ColumnarRowSet getRowSet() { return rowSet; }
         @Override
         public long getCount() { return count; }
         @Override
@@ -7,6 +7,7 @@ import org.duqiu.fly.autoapi.datasource.dto.DataSourceCreateRequestV2;
 import org.duqiu.fly.autoapi.datasource.dto.DataSourceResponseV2;
 import org.duqiu.fly.autoapi.datasource.dto.DataSourceUpdateRequest;
 import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.event.DataSourceChangedEvent;
 import org.duqiu.fly.autoapi.datasource.factory.UnifiedDataSourceFactory;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
@@ -14,6 +15,8 @@ import org.duqiu.fly.autoapi.datasource.core.DatabaseAwareConnection;
 import org.duqiu.fly.autoapi.datasource.core.SchemaAwareConnection;
 import org.duqiu.fly.autoapi.datasource.core.QueryValidationCapable;
 import org.duqiu.fly.autoapi.common.dto.PageResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
@@ -32,13 +35,23 @@ public class EnhancedDataSourceService {
     private final DataSourceRepository dataSourceRepository;
     private final UnifiedDataSourceFactory dataSourceFactory;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     public EnhancedDataSourceService(DataSourceRepository dataSourceRepository,
                                    UnifiedDataSourceFactory dataSourceFactory,
                                    ObjectMapper objectMapper) {
+        this(dataSourceRepository, dataSourceFactory, objectMapper, event -> { });
+    }
+    
+    @Autowired
+    public EnhancedDataSourceService(DataSourceRepository dataSourceRepository,
+                                   UnifiedDataSourceFactory dataSourceFactory,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher) {
         this.dataSourceRepository = dataSourceRepository;
         this.dataSourceFactory = dataSourceFactory;
         this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
     }
     
     public DataSourceResponseV2 createDataSource(DataSourceCreateRequestV2 request, Long userId, Long tenantId) {
@@ -145,7 +158,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             return connection.getTables();
         } catch (Exception e) {
             throw new RuntimeException("获取表列表失败: " + e.getMessage(), e);
@@ -160,7 +173,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             return connection.getTableSchema(tableName);
         } catch (Exception e) {
             throw new RuntimeException("获取表结构失败: " + e.getMessage(), e);
@@ -179,7 +192,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             DataSourceConnection.QueryResult result = connection.executeQuery(query, parameters);
             
             Map<String, Object> response = new HashMap<>();
@@ -210,7 +223,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             return connection.getConnectionInfo();
         } catch (Exception e) {
             throw new RuntimeException("获取数据源元数据失败: " + e.getMessage(), e);
@@ -225,7 +238,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof DatabaseAwareConnection) {
                 return ((DatabaseAwareConnection) connection).getDatabases();
             } else {
@@ -245,7 +258,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof SchemaAwareConnection) {
                 return ((SchemaAwareConnection) connection).getTables(database, schema);
             } else {
@@ -264,7 +277,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof SchemaAwareConnection) {
                 return ((SchemaAwareConnection) connection).getTableSchema(tableName, database, schema);
             } else {
@@ -295,7 +308,7 @@ public class EnhancedDataSourceService {
         
         Map<String, Object> result = new HashMap<>();
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             if (connection instanceof QueryValidationCapable) {
                 QueryValidationCapable validator = (QueryValidationCapable) connection;
                 boolean valid = validator.validateQuery(query);
@@ -344,6 +357,7 @@ public class EnhancedDataSourceService {
         dataSource.setEnabled(false);
         dataSource.setUpdatedBy(userId);
         dataSourceRepository.save(dataSource);
+        dataSourceFactory.releaseDataSource(id);
     }
     
     public DataSourceResponseV2 updateDataSource(Long id, DataSourceUpdateRequest request, Long userId) {
@@ -419,6 +433,10 @@ public class EnhancedDataSourceService {
         dataSource.setConnectionUrl(dataSourceFactory.buildConnectionUrl(dataSource));
         
         DataSource saved = dataSourceRepository.save(dataSource);
+        
+        // 已有连接池且配置变化时在旧池旁建立新池并切换，旧池在借出的连接归还后关闭
+        boolean poolSwapped = dataSourceFactory.refreshConnectionPool(saved);
+        eventPublisher.publishEvent(new DataSourceChangedEvent(saved.getId(), poolSwapped));
         return convertToResponseV2(saved);
     }
     
@@ -551,7 +569,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             List<String> databases;
             if (connection instanceof DatabaseAwareConnection) {
                 databases = ((DatabaseAwareConnection) connection).getDatabases();
@@ -586,7 +604,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             List<DataSourceConnection.TableInfo> tableInfos;
             if (connection instanceof SchemaAwareConnection) {
                 tableInfos = ((SchemaAwareConnection) connection).getTables(database, null);
@@ -624,7 +642,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             DataSourceConnection.TableSchema schema;
             if (connection instanceof SchemaAwareConnection) {
                 schema = ((SchemaAwareConnection) connection).getTableSchema(table, database, null);
@@ -663,7 +681,7 @@ public class EnhancedDataSourceService {
             throw new RuntimeException("无权访问该数据源");
         }
         
-        try (DataSourceConnection connection = dataSourceFactory.createConnection(dataSource)) {
+        try (DataSourceConnection connection = dataSourceFactory.borrowMetadataConnection(dataSource)) {
             // 构建查询语句
             String query;
             Map<String, Object> parameters = new HashMap<>();
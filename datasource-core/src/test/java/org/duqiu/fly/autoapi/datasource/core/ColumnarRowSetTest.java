@@ -0,0 +1,79 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式查询结果测试类
+ */
+class ColumnarRowSetTest {
+
+    @Test
+    void testBuilder_MapViewMatchesRowValues() {
+        // Given
+        ColumnarRowSet.Builder builder = ColumnarRowSet.builder(new String[]{"id", "name", "score"});
+        builder.addRow(new Object[]{1, "张三", 90.5});
+        builder.addRow(new Object[]{2, null, 88.0});
+
+        // When
+        ColumnarRowSet rowSet = builder.build();
+        List<Map<String, Object>> rows = rowSet.asMaps();
+
+        // Then
+        assertEquals(2, rowSet.getRowCount());
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", 2);
+        expected.put("name", null);
+        expected.put("score", 88.0);
+        assertEquals(expected, rows.get(1));
+        assertTrue(rows.get(1).containsKey("name"));
+        assertEquals("张三", rows.get(0).get("name"));
+    }
+
+    @Test
+    void testBuilder_MixedTypesFallBackToObjects() {
+        // Given
+        ColumnarRowSet.Builder builder = ColumnarRowSet.builder(new String[]{"value"});
+        builder.addRow(new Object[]{1});
+        builder.addRow(new Object[]{2L});
+        builder.addRow(new Object[]{"3"});
+
+        // When
+        ColumnarRowSet rowSet = builder.build();
+
+        // Then
+        assertEquals(1, rowSet.getValue(0, 0));
+        assertEquals(2L, rowSet.getValue(1, 0));
+        assertEquals("3", rowSet.getValue(2, 0));
+    }
+
+    @Test
+    void testFromRows_KeepsAbsentFieldsAbsent() {
+        // Given
+        List<Map<String, Object>> documents = List.of(Map.of("a", 1L), Map.of("b", "x"));
+
+        // When
+        ColumnarRowSet rowSet = ColumnarRowSet.fromRows(documents);
+
+        // Then
+        assertEquals(2, rowSet.getColumnCount());
+        assertEquals(documents, rowSet.asMaps());
+        assertFalse(rowSet.asMaps().get(0).containsKey("b"));
+        assertFalse(rowSet.isPresent(1, rowSet.indexOf("a")));
+    }
+
+    @Test
+    void testUnwrap_ReturnsBackingRowSet() {
+        // Given
+        ColumnarRowSet rowSet = ColumnarRowSet.builder(new String[]{"id"}).addRow(new Object[]{1}).build();
+
+        // When & Then
+        assertSame(rowSet, ColumnarRowSet.unwrap(rowSet.asMaps()));
+        assertNull(ColumnarRowSet.unwrap(List.of()));
+    }
+}
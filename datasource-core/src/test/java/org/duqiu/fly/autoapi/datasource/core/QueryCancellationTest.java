@@ -0,0 +1,60 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 查询取消句柄测试类
+ */
+class QueryCancellationTest {
+
+    @Test
+    void testCancel_RunsRegisteredActionOnce() {
+        // Given
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicInteger cancelled = new AtomicInteger();
+        cancellation.onCancel(cancelled::incrementAndGet);
+
+        // When
+        boolean first = cancellation.cancel();
+        boolean second = cancellation.cancel();
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(cancellation.isCancelled());
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    void testOnCancel_AfterCancelRunsImmediately() {
+        // Given
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+        AtomicInteger cancelled = new AtomicInteger();
+
+        // When
+        cancellation.onCancel(cancelled::incrementAndGet);
+
+        // Then
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    void testOnCancel_ClearedActionIsNotRun() {
+        // Given
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicInteger cancelled = new AtomicInteger();
+        cancellation.onCancel(cancelled::incrementAndGet);
+        cancellation.onCancel(null);
+
+        // When
+        cancellation.cancel();
+
+        // Then
+        assertEquals(0, cancelled.get());
+    }
+}
@@ -0,0 +1,92 @@
+package org.duqiu.fly.autoapi.datasource.core;
+
+import org.duqiu.fly.autoapi.datasource.exception.DataSourceExceptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 结果溢出缓冲测试类
+ */
+class ResultSpillBufferTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    @Test
+    void testFinish_BelowThresholdStaysColumnar() {
+        // Given
+        ResultSpillBuffer buffer = ResultSpillBuffer.create(new String[]{"id"}, QueryOptions.defaults()
+            .setSpillThresholdBytes(1 << 20)
+            .setSpillDirectory(spillDirectory));
+        buffer.addRow(new Object[]{1});
+
+        // When
+        List<Map<String, Object>> rows = buffer.finish();
+
+        // Then
+        assertFalse(buffer.isSpilled());
+        assertNotNull(ColumnarRowSet.unwrap(rows));
+        assertEquals(1, rows.get(0).get("id"));
+    }
+
+    @Test
+    void testFinish_SpilledRowsReadBackInOrder() throws Exception {
+        // Given
+        ResultSpillBuffer buffer = ResultSpillBuffer.create(new String[]{"id", "name", "amount", "created"},
+            QueryOptions.defaults().setSpillThresholdBytes(1024).setSpillDirectory(spillDirectory));
+        Timestamp created = Timestamp.valueOf("2024-05-01 10:30:15.123456789");
+        for (int i = 0; i < 2000; i++) {
+            buffer.addRow(new Object[]{i, "用户" + i, i % 3 == 0 ? null : new BigDecimal(i + ".50"), created});
+        }
+
+        // When
+        List<Map<String, Object>> rows = buffer.finish();
+
+        // Then
+        assertTrue(buffer.isSpilled());
+        assertTrue(SpilledRowList.isSpilled(rows));
+        assertEquals(2000, rows.size());
+        List<Map<String, Object>> iterated = new ArrayList<>();
+        rows.forEach(iterated::add);
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i, iterated.get(i).get("id"));
+            assertEquals("用户" + i, iterated.get(i).get("name"));
+        }
+        assertEquals(new BigDecimal("1999.50"), rows.get(1999).get("amount"));
+        assertNull(rows.get(999).get("amount"));
+        assertEquals(created, rows.get(1500).get("created"));
+        // 映射完成后临时文件已删除
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testAddRow_HardLimitsFailClearly() {
+        // Given
+        ResultSpillBuffer rowLimited = ResultSpillBuffer.create(new String[]{"id"},
+            QueryOptions.defaults().setMaxResultRows(2));
+        ResultSpillBuffer byteLimited = ResultSpillBuffer.create(new String[]{"text"},
+            QueryOptions.defaults().setMaxResultBytes(100));
+        rowLimited.addRow(new Object[]{1});
+        rowLimited.addRow(new Object[]{2});
+
+        // When & Then
+        DataSourceExceptions.ResultLimitExceededException rowError = assertThrows(
+            DataSourceExceptions.ResultLimitExceededException.class, () -> rowLimited.addRow(new Object[]{3}));
+        assertTrue(rowError.getMessage().contains("行数上限(2)"));
+        assertThrows(DataSourceExceptions.ResultLimitExceededException.class,
+            () -> byteLimited.addRow(new Object[]{"x".repeat(100)}));
+    }
+}
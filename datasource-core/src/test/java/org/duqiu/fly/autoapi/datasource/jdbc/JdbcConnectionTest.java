@@ -0,0 +1,64 @@
+package org.duqiu.fly.autoapi.datasource.jdbc;
+
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.DriverManager;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC连接测试类
+ */
+class JdbcConnectionTest {
+
+    private JdbcConnection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = new JdbcConnection(
+            DriverManager.getConnection("jdbc:h2:mem:jdbc_connection_" + System.nanoTime(), "sa", ""));
+        connection.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR(32))", Collections.emptyMap());
+        connection.executeUpdate("INSERT INTO users VALUES (1, 'a'), (2, 'b')", Collections.emptyMap());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connection.close();
+    }
+
+    @Test
+    void testExecuteQuery_BindsNamedParameters() {
+        // Given
+        Map<String, Object> params = Map.of("name", "b", "id", 2);
+
+        // When
+        DataSourceConnection.QueryResult result = connection.executeQuery(
+            "SELECT id FROM users WHERE id = ${id} AND name = ${name}", params);
+
+        // Then
+        assertTrue(result.isSuccess());
+        assertEquals(1, result.getData().size());
+    }
+
+    @Test
+    void testExecuteQuery_RejectsPositionalParameters() {
+        // Given
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("id", 1);
+        params.put("name", "a");
+
+        // When
+        DataSourceConnection.QueryResult result = connection.executeQuery(
+            "SELECT id FROM users WHERE id = ? AND name = ?", params);
+
+        // Then
+        assertFalse(result.isSuccess());
+        assertTrue(result.getErrorMessage().contains("${name}"));
+    }
+}
@@ -0,0 +1,171 @@
+package org.duqiu.fly.autoapi.datasource.jdbc;
+
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC数据源工厂连接池测试类
+ */
+class JdbcDataSourceFactoryTest {
+
+    private final JdbcDataSourceFactory factory = new JdbcDataSourceFactory();
+
+    @AfterEach
+    void tearDown() {
+        factory.closeAllPools();
+    }
+
+    @Test
+    void testGeneratePoolKey_CoversCredentialsAndProperties() {
+        // Given
+        DataSource base = createDataSource(1L, 2);
+        DataSource otherPassword = createDataSource(2L, 2);
+        otherPassword.setPassword("secret");
+        DataSource reordered = createDataSource(3L, 2);
+        base.setAdditionalProperties("{\"a\":\"1\",\"b\":\"2\"}");
+        reordered.setAdditionalProperties("{\"b\":\"2\",\"a\":\"1\"}");
+
+        // When & Then
+        assertNotEquals(factory.generatePoolKey(base), factory.generatePoolKey(otherPassword));
+        assertEquals(factory.generatePoolKey(base), factory.generatePoolKey(reordered));
+    }
+
+    @Test
+    void testRefreshConnectionPool_DrainsOldPoolAfterReturn() {
+        // Given
+        DataSource dataSource = createDataSource(1L, 2);
+        HikariConnectionPool oldPool = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+        DataSourceConnection borrowed = oldPool.getConnection();
+
+        // When
+        dataSource.setMaxPoolSize(3);
+        boolean swapped = factory.refreshConnectionPool(dataSource);
+
+        // Then
+        assertTrue(swapped);
+        ConnectionPool newPool = factory.getConnectionPool(dataSource);
+        assertNotSame(oldPool, newPool);
+        assertEquals(3, ((HikariConnectionPool) newPool).getDataSource().getMaximumPoolSize());
+        // 旧池句柄上的新借用转到新池，借出的连接仍可用
+        try (DataSourceConnection redirected = oldPool.getConnection()) {
+            assertTrue(redirected.isValid());
+        }
+        assertTrue(borrowed.isValid());
+        assertFalse(oldPool.getDataSource().isClosed());
+
+        borrowed.close();
+        assertTrue(oldPool.getDataSource().isClosed());
+        assertFalse(factory.refreshConnectionPool(dataSource));
+    }
+
+    @Test
+    void testGetMetadataConnectionPool_SeparateAndSmaller() {
+        // Given
+        DataSource dataSource = createDataSource(1L, 10);
+
+        // When
+        HikariConnectionPool primary = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+        HikariConnectionPool metadata = (HikariConnectionPool) factory.getMetadataConnectionPool(dataSource);
+
+        // Then
+        assertNotSame(primary, metadata);
+        assertSame(metadata, factory.getMetadataConnectionPool(dataSource));
+        assertEquals(JdbcDataSourceFactory.DEFAULT_METADATA_POOL_SIZE, metadata.getDataSource().getMaximumPoolSize());
+        assertEquals(0, metadata.getDataSource().getMinimumIdle());
+        assertEquals(10, primary.getDataSource().getMaximumPoolSize());
+    }
+
+    @Test
+    void testWarmUp_PrefillsToMinimumIdle() {
+        // Given
+        DataSource dataSource = createDataSource(4L, 8);
+        HikariConnectionPool pool = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+
+        // When
+        int warmed = pool.warmUp("SELECT 1", List.of("SELECT 1 WHERE 1 = ?", "SELECT * FROM missing_table"));
+
+        // Then
+        assertEquals(2, warmed);
+        assertTrue(pool.getStatus().getIdleConnections() >= 2);
+        assertEquals(0, pool.getStatus().getActiveConnections());
+        assertEquals(0, pool.getMetrics().getBorrowCount());
+    }
+
+    @Test
+    void testRelease_ClosesPoolsOfRemovedDataSource() {
+        // Given
+        DataSource dataSource = createDataSource(5L, 2);
+        HikariConnectionPool primary = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+        HikariConnectionPool metadata = (HikariConnectionPool) factory.getMetadataConnectionPool(dataSource);
+        DataSourceConnection borrowed = primary.getConnection();
+
+        // When
+        factory.release(5L);
+
+        // Then
+        assertTrue(metadata.getDataSource().isClosed());
+        assertFalse(primary.getDataSource().isClosed());
+        borrowed.close();
+        assertTrue(primary.getDataSource().isClosed());
+        assertThrows(IllegalStateException.class, primary::getConnection);
+    }
+
+    @Test
+    void testGetConnectionPool_ReplacesClosedPool() {
+        // Given
+        DataSource dataSource = createDataSource(6L, 2);
+        HikariConnectionPool closed = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+        closed.close();
+
+        // When
+        HikariConnectionPool pool = (HikariConnectionPool) factory.getConnectionPool(dataSource);
+
+        // Then
+        assertNotSame(closed, pool);
+        try (DataSourceConnection connection = pool.getConnection()) {
+            assertTrue(connection.isValid());
+        }
+    }
+
+    @Test
+    void testGetConnectionPool_FingerprintCachedUntilUpdated() {
+        // Given
+        DataSource dataSource = createDataSource(7L, 2);
+        dataSource.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        ConnectionPool pool = factory.getConnectionPool(dataSource);
+
+        // When 同一更新时间下复用缓存的指纹
+        dataSource.setMaxPoolSize(3);
+        ConnectionPool cached = factory.getConnectionPool(dataSource);
+        dataSource.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 0, 0));
+        ConnectionPool updated = factory.getConnectionPool(dataSource);
+
+        // Then
+        assertSame(pool, cached);
+        assertNotSame(pool, updated);
+        assertEquals(3, ((HikariConnectionPool) updated).getDataSource().getMaximumPoolSize());
+    }
+
+    private DataSource createDataSource(Long id, int maxPoolSize) {
+        DataSource dataSource = new DataSource();
+        dataSource.setId(id);
+        dataSource.setName("h2-" + id);
+        dataSource.setType(DataSourceType.H2);
+        dataSource.setHost("localhost");
+        dataSource.setPort(0);
+        dataSource.setDatabase("pool_swap_" + id);
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        dataSource.setMaxPoolSize(maxPoolSize);
+        return dataSource;
+    }
+}
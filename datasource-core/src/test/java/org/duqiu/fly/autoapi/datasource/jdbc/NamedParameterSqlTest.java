@@ -0,0 +1,179 @@
+package org.duqiu.fly.autoapi.datasource.jdbc;
+
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 命名参数SQL编译测试类
+ */
+class NamedParameterSqlTest {
+
+    @Test
+    void testCompile_ReplacesPlaceholders() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM users WHERE id = ${userId} AND status = ${status}");
+
+        // Then
+        assertEquals("SELECT * FROM users WHERE id = ? AND status = ?", sql.getSql());
+        assertEquals(List.of("userId", "status"), sql.getParameterNames());
+        assertTrue(sql.hasParameters());
+    }
+
+    @Test
+    void testCompile_QuotedPlaceholderAndRepeatedName() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM users WHERE name = '${name}' OR nickname = ${name}");
+
+        // Then
+        assertEquals("SELECT * FROM users WHERE name = ? OR nickname = ?", sql.getSql());
+        assertArrayEquals(new int[]{1, 2}, sql.getParameterIndexes().get("name"));
+    }
+
+    @Test
+    void testCompile_RejectsPlaceholderInsideLiteral() {
+        // When
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> NamedParameterSql.compile("SELECT * FROM users WHERE name LIKE '%${kw}%'"));
+
+        // Then
+        assertTrue(e.getMessage().contains("CONCAT"));
+        assertEquals("SELECT * FROM users WHERE name LIKE CONCAT('%', ?, '%') AND note <> 'it''s'",
+            NamedParameterSql.compile(
+                "SELECT * FROM users WHERE name LIKE CONCAT('%', ${kw}, '%') AND note <> 'it''s'").getSql());
+    }
+
+    @Test
+    void testCompile_MySqlBackslashEscapedQuote() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM users WHERE note <> 'it\\'s' AND id = ${id}", DataSourceType.MYSQL);
+
+        // Then
+        assertEquals("SELECT * FROM users WHERE note <> 'it\\'s' AND id = ?", sql.getSql());
+        assertEquals(List.of("id"), sql.getParameterNames());
+    }
+
+    @Test
+    void testCompile_StandardBackslashIsLiteralCharacter() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM files WHERE dir = 'C:\\' AND name = ${name}", DataSourceType.POSTGRESQL);
+
+        // Then
+        assertEquals("SELECT * FROM files WHERE dir = 'C:\\' AND name = ?", sql.getSql());
+        assertEquals(List.of("name"), sql.getParameterNames());
+    }
+
+    @Test
+    void testCompile_SkipsComments() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM users -- don't use ${old}\n"
+                + "WHERE /* it's ${legacy} */ id = ${id}");
+
+        // Then
+        assertEquals("SELECT * FROM users -- don't use ${old}\n"
+            + "WHERE /* it's ${legacy} */ id = ?", sql.getSql());
+        assertEquals(List.of("id"), sql.getParameterNames());
+    }
+
+    @Test
+    void testCompile_SkipsQuotedIdentifiers() {
+        // When
+        NamedParameterSql standard = NamedParameterSql.compile(
+            "SELECT \"user's name\" FROM users WHERE id = ${id}", DataSourceType.POSTGRESQL);
+        NamedParameterSql mysql = NamedParameterSql.compile(
+            "SELECT `user's name` FROM users WHERE id = ${id}", DataSourceType.MYSQL);
+
+        // Then
+        assertEquals("SELECT \"user's name\" FROM users WHERE id = ?", standard.getSql());
+        assertEquals("SELECT `user's name` FROM users WHERE id = ?", mysql.getSql());
+        assertEquals(List.of("id"), mysql.getParameterNames());
+    }
+
+    @Test
+    void testCompile_RejectsPlaceholderInsideQuotedIdentifier() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> NamedParameterSql.compile("SELECT \"${col}\" FROM users", DataSourceType.POSTGRESQL));
+    }
+
+    @Test
+    void testCompile_CachedPerSqlText() {
+        // Given
+        String template = "SELECT * FROM orders WHERE user_id = ${userId}";
+
+        // When & Then
+        assertSame(NamedParameterSql.compile(template), NamedParameterSql.compile(template));
+    }
+
+    @Test
+    void testCompile_EvictsLeastRecentlyUsed() {
+        // Given
+        String template = "SELECT * FROM accounts WHERE id = ${id}";
+        NamedParameterSql cached = NamedParameterSql.compile(template);
+
+        // When 大量一次性SQL写入，期间常用模板持续被访问
+        for (int i = 0; i < 5000; i++) {
+            NamedParameterSql.compile("SELECT " + i + " FROM dual WHERE id = ${id}");
+            if (i % 1000 == 0) {
+                assertSame(cached, NamedParameterSql.compile(template));
+            }
+        }
+
+        // Then
+        assertSame(cached, NamedParameterSql.compile(template));
+    }
+
+    @Test
+    void testCompile_NoPlaceholders() {
+        // When
+        NamedParameterSql sql = NamedParameterSql.compile("SELECT 1");
+
+        // Then
+        assertEquals("SELECT 1", sql.getSql());
+        assertFalse(sql.hasParameters());
+    }
+
+    @Test
+    void testBind_ByNameIndependentOfMapOrder() throws Exception {
+        // Given
+        NamedParameterSql sql = NamedParameterSql.compile(
+            "SELECT * FROM users WHERE age > ${minAge} AND city = ${city} AND id = ${id}");
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        Map<String, Object> params = new HashMap<>();
+        params.put("city", "Beijing");
+        params.put("minAge", 18);
+
+        // When
+        sql.bind(stmt, params);
+
+        // Then
+        verify(stmt).setObject(1, 18);
+        verify(stmt).setObject(2, "Beijing");
+        verify(stmt).setNull(3, Types.NULL);
+    }
+
+    @Test
+    void testRender_EscapesBackslashForMySql() {
+        // Given
+        NamedParameterSql sql = NamedParameterSql.compile("SELECT * FROM files WHERE dir = ${dir}", DataSourceType.MYSQL);
+
+        // When
+        String rendered = sql.render(Map.of("dir", "C:\\' OR 1=1 -- "));
+
+        // Then
+        assertEquals("SELECT * FROM files WHERE dir = 'C:\\\\'' OR 1=1 -- '", rendered);
+    }
+}
@@ -0,0 +1,81 @@
+package org.duqiu.fly.autoapi.datasource.nosql;
+
+import com.mongodb.MongoClientSettings;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MongoDB客户端注册表测试类
+ */
+class MongoClientRegistryTest {
+
+    private final MongoClientRegistry registry = new MongoClientRegistry();
+
+    @AfterEach
+    void tearDown() {
+        registry.closeAll();
+    }
+
+    @Test
+    void testOpenConnection_SharesClientUntilConfigChanges() {
+        // Given
+        DataSource dataSource = createDataSource();
+        MongoConnection first = registry.openConnection(dataSource);
+        MongoConnection second = registry.openConnection(dataSource);
+
+        // When
+        first.close();
+        MongoConnection third = registry.openConnection(dataSource);
+
+        // Then
+        assertSame(second.getMongoClient(), third.getMongoClient());
+        assertEquals(1, registry.getClientCount());
+        assertFalse(registry.refresh(dataSource));
+
+        // 配置变化后切换到新客户端
+        dataSource.setMaxPoolSize(20);
+        assertTrue(registry.refresh(dataSource));
+        try (MongoConnection switched = registry.openConnection(dataSource)) {
+            assertNotSame(second.getMongoClient(), switched.getMongoClient());
+        }
+        assertEquals(1, registry.getClientCount());
+        second.close();
+        third.close();
+    }
+
+    @Test
+    void testBuildClientSettings_AppliesPoolConfiguration() {
+        // Given
+        DataSource dataSource = createDataSource();
+        dataSource.setMaxPoolSize(16);
+        dataSource.setMinPoolSize(2);
+        dataSource.setConnectionTimeout(5000);
+        dataSource.setIdleTimeout(60000);
+
+        // When
+        MongoClientSettings settings = MongoClientRegistry.buildClientSettings(dataSource);
+
+        // Then
+        assertEquals(16, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(2, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(5000, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(60000, settings.getConnectionPoolSettings().getMaxConnectionIdleTime(TimeUnit.MILLISECONDS));
+    }
+
+    private DataSource createDataSource() {
+        DataSource dataSource = new DataSource();
+        dataSource.setId(1L);
+        dataSource.setName("mongo-1");
+        dataSource.setType(DataSourceType.MONGODB);
+        dataSource.setHost("localhost");
+        dataSource.setPort(27017);
+        dataSource.setDatabase("autoapi");
+        return dataSource;
+    }
+}
@@ -2,8 +2,10 @@ package org.duqiu.fly.autoapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "org.duqiu.fly.autoapi")
+@EnableScheduling
 public class AutoApiApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,200 @@
+package org.duqiu.fly.autoapi.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.duqiu.fly.autoapi.gateway.plan.ApiRequestKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API结果缓存
+ * 按(服务版本, 规范化参数)缓存查询结果，TTL取自服务的cacheDuration。
+ * 底层使用Caffeine(W-TinyLFU)淘汰，受全局字节预算和条目预算约束。
+ */
+@Component
+public class ApiResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiResultCache.class);
+
+    @Value("${app.gateway.result-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${app.gateway.result-cache.max-entries:10000}")
+    private long maxEntries;
+
+    private Cache<ApiRequestKey, CachedResult> cache;
+
+    /**
+     * 每个服务的缓存统计
+     * Key: 服务ID
+     */
+    private final Map<Long, ServiceCacheStats> statistics = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // 条目预算通过最小权重折算到字节预算上：单条权重不低于 maxBytes / maxEntries
+        long minWeight = Math.max(1, maxBytes / Math.max(1, maxEntries));
+
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((ApiRequestKey key, CachedResult value) ->
+                        (int) Math.min(Integer.MAX_VALUE, Math.max(minWeight, value.sizeBytes)))
+                .expireAfter(new Expiry<ApiRequestKey, CachedResult>() {
+                    @Override
+                    public long expireAfterCreate(ApiRequestKey key, CachedResult value, long currentTime) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ApiRequestKey key, CachedResult value,
+                                                  long currentTime, long currentDuration) {
+                        return value.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ApiRequestKey key, CachedResult value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((ApiRequestKey key, CachedResult value, RemovalCause cause) -> {
+                    if (key == null) {
+                        return;
+                    }
+                    if (cause == RemovalCause.EXPIRED) {
+                        stats(key.getServiceId()).expirations.increment();
+                    } else {
+                        stats(key.getServiceId()).evictions.increment();
+                    }
+                })
+                .build();
+
+        logger.info("API result cache initialized: maxBytes={}, maxEntries={}", maxBytes, maxEntries);
+    }
+
+    /**
+     * 读取缓存结果
+     * @return 命中时返回结果，否则返回null
+     */
+    public Map<String, Object> get(ApiExecutionPlan plan, Map<String, Object> params) {
+        CachedResult cached = cache.getIfPresent(new ApiRequestKey(plan, params));
+        ServiceCacheStats serviceStats = stats(plan.getServiceId());
+        if (cached == null) {
+            serviceStats.misses.increment();
+            return null;
+        }
+        serviceStats.hits.increment();
+        return cached.result;
+    }
+
+    /**
+     * 写入缓存结果
+     */
+    public void put(ApiExecutionPlan plan, Map<String, Object> params, Map<String, Object> result) {
+        long ttlNanos = TimeUnit.SECONDS.toNanos(plan.getCacheDurationSeconds());
+        Map<String, Object> immutableResult = ReadOnlyResult.of(result);
+        cache.put(new ApiRequestKey(plan, params),
+                  new CachedResult(immutableResult, estimateSize(immutableResult), ttlNanos));
+    }
+
+    /**
+     * 失效指定服务的全部缓存
+     */
+    public void invalidateService(Long serviceId) {
+        cache.asMap().keySet().removeIf(key -> key.getServiceId().equals(serviceId));
+    }
+
+    /**
+     * 获取各服务的缓存统计
+     */
+    public Map<Long, Map<String, Long>> getStatistics() {
+        Map<Long, Map<String, Long>> result = new HashMap<>();
+        statistics.forEach((serviceId, stats) -> {
+            Map<String, Long> serviceStats = new HashMap<>();
+            serviceStats.put("hits", stats.hits.sum());
+            serviceStats.put("misses", stats.misses.sum());
+            serviceStats.put("evictions", stats.evictions.sum());
+            serviceStats.put("expirations", stats.expirations.sum());
+            result.put(serviceId, serviceStats);
+        });
+        return result;
+    }
+
+    /**
+     * 获取当前缓存条目数
+     */
+    public long getEstimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private ServiceCacheStats stats(Long serviceId) {
+        return statistics.computeIfAbsent(serviceId, id -> new ServiceCacheStats());
+    }
+
+    /**
+     * 粗略估算结果占用的字节数
+     */
+    static long estimateSize(Object value) {
+        if (value == null) {
+            return 8;
+        }
+        if (value instanceof CharSequence text) {
+            return 40 + 2L * text.length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 64;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += 32 + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+            }
+            return size;
+        }
+        if (value instanceof List<?> list && ColumnarRowSet.unwrap(list) != null) {
+            return ColumnarRowSet.unwrap(list).estimateBytes();
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 40;
+            for (Object element : collection) {
+                size += 8 + estimateSize(element);
+            }
+            return size;
+        }
+        if (value instanceof byte[] bytes) {
+            return 16 + bytes.length;
+        }
+        return 24;
+    }
+
+    private static final class CachedResult {
+        private final Map<String, Object> result;
+        private final long sizeBytes;
+        private final long ttlNanos;
+
+        CachedResult(Map<String, Object> result, long sizeBytes, long ttlNanos) {
+            this.result = result;
+            this.sizeBytes = sizeBytes;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class ServiceCacheStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+    }
+}
@@ -0,0 +1,87 @@
+package org.duqiu.fly.autoapi.gateway.cache;
+
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 只读查询结果
+ * 结果在请求合并的等待方和缓存读取方之间共享；值允许为null（如最后一页的nextCursor），不能使用 Map.copyOf。
+ * data 列表和其中的行同样只读，列式结果的视图本身只读，直接共享
+ */
+public final class ReadOnlyResult {
+
+    private ReadOnlyResult() {
+    }
+
+    /**
+     * 复制为不可修改的结果
+     */
+    public static Map<String, Object> of(Map<String, Object> result) {
+        Map<String, Object> copy = new HashMap<>(result);
+        if (copy.get("data") instanceof List<?> rows) {
+            copy.put("data", readOnlyRows(rows));
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    static List<?> readOnlyRows(List<?> rows) {
+        if (rows instanceof ReadOnlyRows || ColumnarRowSet.unwrap(rows) != null) {
+            return rows;
+        }
+        return new ReadOnlyRows(rows);
+    }
+
+    private static Object readOnlyRow(Object row) {
+        if (row instanceof Map<?, ?> map) {
+            return Collections.unmodifiableMap(map);
+        }
+        return row;
+    }
+
+    /**
+     * 行列表只读视图，访问时包装单行，不复制数据
+     */
+    private static final class ReadOnlyRows extends AbstractList<Object> implements RandomAccess {
+        private final List<?> rows;
+
+        ReadOnlyRows(List<?> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public Object get(int index) {
+            return readOnlyRow(rows.get(index));
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+
+        /**
+         * 按底层列表的迭代器顺序读取，溢出到文件的结果顺序解码而不是逐行定位
+         */
+        @Override
+        public Iterator<Object> iterator() {
+            Iterator<?> iterator = rows.iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Object next() {
+                    return readOnlyRow(iterator.next());
+                }
+            };
+        }
+    }
+}
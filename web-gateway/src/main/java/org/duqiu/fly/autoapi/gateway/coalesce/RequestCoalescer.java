@@ -0,0 +1,114 @@
+package org.duqiu.fly.autoapi.gateway.coalesce;
+
+import org.duqiu.fly.autoapi.gateway.cache.ReadOnlyResult;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.duqiu.fly.autoapi.gateway.plan.ApiRequestKey;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 请求合并(single-flight)
+ * 相同请求键的并发调用只有第一个真正执行查询，其余调用等待并共享同一个结果；
+ * 查询结束后立即移除，不缓存结果
+ */
+@Component
+public class RequestCoalescer {
+
+    /**
+     * 执行中的请求
+     * Key: 请求键
+     */
+    private final Map<ApiRequestKey, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Key: 服务ID
+     */
+    private final Map<Long, ServiceCoalescingStats> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * 执行请求，服务关闭请求合并时直接执行
+     * @param plan 执行计划
+     * @param params 请求参数
+     * @param loader 实际执行查询的逻辑
+     * @return 查询结果（只读）
+     */
+    public Map<String, Object> execute(ApiExecutionPlan plan, Map<String, Object> params,
+                                       Supplier<Map<String, Object>> loader) {
+        if (!plan.isCoalescingEnabled()) {
+            return loader.get();
+        }
+
+        ServiceCoalescingStats stats = stats(plan.getServiceId());
+        stats.requests.increment();
+
+        ApiRequestKey key = new ApiRequestKey(plan, params);
+        CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            stats.coalesced.increment();
+            return await(existing);
+        }
+
+        try {
+            Map<String, Object> result = ReadOnlyResult.of(loader.get());
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private Map<String, Object> await(CompletableFuture<Map<String, Object>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 当前执行中的请求数
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * 获取各服务的请求合并统计，coalescingRatio 为被合并的请求占比
+     */
+    public Map<Long, Map<String, Object>> getStatistics() {
+        Map<Long, Map<String, Object>> result = new HashMap<>();
+        statistics.forEach((serviceId, stats) -> {
+            long requests = stats.requests.sum();
+            long coalesced = stats.coalesced.sum();
+            Map<String, Object> serviceStats = new HashMap<>();
+            serviceStats.put("requests", requests);
+            serviceStats.put("coalesced", coalesced);
+            serviceStats.put("coalescingRatio", requests > 0 ? (double) coalesced / requests : 0.0);
+            result.put(serviceId, serviceStats);
+        });
+        return result;
+    }
+
+    private ServiceCoalescingStats stats(Long serviceId) {
+        return statistics.computeIfAbsent(serviceId, id -> new ServiceCoalescingStats());
+    }
+
+    private static final class ServiceCoalescingStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+}
@@ -0,0 +1,55 @@
+package org.duqiu.fly.autoapi.gateway.controller;
+
+import org.duqiu.fly.autoapi.common.dto.Result;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQuery;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQueryRegistry;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 活跃查询管理
+ * 查看正在占用后端连接的执行，并可取消指定执行
+ */
+@RestController
+@RequestMapping("/api/gateway/queries")
+public class ActiveQueryController {
+
+    private final ActiveQueryRegistry activeQueryRegistry;
+
+    public ActiveQueryController(ActiveQueryRegistry activeQueryRegistry) {
+        this.activeQueryRegistry = activeQueryRegistry;
+    }
+
+    /**
+     * 按执行时长从长到短列出活跃查询
+     */
+    @GetMapping
+    public Result<List<ActiveQuery>> getActiveQueries() {
+        return Result.success(activeQueryRegistry.getActiveQueries());
+    }
+
+    @GetMapping("/{id}")
+    public Result<ActiveQuery> getActiveQuery(@PathVariable long id) {
+        ActiveQuery query = activeQueryRegistry.getActiveQuery(id);
+        if (query == null) {
+            return Result.error("执行不存在或已结束: " + id, "404");
+        }
+        return Result.success(query);
+    }
+
+    /**
+     * 取消指定执行
+     */
+    @PostMapping("/{id}/cancel")
+    public Result<Void> cancel(@PathVariable long id) {
+        if (!activeQueryRegistry.cancel(id)) {
+            return Result.error("执行不存在或已结束: " + id, "404");
+        }
+        return Result.success(null);
+    }
+}
@@ -0,0 +1,128 @@
+package org.duqiu.fly.autoapi.gateway.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.duqiu.fly.autoapi.common.dto.Result;
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceBusyException;
+import org.duqiu.fly.autoapi.gateway.ratelimit.RateLimitExceededException;
+import org.duqiu.fly.autoapi.gateway.route.RouteMatch;
+import org.duqiu.fly.autoapi.gateway.service.ApiRequestDispatcher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 动态API数据面入口
+ * 将 /api/dynamic/** 下的请求按 method + path 分发到已发布的API服务
+ */
+@RestController
+@RequestMapping(DynamicApiController.DYNAMIC_API_PREFIX)
+public class DynamicApiController {
+
+    static final String DYNAMIC_API_PREFIX = "/api/dynamic";
+
+    /**
+     * 保留查询参数：为true时以流式JSON返回结果，不参与SQL参数绑定
+     */
+    static final String STREAM_PARAMETER = "_stream";
+
+    private final ApiRequestDispatcher requestDispatcher;
+
+    public DynamicApiController(ApiRequestDispatcher requestDispatcher) {
+        this.requestDispatcher = requestDispatcher;
+    }
+
+    @RequestMapping("/**")
+    public ResponseEntity<?> handle(
+            HttpServletRequest request,
+            @RequestBody(required = false) Map<String, Object> body) {
+        String path = extractServicePath(request);
+        RouteMatch match = requestDispatcher.resolve(request.getMethod(), path);
+        if (match == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Result.error("API不存在或未发布: " + path, "404"));
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            if (values.length > 0) {
+                params.put(name, values.length == 1 ? values[0] : String.join(",", values));
+            }
+        });
+        if (body != null) {
+            params.putAll(body);
+        }
+        // 路径变量优先于同名的查询参数和请求体字段；按原始路径分段匹配后再逐段解码，编码的 / 不会拆分路径段
+        try {
+            match.getPathVariables().forEach((name, segment) ->
+                    params.put(name, UriUtils.decode(segment, StandardCharsets.UTF_8)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(Result.error("路径变量编码无效: " + path, "400"));
+        }
+        ApiServiceInfo service = match.getService();
+        boolean stream = Boolean.parseBoolean(String.valueOf(params.remove(STREAM_PARAMETER)));
+
+        try {
+            if (stream) {
+                QueryCancellation cancellation = new QueryCancellation();
+                registerCancellation(request, cancellation);
+                return ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(requestDispatcher.stream(service, params, cancellation));
+            }
+            return ResponseEntity.ok(Result.success(requestDispatcher.dispatch(service, params)));
+        } catch (RateLimitExceededException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(Result.error(e.getMessage(), "429"));
+        } catch (DataSourceBusyException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Result.error(e.getMessage(), "503"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Result.error("API执行失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 异步请求超时或出错（如客户端断开）时取消后端查询，使连接尽快归还连接池
+     */
+    private void registerCancellation(HttpServletRequest request, QueryCancellation cancellation) {
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(
+                QueryCancellation.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> Object handleTimeout(NativeWebRequest webRequest, Callable<T> task) {
+                        cancellation.cancel();
+                        return RESULT_NONE;
+                    }
+
+                    @Override
+                    public <T> Object handleError(NativeWebRequest webRequest, Callable<T> task, Throwable t) {
+                        cancellation.cancel();
+                        return RESULT_NONE;
+                    }
+                });
+    }
+
+    private String extractServicePath(HttpServletRequest request) {
+        String uri = request.getRequestURI().substring(request.getContextPath().length());
+        String path = uri.substring(DYNAMIC_API_PREFIX.length());
+        return path.isEmpty() ? "/" : path;
+    }
+}
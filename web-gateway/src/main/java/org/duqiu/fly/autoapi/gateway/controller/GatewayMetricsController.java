@@ -0,0 +1,100 @@
+package org.duqiu.fly.autoapi.gateway.controller;
+
+import org.duqiu.fly.autoapi.common.dto.Result;
+import org.duqiu.fly.autoapi.gateway.cache.ApiResultCache;
+import org.duqiu.fly.autoapi.gateway.coalesce.RequestCoalescer;
+import org.duqiu.fly.autoapi.gateway.diagnostics.VirtualThreadPinningMonitor;
+import org.duqiu.fly.autoapi.gateway.pool.AdaptivePoolSizer;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQueryRegistry;
+import org.duqiu.fly.autoapi.gateway.ratelimit.ApiRateLimiter;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.route.RouteTable;
+import org.duqiu.fly.autoapi.gateway.service.ApiServiceDiscoveryService;
+import org.duqiu.fly.autoapi.gateway.service.DataSourceConnectionPoolService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关数据面运行指标
+ */
+@RestController
+@RequestMapping("/api/gateway/metrics")
+public class GatewayMetricsController {
+
+    private final ApiResultCache resultCache;
+    private final RequestCoalescer requestCoalescer;
+    private final ApiRateLimiter rateLimiter;
+    private final DataSourceConcurrencyLimiter concurrencyLimiter;
+    private final DataSourceConnectionPoolService connectionPoolService;
+    private final VirtualThreadPinningMonitor pinningMonitor;
+    private final ApiServiceDiscoveryService discoveryService;
+    private final ActiveQueryRegistry activeQueryRegistry;
+    private final AdaptivePoolSizer poolSizer;
+
+    public GatewayMetricsController(ApiResultCache resultCache,
+                                    RequestCoalescer requestCoalescer,
+                                    ApiRateLimiter rateLimiter,
+                                    DataSourceConcurrencyLimiter concurrencyLimiter,
+                                    DataSourceConnectionPoolService connectionPoolService,
+                                    VirtualThreadPinningMonitor pinningMonitor,
+                                    ApiServiceDiscoveryService discoveryService,
+                                    ActiveQueryRegistry activeQueryRegistry,
+                                    AdaptivePoolSizer poolSizer) {
+        this.resultCache = resultCache;
+        this.requestCoalescer = requestCoalescer;
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.connectionPoolService = connectionPoolService;
+        this.pinningMonitor = pinningMonitor;
+        this.discoveryService = discoveryService;
+        this.activeQueryRegistry = activeQueryRegistry;
+        this.poolSizer = poolSizer;
+    }
+
+    @GetMapping
+    public Result<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+
+        RouteTable table = discoveryService.getRouteTable();
+        Map<String, Object> routes = new LinkedHashMap<>();
+        routes.put("version", table.getVersion());
+        routes.put("services", table.size());
+        routes.put("publishedAt", table.getPublishedAt());
+        metrics.put("routeTable", routes);
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("entries", resultCache.getEstimatedSize());
+        cache.put("services", resultCache.getStatistics());
+        metrics.put("resultCache", cache);
+
+        Map<String, Object> coalescing = new LinkedHashMap<>();
+        coalescing.put("inFlight", requestCoalescer.getInFlightCount());
+        coalescing.put("services", requestCoalescer.getStatistics());
+        metrics.put("coalescing", coalescing);
+
+        metrics.put("rateLimitRejected", rateLimiter.getRejectedStatistics());
+        metrics.put("dataSourceConcurrency", concurrencyLimiter.getStatistics());
+        metrics.put("connectionPools", connectionPoolService.getPoolMetrics());
+
+        Map<String, Object> poolSizing = new LinkedHashMap<>();
+        poolSizing.put("adaptive", poolSizer.isEnabled());
+        poolSizing.put("resizes", poolSizer.getResizeCount());
+        metrics.put("poolSizing", poolSizing);
+
+        Map<String, Object> activeQueries = new LinkedHashMap<>();
+        activeQueries.put("active", activeQueryRegistry.getActiveCount());
+        activeQueries.put("cancelled", activeQueryRegistry.getCancelledCount());
+        metrics.put("activeQueries", activeQueries);
+
+        Map<String, Object> virtualThreads = new LinkedHashMap<>();
+        virtualThreads.put("pinningMonitorRunning", pinningMonitor.isRunning());
+        virtualThreads.put("pinnedEvents", pinningMonitor.getPinnedEventCount());
+        metrics.put("virtualThreads", virtualThreads);
+
+        return Result.success(metrics);
+    }
+}
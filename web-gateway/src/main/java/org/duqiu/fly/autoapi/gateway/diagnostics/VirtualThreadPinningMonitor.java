@@ -0,0 +1,102 @@
+package org.duqiu.fly.autoapi.gateway.diagnostics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程钉住(pinning)诊断
+ * 订阅JFR的 jdk.VirtualThreadPinned 事件，记录在 synchronized 或本地方法内阻塞的位置
+ */
+@Component
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * 日志中输出的栈帧数
+     */
+    private static final int MAX_LOGGED_FRAMES = 8;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${app.gateway.virtual-threads.pinning-monitor.enabled:true}")
+    private boolean monitorEnabled;
+
+    @Value("${app.gateway.virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final LongAdder pinnedEvents = new LongAdder();
+
+    private RecordingStream recordingStream;
+
+    @PostConstruct
+    public void start() {
+        if (!virtualThreadsEnabled || !monitorEnabled) {
+            return;
+        }
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(thresholdMs))
+                    .withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+            logger.info("Virtual thread pinning monitor started, threshold: {}ms", thresholdMs);
+        } catch (Exception e) {
+            // JFR不可用时（如部分精简JRE）仅关闭诊断，不影响服务
+            logger.warn("Failed to start virtual thread pinning monitor: {}", e.getMessage());
+            recordingStream = null;
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        StringBuilder frames = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            List<RecordedFrame> stackFrames = event.getStackTrace().getFrames();
+            for (int i = 0; i < Math.min(MAX_LOGGED_FRAMES, stackFrames.size()); i++) {
+                RecordedFrame frame = stackFrames.get(i);
+                frames.append("\n\tat ")
+                      .append(frame.getMethod().getType().getName())
+                      .append('.')
+                      .append(frame.getMethod().getName())
+                      .append(':')
+                      .append(frame.getLineNumber());
+            }
+        }
+        logger.warn("Virtual thread pinned for {}ms{}", event.getDuration().toMillis(), frames);
+    }
+
+    /**
+     * 累计钉住事件数
+     */
+    public long getPinnedEventCount() {
+        return pinnedEvents.sum();
+    }
+
+    public boolean isRunning() {
+        return recordingStream != null;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recordingStream != null) {
+            recordingStream.close();
+            recordingStream = null;
+        }
+    }
+}
@@ -51,6 +51,11 @@ public class ApiServiceInfo {
      */
     private Long dataSourceId;
     
+    /**
+     * 所属租户ID
+     */
+    private Long tenantId;
+    
     /**
      * 数据源配置信息
      */
@@ -78,6 +83,56 @@ public class ApiServiceInfo {
      */
     private String description;
     
+    /**
+     * 是否启用结果缓存
+     */
+    private Boolean cacheEnabled;
+    
+    /**
+     * 缓存时长(秒)
+     */
+    private Integer cacheDuration;
+    
+    /**
+     * 限流阈值(每分钟请求数)
+     */
+    private Integer rateLimit;
+    
+    /**
+     * 是否合并并发的相同请求
+     */
+    private Boolean coalescingEnabled;
+    
+    /**
+     * 查询超时秒数，0表示不限制
+     */
+    private Integer queryTimeout;
+    
+    /**
+     * 结果行数上限，0或null表示使用网关默认值
+     */
+    private Integer maxResultRows;
+    
+    /**
+     * 结果大小上限字节数，0或null表示使用网关默认值
+     */
+    private Long maxResultBytes;
+    
+    /**
+     * 是否启用键集分页
+     */
+    private Boolean paginationEnabled;
+    
+    /**
+     * 分页键（表名.列名）
+     */
+    private String paginationKey;
+    
+    /**
+     * 默认每页行数
+     */
+    private Integer pageSize;
+    
     public ApiServiceInfo() {}
     
     public ApiServiceInfo(Long serviceId, String serviceName, String servicePath, 
@@ -158,6 +213,14 @@ public class ApiServiceInfo {
         this.dataSourceId = dataSourceId;
     }
     
+    public Long getTenantId() {
+        return tenantId;
+    }
+    
+    public void setTenantId(Long tenantId) {
+        this.tenantId = tenantId;
+    }
+    
     public Map<String, Object> getDataSourceConfig() {
         return dataSourceConfig;
     }
@@ -198,6 +261,86 @@ public class ApiServiceInfo {
         this.description = description;
     }
     
+    public Boolean getCacheEnabled() {
+        return cacheEnabled;
+    }
+    
+    public void setCacheEnabled(Boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+    
+    public Integer getCacheDuration() {
+        return cacheDuration;
+    }
+    
+    public void setCacheDuration(Integer cacheDuration) {
+        this.cacheDuration = cacheDuration;
+    }
+    
+    public Integer getRateLimit() {
+        return rateLimit;
+    }
+    
+    public void setRateLimit(Integer rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+    
+    public Boolean getCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+    
+    public void setCoalescingEnabled(Boolean coalescingEnabled) {
+        this.coalescingEnabled = coalescingEnabled;
+    }
+    
+    public Integer getQueryTimeout() {
+        return queryTimeout;
+    }
+    
+    public void setQueryTimeout(Integer queryTimeout) {
+        this.queryTimeout = queryTimeout;
+    }
+    
+    public Integer getMaxResultRows() {
+        return maxResultRows;
+    }
+    
+    public void setMaxResultRows(Integer maxResultRows) {
+        this.maxResultRows = maxResultRows;
+    }
+    
+    public Long getMaxResultBytes() {
+        return maxResultBytes;
+    }
+    
+    public void setMaxResultBytes(Long maxResultBytes) {
+        this.maxResultBytes = maxResultBytes;
+    }
+    
+    public Boolean getPaginationEnabled() {
+        return paginationEnabled;
+    }
+    
+    public void setPaginationEnabled(Boolean paginationEnabled) {
+        this.paginationEnabled = paginationEnabled;
+    }
+    
+    public String getPaginationKey() {
+        return paginationKey;
+    }
+    
+    public void setPaginationKey(String paginationKey) {
+        this.paginationKey = paginationKey;
+    }
+    
+    public Integer getPageSize() {
+        return pageSize;
+    }
+    
+    public void setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+    }
+    
     /**
      * 生成服务唯一标识键
      */
@@ -0,0 +1,259 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API执行计划
+ * 在服务发现/发布时为活跃版本构建一次，构建后不可变，请求路径只读取不再推导
+ */
+public final class ApiExecutionPlan {
+
+    /**
+     * 未配置查询超时时使用的秒数
+     */
+    public static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+
+    private final Long serviceId;
+    private final String serviceKey;
+    private final String httpMethod;
+    private final String servicePath;
+    private final String version;
+    private final String sqlContent;
+
+    /**
+     * 编译后的命名参数SQL，JDBC数据源按名称绑定，非JDBC数据源按同一参数布局生成文本SQL
+     */
+    private final NamedParameterSql compiledSql;
+
+    /**
+     * 按出现顺序排列的参数名
+     */
+    private final List<String> parameterNames;
+
+    /**
+     * SQL指纹：规范化语句文本的摘要，同一服务各次执行相同，用于排查时归并
+     */
+    private final String sqlFingerprint;
+
+    private final Long tenantId;
+    private final Long dataSourceId;
+    private final DataSource dataSource;
+
+    /**
+     * 连接池句柄，非JDBC数据源为null
+     */
+    private final ConnectionPool connectionPool;
+
+    private final boolean cacheEnabled;
+    private final int cacheDurationSeconds;
+    private final int rateLimit;
+    private final boolean coalescingEnabled;
+
+    /**
+     * 查询超时秒数，0表示不限制
+     */
+    private final int queryTimeoutSeconds;
+
+    /**
+     * 服务配置的结果行数与大小上限，0表示使用网关默认值
+     */
+    private final int maxResultRows;
+    private final long maxResultBytes;
+
+    /**
+     * 键集分页计划，未启用分页时为null
+     */
+    private final KeysetPagination pagination;
+    private final LocalDateTime compiledAt;
+
+    private ApiExecutionPlan(ApiServiceInfo service, DataSource dataSource, ConnectionPool connectionPool) {
+        this.serviceId = service.getServiceId();
+        this.serviceKey = service.getServiceKey();
+        this.httpMethod = service.getHttpMethod();
+        this.servicePath = service.getServicePath();
+        this.version = service.getVersion();
+        this.sqlContent = service.getSqlContent();
+        this.tenantId = service.getTenantId();
+        this.dataSourceId = service.getDataSourceId();
+        this.dataSource = dataSource;
+        this.connectionPool = connectionPool;
+        this.cacheEnabled = Boolean.TRUE.equals(service.getCacheEnabled());
+        this.cacheDurationSeconds = service.getCacheDuration() != null ? service.getCacheDuration() : 0;
+        this.rateLimit = service.getRateLimit() != null ? service.getRateLimit() : 0;
+        // 未配置时默认开启，只有显式关闭才逐个执行
+        this.coalescingEnabled = !Boolean.FALSE.equals(service.getCoalescingEnabled());
+        this.queryTimeoutSeconds = service.getQueryTimeout() != null
+                ? Math.max(0, service.getQueryTimeout()) : DEFAULT_QUERY_TIMEOUT_SECONDS;
+        this.maxResultRows = service.getMaxResultRows() != null ? Math.max(0, service.getMaxResultRows()) : 0;
+        this.maxResultBytes = service.getMaxResultBytes() != null ? Math.max(0, service.getMaxResultBytes()) : 0;
+        this.pagination = KeysetPagination.compile(service, dataSource);
+        this.compiledAt = LocalDateTime.now();
+        this.compiledSql = NamedParameterSql.compile(sqlContent, dataSource != null ? dataSource.getType() : null);
+        this.sqlFingerprint = fingerprint(compiledSql.getSql());
+        this.parameterNames = compiledSql.getParameterNames();
+    }
+
+    /**
+     * 编译执行计划
+     * @param service API服务信息
+     * @param dataSource 已解析的数据源
+     * @param connectionPool 数据源连接池，可为null
+     */
+    public static ApiExecutionPlan compile(ApiServiceInfo service, DataSource dataSource, ConnectionPool connectionPool) {
+        if (service.getSqlContent() == null) {
+            throw new IllegalArgumentException("SQL内容不能为空: " + service.getServiceKey());
+        }
+        return new ApiExecutionPlan(service, dataSource, connectionPool);
+    }
+
+    /**
+     * 按参数布局生成文本SQL，缺失的参数替换为NULL，供不支持参数绑定的数据源使用
+     */
+    public String render(Map<String, Object> params) {
+        return compiledSql.render(params);
+    }
+
+    /**
+     * 路由上线前在预热连接上预编译的语句：服务SQL，启用分页时还包括首页与续页语句
+     * 非JDBC数据源没有可预编译的语句
+     */
+    public List<String> getWarmUpStatements() {
+        if (connectionPool == null) {
+            return List.of();
+        }
+        if (pagination == null) {
+            return List.of(compiledSql.getSql());
+        }
+        return List.of(compiledSql.getSql(), pagination.getSql(null).getSql(), pagination.getSql(1L).getSql());
+    }
+
+    /**
+     * 压缩空白后取SHA-256前8字节
+     */
+    private static String fingerprint(String sql) {
+        String normalized = sql.trim().replaceAll("\\s+", " ");
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    public boolean isCacheable() {
+        return cacheEnabled && cacheDurationSeconds > 0;
+    }
+
+    public boolean isRateLimited() {
+        return rateLimit > 0;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceKey() {
+        return serviceKey;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public String getServicePath() {
+        return servicePath;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getSqlContent() {
+        return sqlContent;
+    }
+
+    public NamedParameterSql getCompiledSql() {
+        return compiledSql;
+    }
+
+    public List<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    public String getSqlFingerprint() {
+        return sqlFingerprint;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public Long getDataSourceId() {
+        return dataSourceId;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    public int getCacheDurationSeconds() {
+        return cacheDurationSeconds;
+    }
+
+    public int getRateLimit() {
+        return rateLimit;
+    }
+
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+
+    public int getQueryTimeoutSeconds() {
+        return queryTimeoutSeconds;
+    }
+
+    public int getMaxResultRows() {
+        return maxResultRows;
+    }
+
+    public long getMaxResultBytes() {
+        return maxResultBytes;
+    }
+
+    public KeysetPagination getPagination() {
+        return pagination;
+    }
+
+    public LocalDateTime getCompiledAt() {
+        return compiledAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ApiExecutionPlan{" +
+                "serviceKey='" + serviceKey + '\'' +
+                ", dataSourceId=" + dataSourceId +
+                ", parameters=" + parameterNames +
+                ", compiledAt=" + compiledAt +
+                '}';
+    }
+}
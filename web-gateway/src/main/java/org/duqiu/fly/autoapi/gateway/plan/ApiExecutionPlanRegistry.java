@@ -0,0 +1,183 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.event.DataSourceChangedEvent;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.service.DataSourceConnectionPoolService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * API执行计划注册表
+ * 每个服务只安装活跃版本的执行计划，版本切换时整体替换
+ */
+@Component
+public class ApiExecutionPlanRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiExecutionPlanRegistry.class);
+
+    @Autowired
+    private DataSourceConnectionPoolService connectionPoolService;
+
+    @Autowired
+    private DataSourceConcurrencyLimiter concurrencyLimiter;
+
+    /**
+     * Key: 服务ID
+     * Value: 活跃版本的执行计划
+     */
+    private final Map<Long, ApiExecutionPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Key: 服务ID
+     * Value: 与活跃版本不同的执行计划，供版本切换前后仍按另一版本路由的请求复用，每个服务最多一个
+     */
+    private final Map<Long, ApiExecutionPlan> offVersionPlans = new ConcurrentHashMap<>();
+
+    /**
+     * 编译并安装执行计划，替换该服务原有的计划
+     * @param service API服务信息
+     * @return 新的执行计划
+     */
+    public ApiExecutionPlan install(ApiServiceInfo service) {
+        return install(compile(service));
+    }
+
+    /**
+     * 编译执行计划但不安装，供路由发布前预热
+     * @param service API服务信息
+     * @return 执行计划
+     */
+    public ApiExecutionPlan compile(ApiServiceInfo service) {
+        DataSource dataSource = connectionPoolService.resolveDataSource(service.getDataSourceId());
+        if (dataSource == null) {
+            throw new IllegalStateException("数据源不可用: " + service.getDataSourceId());
+        }
+        return ApiExecutionPlan.compile(
+            service, dataSource, connectionPoolService.getConnectionPool(service.getDataSourceId()));
+    }
+
+    /**
+     * 安装已编译的执行计划，替换该服务原有的计划
+     * @param plan 执行计划
+     * @return 安装的执行计划
+     */
+    public ApiExecutionPlan install(ApiExecutionPlan plan) {
+        ApiExecutionPlan previous = plans.put(plan.getServiceId(), plan);
+
+        if (previous != null && !Objects.equals(previous.getVersion(), plan.getVersion())) {
+            // 路由表替换前的请求仍按旧版本执行，直接复用被替换的计划
+            offVersionPlans.put(plan.getServiceId(), previous);
+            logger.info("Execution plan for service {} switched from version {} to {}",
+                       plan.getServiceId(), previous.getVersion(), plan.getVersion());
+        } else {
+            logger.debug("Installed execution plan: {}", plan);
+        }
+        return plan;
+    }
+
+    /**
+     * 服务尚无执行计划时安装，已有计划（如预热期间首个请求已编译或新版本已发布）时保留
+     * @param plan 执行计划
+     */
+    public void installIfAbsent(ApiExecutionPlan plan) {
+        plans.putIfAbsent(plan.getServiceId(), plan);
+    }
+
+    /**
+     * 下线指定版本的执行计划，若已被新版本替换则不做处理
+     * @param serviceId 服务ID
+     * @param version 版本号
+     */
+    public void retire(Long serviceId, String version) {
+        plans.computeIfPresent(serviceId,
+            (id, plan) -> Objects.equals(plan.getVersion(), version) ? null : plan);
+        offVersionPlans.computeIfPresent(serviceId,
+            (id, plan) -> Objects.equals(plan.getVersion(), version) ? null : plan);
+    }
+
+    /**
+     * 获取服务当前版本的执行计划，缺失时编译并安装
+     * 已安装的计划始终与路由表中的版本一致；版本不一致说明请求仍按切换前的路由执行，
+     * 使用另行保存的该版本计划，不替换已安装的计划，避免版本切换时计划来回替换。
+     * 同一服务版本只编译一次，并发请求等待同一次编译的结果
+     * @param service API服务信息
+     * @return 执行计划
+     */
+    public ApiExecutionPlan getPlan(ApiServiceInfo service) {
+        ApiExecutionPlan plan = plans.get(service.getServiceId());
+        if (plan == null) {
+            plan = plans.computeIfAbsent(service.getServiceId(), id -> {
+                ApiExecutionPlan compiled = compile(service);
+                logger.debug("Installed execution plan: {}", compiled);
+                return compiled;
+            });
+        }
+        if (Objects.equals(plan.getVersion(), service.getVersion())) {
+            return plan;
+        }
+        return offVersionPlans.compute(service.getServiceId(),
+            (id, existing) -> existing != null && Objects.equals(existing.getVersion(), service.getVersion())
+                ? existing : compile(service));
+    }
+
+    /**
+     * 数据源配置变更的事务提交后刷新数据源缓存，丢弃引用该数据源的执行计划，下次请求按新配置编译；
+     * 并发许可按新的连接池大小重建
+     * 与服务变更一致，刷新交给虚拟线程，管理端请求不等待；发布方不在事务中时同样执行
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        logger.debug("Received {}", event);
+        Thread.ofVirtual().name("datasource-refresh-" + event.getDataSourceId()).start(() -> {
+            try {
+                refreshDataSource(event);
+            } catch (Exception e) {
+                // 不影响管理端请求，下次数据源变更或服务重新发布时再刷新
+                logger.warn("Failed to apply {}: {}", event, e.getMessage());
+            }
+        });
+    }
+
+    private void refreshDataSource(DataSourceChangedEvent event) {
+        if (!connectionPoolService.refreshDataSource(event.getDataSourceId())) {
+            return;
+        }
+        int before = plans.size();
+        plans.values().removeIf(plan -> event.getDataSourceId().equals(plan.getDataSourceId()));
+        offVersionPlans.values().removeIf(plan -> event.getDataSourceId().equals(plan.getDataSourceId()));
+        concurrencyLimiter.remove(event.getDataSourceId());
+        logger.info("Invalidated {} execution plans after {}", before - plans.size(), event);
+    }
+
+    /**
+     * 服务是否存在执行计划
+     */
+    public boolean hasPlan(Long serviceId) {
+        return plans.containsKey(serviceId);
+    }
+
+    /**
+     * 获取全部执行计划
+     */
+    public List<ApiExecutionPlan> getPlans() {
+        return List.copyOf(plans.values());
+    }
+
+    /**
+     * 获取执行计划数量
+     */
+    public int getPlanCount() {
+        return plans.size();
+    }
+}
@@ -0,0 +1,83 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * API请求键：服务ID + 版本 + 规范化参数
+ * 结果缓存和请求合并共用，两个请求键相等即表示会执行相同的查询
+ */
+public final class ApiRequestKey {
+
+    private final Long serviceId;
+    private final String version;
+    private final Map<String, String> params;
+    private final int hash;
+
+    public ApiRequestKey(ApiExecutionPlan plan, Map<String, Object> rawParams) {
+        this.serviceId = plan.getServiceId();
+        this.version = plan.getVersion();
+        this.params = normalize(rawParams, keyParameterNames(plan));
+        this.hash = Objects.hash(serviceId, version, params);
+    }
+
+    /**
+     * 参与请求键的参数：SQL用到的参数，启用分页时还包括游标和每页行数，不同页各自缓存和合并
+     */
+    private static List<String> keyParameterNames(ApiExecutionPlan plan) {
+        if (plan.getPagination() == null) {
+            return plan.getParameterNames();
+        }
+        List<String> names = new ArrayList<>(plan.getParameterNames());
+        names.add(KeysetPagination.CURSOR_PARAMETER);
+        names.add(KeysetPagination.PAGE_SIZE_PARAMETER);
+        return names;
+    }
+
+    /**
+     * 只保留SQL用到的参数并统一转为字符串，使 1 与 "1" 对应同一个请求键
+     */
+    private static Map<String, String> normalize(Map<String, Object> rawParams, List<String> names) {
+        if (rawParams == null || rawParams.isEmpty() || names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> normalized = new TreeMap<>();
+        for (String name : names) {
+            Object value = rawParams.get(name);
+            if (value != null) {
+                normalized.put(name, String.valueOf(value));
+            }
+        }
+        return normalized;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ApiRequestKey other)) return false;
+        return serviceId.equals(other.serviceId)
+                && Objects.equals(version, other.version)
+                && params.equals(other.params);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return serviceId + ":" + version + params;
+    }
+}
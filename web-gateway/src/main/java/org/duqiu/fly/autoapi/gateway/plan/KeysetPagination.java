@@ -0,0 +1,234 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 键集分页
+ * 将服务SQL包装为按唯一键排序的子查询，续页条件为 键 > 上一页最后一行的键，
+ * 数据库可沿唯一索引直接定位，任意一页的代价与第一页相同；续页位置以不透明游标返回给调用方
+ */
+public final class KeysetPagination {
+
+    /**
+     * 保留请求参数：续页游标
+     */
+    public static final String CURSOR_PARAMETER = "_cursor";
+
+    /**
+     * 保留请求参数：本次请求的每页行数，不超过服务配置
+     */
+    public static final String PAGE_SIZE_PARAMETER = "_pageSize";
+
+    static final String AFTER_PARAMETER = "_keyset_after";
+    static final String LIMIT_PARAMETER = "_keyset_limit";
+
+    private static final String ALIAS = "keyset_page";
+
+    private static final Set<DataSourceType> SUPPORTED_TYPES =
+            EnumSet.of(DataSourceType.MYSQL, DataSourceType.POSTGRESQL, DataSourceType.H2, DataSourceType.ORACLE);
+
+    private final Long serviceId;
+    private final String keyColumn;
+    private final int pageSize;
+
+    /**
+     * 第一页与续页的语句，各自只有一条语句文本
+     */
+    private final NamedParameterSql firstPageSql;
+    private final NamedParameterSql nextPageSql;
+
+    private KeysetPagination(Long serviceId, String keyColumn, int pageSize, String sql, DataSourceType type) {
+        this.serviceId = serviceId;
+        this.keyColumn = keyColumn;
+        this.pageSize = pageSize;
+        boolean oracle = type == DataSourceType.ORACLE;
+        this.firstPageSql = NamedParameterSql.compile(wrap(sql, keyColumn, oracle, false), type);
+        this.nextPageSql = NamedParameterSql.compile(wrap(sql, keyColumn, oracle, true), type);
+    }
+
+    /**
+     * 按服务配置构建分页计划
+     * @return 未启用分页或数据源不支持时返回null
+     */
+    static KeysetPagination compile(ApiServiceInfo service, DataSource dataSource) {
+        if (!Boolean.TRUE.equals(service.getPaginationEnabled()) || service.getPaginationKey() == null
+                || dataSource == null || !SUPPORTED_TYPES.contains(dataSource.getType())) {
+            return null;
+        }
+        String key = service.getPaginationKey().trim();
+        String column = key.substring(key.lastIndexOf('.') + 1);
+        if (!column.matches("\\w+")) {
+            throw new IllegalArgumentException("分页键列名不合法: " + service.getPaginationKey());
+        }
+        int pageSize = service.getPageSize() != null && service.getPageSize() > 0 ? service.getPageSize() : 100;
+        return new KeysetPagination(service.getServiceId(), column, pageSize, service.getSqlContent(),
+                dataSource.getType());
+    }
+
+    static String wrap(String sql, String keyColumn, boolean oracle, boolean continuation) {
+        String inner = sql.trim();
+        while (inner.endsWith(";")) {
+            inner = inner.substring(0, inner.length() - 1).trim();
+        }
+        String key = ALIAS + "." + keyColumn;
+        StringBuilder wrapped = new StringBuilder(inner.length() + 128)
+                .append("SELECT * FROM (").append(inner).append(") ").append(ALIAS);
+        if (continuation) {
+            wrapped.append(" WHERE ").append(key).append(" > ${").append(AFTER_PARAMETER).append('}');
+        }
+        wrapped.append(" ORDER BY ").append(key);
+        if (oracle) {
+            wrapped.append(" FETCH FIRST ${").append(LIMIT_PARAMETER).append("} ROWS ONLY");
+        } else {
+            wrapped.append(" LIMIT ${").append(LIMIT_PARAMETER).append('}');
+        }
+        return wrapped.toString();
+    }
+
+    /**
+     * 解析请求的每页行数，未指定时使用服务配置，超过服务配置时截断
+     */
+    public int resolvePageSize(Object requested) {
+        if (requested == null || String.valueOf(requested).isBlank()) {
+            return pageSize;
+        }
+        int size;
+        try {
+            size = Integer.parseInt(String.valueOf(requested).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("每页行数不合法: " + requested);
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("每页行数必须大于0");
+        }
+        return Math.min(size, pageSize);
+    }
+
+    /**
+     * @param after 上一页最后一行的键，第一页为null
+     */
+    public NamedParameterSql getSql(Object after) {
+        return after == null ? firstPageSql : nextPageSql;
+    }
+
+    /**
+     * 生成绑定参数：多取一行用于判断是否还有下一页
+     */
+    public Map<String, Object> bind(Map<String, Object> params, Object after, int limit) {
+        Map<String, Object> bound = new HashMap<>(params);
+        bound.remove(CURSOR_PARAMETER);
+        bound.remove(PAGE_SIZE_PARAMETER);
+        if (after != null) {
+            bound.put(AFTER_PARAMETER, after);
+        }
+        bound.put(LIMIT_PARAMETER, limit + 1);
+        return bound;
+    }
+
+    /**
+     * 多取的一行存在时返回指向本页最后一行的游标，否则返回null
+     * @param rows 查询结果，最多 limit + 1 行
+     */
+    public String nextCursor(List<Map<String, Object>> rows, int limit) {
+        if (rows.size() <= limit) {
+            return null;
+        }
+        return encodeCursor(keyValue(rows.get(limit - 1)));
+    }
+
+    /**
+     * 游标内容为 服务ID:类型:键值 的Base64URL编码，对调用方不透明
+     */
+    String encodeCursor(Object value) {
+        if (value == null) {
+            throw new IllegalStateException("分页键值为空: " + keyColumn);
+        }
+        Long integral = toLong(value);
+        String payload = serviceId + ":" + (integral != null ? "n:" + integral : "s:" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标，只接受本服务签发的游标
+     * @return 上一页最后一行的键，cursor为空时返回null
+     */
+    public Object decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("分页游标无效");
+        }
+        String[] parts = payload.split(":", 3);
+        if (parts.length != 3 || !parts[0].equals(String.valueOf(serviceId))) {
+            throw new IllegalArgumentException("分页游标无效");
+        }
+        if ("s".equals(parts[1])) {
+            return parts[2];
+        }
+        if ("n".equals(parts[1])) {
+            try {
+                return Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("分页游标无效");
+            }
+        }
+        throw new IllegalArgumentException("分页游标无效");
+    }
+
+    /**
+     * 结果列名的大小写随数据库而定，精确匹配失败时忽略大小写查找
+     */
+    private Object keyValue(Map<String, Object> row) {
+        if (row.containsKey(keyColumn)) {
+            return row.get(keyColumn);
+        }
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(keyColumn)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalStateException("查询结果中不包含分页键列: " + keyColumn);
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger number && number.bitLength() < 64) {
+            return number.longValue();
+        }
+        if (value instanceof BigDecimal number) {
+            try {
+                return number.longValueExact();
+            } catch (ArithmeticException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    public String getKeyColumn() {
+        return keyColumn;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+}
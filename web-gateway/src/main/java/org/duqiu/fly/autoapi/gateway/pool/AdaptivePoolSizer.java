@@ -0,0 +1,158 @@
+package org.duqiu.fly.autoapi.gateway.pool;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.duqiu.fly.autoapi.datasource.jdbc.HikariConnectionPool;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.service.DataSourceConnectionPoolService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池自适应调整
+ * 定期采样业务连接池的活跃、空闲、等待线程数以及借用等待和连接占用时长，
+ * 在配置的范围内通过 HikariConfigMXBean 调整最大连接数；默认关闭
+ */
+@Component
+public class AdaptivePoolSizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdaptivePoolSizer.class);
+
+    @Autowired
+    private DataSourceConnectionPoolService connectionPoolService;
+
+    @Autowired
+    private DataSourceConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${app.gateway.pool.adaptive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.gateway.pool.adaptive.min-size:2}")
+    private int minSize;
+
+    @Value("${app.gateway.pool.adaptive.max-size:50}")
+    private int maxSize;
+
+    @Value("${app.gateway.pool.adaptive.wait-threshold-ms:5}")
+    private double waitThresholdMs;
+
+    @Value("${app.gateway.pool.adaptive.latency-backoff-ratio:2.0}")
+    private double latencyBackoffRatio;
+
+    @Value("${app.gateway.pool.adaptive.idle-samples-before-shrink:6}")
+    private int idleSamplesBeforeShrink;
+
+    private PoolSizingPolicy policy;
+
+    /**
+     * Key: 连接池（按对象标识），配置切换后的旧池在下一次采样时移除
+     */
+    private final Map<HikariConnectionPool, PoolState> states = new ConcurrentHashMap<>();
+
+    private final LongAdder resizeCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            policy = new PoolSizingPolicy(minSize, maxSize, waitThresholdMs, latencyBackoffRatio, idleSamplesBeforeShrink);
+            logger.info("Adaptive pool sizing enabled, bounds: {}-{}", minSize, maxSize);
+        }
+    }
+
+    /**
+     * 按采样周期调整各数据源的连接池
+     */
+    @Scheduled(fixedDelayString = "${app.gateway.pool.adaptive.interval-ms:5000}")
+    public void adjustPools() {
+        if (policy == null) {
+            return;
+        }
+        Map<Long, HikariConnectionPool> pools = connectionPoolService.getHikariConnectionPools();
+        Set<HikariConnectionPool> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        pools.forEach((dataSourceId, pool) -> {
+            // 配置相同的数据源共享连接池，每个池每周期只调整一次
+            if (pool.isRetired() || !visited.add(pool)) {
+                return;
+            }
+            try {
+                adjust(dataSourceId, pool);
+            } catch (Exception e) {
+                logger.warn("Failed to adjust connection pool of datasource {}: {}", dataSourceId, e.getMessage());
+            }
+        });
+        states.keySet().retainAll(visited);
+    }
+
+    private void adjust(Long dataSourceId, HikariConnectionPool pool) {
+        HikariDataSource dataSource = pool.getDataSource();
+        HikariPoolMXBean poolBean = dataSource.getHikariPoolMXBean();
+        if (dataSource.isClosed() || poolBean == null) {
+            return;
+        }
+        HikariConfigMXBean configBean = dataSource.getHikariConfigMXBean();
+
+        HikariConnectionPool.PoolMetrics metrics = pool.getMetrics();
+        PoolState state = states.computeIfAbsent(pool, p -> new PoolState(metrics));
+        HikariConnectionPool.PoolMetrics previous = state.lastMetrics;
+        state.lastMetrics = metrics;
+
+        long borrows = metrics.getBorrowCount() - previous.getBorrowCount();
+        long releases = metrics.getReleaseCount() - previous.getReleaseCount();
+        double averageWaitMs = borrows > 0
+                ? (metrics.getTotalAcquireNanos() - previous.getTotalAcquireNanos()) / 1_000_000.0 / borrows : 0;
+        double averageHoldMs = releases > 0
+                ? (metrics.getTotalHoldNanos() - previous.getTotalHoldNanos()) / 1_000_000.0 / releases : 0;
+
+        PoolSizingPolicy.PoolSample sample = new PoolSizingPolicy.PoolSample(
+                configBean.getMaximumPoolSize(), poolBean.getActiveConnections(), poolBean.getIdleConnections(),
+                poolBean.getThreadsAwaitingConnection(), averageWaitMs, averageHoldMs);
+        int target = policy.decide(sample, state.sizing);
+        if (target == sample.maximumPoolSize()) {
+            return;
+        }
+
+        if (configBean.getMinimumIdle() > target) {
+            configBean.setMinimumIdle(target);
+        }
+        configBean.setMaximumPoolSize(target);
+        // 并发许可按连接池就地调整，共享该池的所有数据源同时生效
+        concurrencyLimiter.resize(pool, target);
+        resizeCount.increment();
+        logger.info("Resized connection pool of datasource {} from {} to {} (active={}, awaiting={}, wait={}ms, hold={}ms)",
+                   dataSourceId, sample.maximumPoolSize(), target, sample.activeConnections(),
+                   sample.threadsAwaiting(), String.format("%.1f", averageWaitMs), String.format("%.1f", averageHoldMs));
+    }
+
+    public boolean isEnabled() {
+        return policy != null;
+    }
+
+    /**
+     * 累计调整次数
+     */
+    public long getResizeCount() {
+        return resizeCount.sum();
+    }
+
+    private static final class PoolState {
+        private final PoolSizingPolicy.State sizing = new PoolSizingPolicy.State();
+        private HikariConnectionPool.PoolMetrics lastMetrics;
+
+        PoolState(HikariConnectionPool.PoolMetrics lastMetrics) {
+            this.lastMetrics = lastMetrics;
+        }
+    }
+}
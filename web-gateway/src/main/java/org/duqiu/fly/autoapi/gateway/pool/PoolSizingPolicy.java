@@ -0,0 +1,116 @@
+package org.duqiu.fly.autoapi.gateway.pool;
+
+/**
+ * 连接池大小调整策略
+ * 有线程等待连接、借用等待变长或使用率高时扩容；连续多个采样周期使用率低时缩容；
+ * 连接占用时长（后端响应时间）明显高于基线时不再扩容并回退一步，避免向已经变慢的后端加压
+ */
+public final class PoolSizingPolicy {
+
+    /**
+     * 使用率达到该比例视为繁忙
+     */
+    static final double HIGH_UTILIZATION = 0.9;
+
+    /**
+     * 使用率低于该比例视为空闲
+     */
+    static final double LOW_UTILIZATION = 0.3;
+
+    private final int minSize;
+    private final int maxSize;
+    private final double waitThresholdMs;
+    private final double latencyBackoffRatio;
+    private final int idleSamplesBeforeShrink;
+
+    /**
+     * @param minSize 连接池最小上限
+     * @param maxSize 连接池最大上限
+     * @param waitThresholdMs 平均借用等待超过该值时扩容
+     * @param latencyBackoffRatio 平均占用时长超过基线的倍数时回退
+     * @param idleSamplesBeforeShrink 连续空闲多少个采样周期后缩容
+     */
+    public PoolSizingPolicy(int minSize, int maxSize, double waitThresholdMs,
+                            double latencyBackoffRatio, int idleSamplesBeforeShrink) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("连接池大小范围无效: " + minSize + "-" + maxSize);
+        }
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.waitThresholdMs = waitThresholdMs;
+        this.latencyBackoffRatio = latencyBackoffRatio;
+        this.idleSamplesBeforeShrink = Math.max(1, idleSamplesBeforeShrink);
+    }
+
+    /**
+     * 根据一次采样计算新的连接池上限，并更新该池的调整状态
+     * @return 新的最大连接数，不变时等于采样时的最大连接数
+     */
+    public int decide(PoolSample sample, State state) {
+        int current = sample.maximumPoolSize();
+        double utilization = current > 0 ? (double) sample.activeConnections() / current : 0;
+        boolean busy = sample.threadsAwaiting() > 0 || utilization >= HIGH_UTILIZATION;
+        boolean latencyRising = state.baselineHoldMs > 0
+                && sample.averageHoldMs() > state.baselineHoldMs * latencyBackoffRatio;
+        int step = Math.max(1, current / 4);
+
+        int target = current;
+        if (latencyRising && busy) {
+            target = current - step;
+            state.idleSamples = 0;
+        } else if (!latencyRising && (busy || sample.averageWaitMs() > waitThresholdMs)) {
+            target = current + Math.max(step, sample.threadsAwaiting());
+            state.idleSamples = 0;
+        } else if (utilization < LOW_UTILIZATION && sample.threadsAwaiting() == 0) {
+            if (++state.idleSamples >= idleSamplesBeforeShrink) {
+                target = current - step;
+                state.idleSamples = 0;
+            }
+        } else {
+            state.idleSamples = 0;
+        }
+
+        updateBaseline(state, sample.averageHoldMs(), latencyRising);
+        return Math.max(minSize, Math.min(maxSize, target));
+    }
+
+    /**
+     * 基线取占用时长的指数移动平均；变慢期间缓慢跟随，持续的新水平最终成为基线，不会无限回退
+     */
+    private void updateBaseline(State state, double holdMs, boolean latencyRising) {
+        if (holdMs <= 0) {
+            return;
+        }
+        if (state.baselineHoldMs == 0) {
+            state.baselineHoldMs = holdMs;
+        } else {
+            double alpha = latencyRising ? 0.05 : 0.2;
+            state.baselineHoldMs += alpha * (holdMs - state.baselineHoldMs);
+        }
+    }
+
+    /**
+     * 一次连接池采样
+     * @param maximumPoolSize 当前最大连接数
+     * @param activeConnections 借出的连接数
+     * @param idleConnections 空闲连接数
+     * @param threadsAwaiting 等待连接的线程数
+     * @param averageWaitMs 采样周期内的平均借用等待
+     * @param averageHoldMs 采样周期内的平均连接占用时长
+     */
+    public record PoolSample(int maximumPoolSize, int activeConnections, int idleConnections,
+                             int threadsAwaiting, double averageWaitMs, double averageHoldMs) {
+    }
+
+    /**
+     * 单个连接池的调整状态
+     */
+    public static final class State {
+        private double baselineHoldMs;
+        private int idleSamples;
+
+        public double getBaselineHoldMs() {
+            return baselineHoldMs;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.duqiu.fly.autoapi.gateway.query;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+
+import java.time.LocalDateTime;
+import java.util.function.LongSupplier;
+
+/**
+ * 正在访问后端的一次执行
+ * 持有连接期间登记在 {@link ActiveQueryRegistry}，关闭时注销
+ */
+public final class ActiveQuery implements AutoCloseable {
+
+    private final long id;
+    private final Long serviceId;
+    private final String serviceKey;
+    private final String version;
+    private final Long tenantId;
+    private final Long dataSourceId;
+    private final String dataSourceName;
+    private final String dataSourceType;
+    private final String sqlFingerprint;
+    private final boolean streaming;
+    private final String threadName;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private final LocalDateTime startedAt;
+
+    private final long startNanos;
+    private final QueryCancellation cancellation;
+    private final ActiveQueryRegistry registry;
+
+    /**
+     * 已输出行数的来源，非流式执行在结果返回前为0
+     */
+    private volatile LongSupplier rowCounter = () -> 0L;
+
+    ActiveQuery(long id, ApiExecutionPlan plan, QueryCancellation cancellation, boolean streaming,
+                ActiveQueryRegistry registry) {
+        this.id = id;
+        this.serviceId = plan.getServiceId();
+        this.serviceKey = plan.getServiceKey();
+        this.version = plan.getVersion();
+        this.tenantId = plan.getTenantId();
+        this.dataSourceId = plan.getDataSourceId();
+        DataSource dataSource = plan.getDataSource();
+        this.dataSourceName = dataSource != null ? dataSource.getName() : null;
+        this.dataSourceType = dataSource != null && dataSource.getType() != null ? dataSource.getType().name() : null;
+        this.sqlFingerprint = plan.getSqlFingerprint();
+        this.streaming = streaming;
+        this.threadName = Thread.currentThread().toString();
+        this.startedAt = LocalDateTime.now();
+        this.startNanos = System.nanoTime();
+        this.cancellation = cancellation;
+        this.registry = registry;
+    }
+
+    /**
+     * 取消执行：JDBC调用 Statement.cancel，MongoDB停止读取游标，HTTP类数据源依赖读超时结束
+     * @return 首次取消返回true
+     */
+    public boolean cancel() {
+        return cancellation.cancel();
+    }
+
+    public void setRowCounter(LongSupplier rowCounter) {
+        this.rowCounter = rowCounter;
+    }
+
+    @Override
+    public void close() {
+        registry.unregister(this);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public String getServiceKey() {
+        return serviceKey;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Long getTenantId() {
+        return tenantId;
+    }
+
+    public Long getDataSourceId() {
+        return dataSourceId;
+    }
+
+    public String getDataSourceName() {
+        return dataSourceName;
+    }
+
+    public String getDataSourceType() {
+        return dataSourceType;
+    }
+
+    public String getSqlFingerprint() {
+        return sqlFingerprint;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public long getElapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public long getRowsStreamed() {
+        return rowCounter.getAsLong();
+    }
+
+    public boolean isCancelled() {
+        return cancellation.isCancelled();
+    }
+
+    @JsonIgnore
+    public QueryCancellation getCancellation() {
+        return cancellation;
+    }
+}
@@ -0,0 +1,88 @@
+package org.duqiu.fly.autoapi.gateway.query;
+
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 活跃查询登记表
+ * 记录正在占用后端连接的执行，供排查时查看是哪个API占住了连接池，并可按ID取消
+ */
+@Component
+public class ActiveQueryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ActiveQueryRegistry.class);
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Key: 执行ID
+     */
+    private final Map<Long, ActiveQuery> queries = new ConcurrentHashMap<>();
+
+    private final LongAdder cancelledCount = new LongAdder();
+
+    /**
+     * 登记一次执行
+     * @param plan 执行计划
+     * @param cancellation 取消句柄，需同时传给查询选项
+     * @param streaming 是否流式执行
+     * @return 登记项，执行结束后关闭
+     */
+    public ActiveQuery register(ApiExecutionPlan plan, QueryCancellation cancellation, boolean streaming) {
+        ActiveQuery query = new ActiveQuery(sequence.incrementAndGet(), plan, cancellation, streaming, this);
+        queries.put(query.getId(), query);
+        return query;
+    }
+
+    void unregister(ActiveQuery query) {
+        queries.remove(query.getId(), query);
+    }
+
+    /**
+     * 按执行时长从长到短列出活跃查询
+     */
+    public List<ActiveQuery> getActiveQueries() {
+        return queries.values().stream()
+            .sorted(Comparator.comparingLong(ActiveQuery::getElapsedMs).reversed())
+            .toList();
+    }
+
+    public ActiveQuery getActiveQuery(long id) {
+        return queries.get(id);
+    }
+
+    /**
+     * 取消指定执行
+     * @return 执行不存在或已结束时返回false
+     */
+    public boolean cancel(long id) {
+        ActiveQuery query = queries.get(id);
+        if (query == null) {
+            return false;
+        }
+        if (query.cancel()) {
+            cancelledCount.increment();
+            logger.warn("Cancelled active query {} of service {} on datasource {} after {} ms",
+                id, query.getServiceKey(), query.getDataSourceId(), query.getElapsedMs());
+        }
+        return true;
+    }
+
+    public int getActiveCount() {
+        return queries.size();
+    }
+
+    public long getCancelledCount() {
+        return cancelledCount.sum();
+    }
+}
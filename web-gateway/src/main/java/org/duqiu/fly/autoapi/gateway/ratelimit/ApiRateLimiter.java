@@ -0,0 +1,101 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+import org.duqiu.fly.autoapi.common.context.TenantContext;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API限流器
+ * 按服务ID（可选再按租户ID）维护令牌桶，阈值取自服务的rateLimit(每分钟请求数)
+ */
+@Component
+public class ApiRateLimiter {
+
+    /**
+     * 是否按租户分别限流
+     */
+    @Value("${app.gateway.rate-limit.per-tenant:false}")
+    private boolean perTenant;
+
+    /**
+     * Key: 服务ID
+     */
+    private final Map<Long, ServiceBuckets> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 获取调用许可，超出阈值时抛出 {@link RateLimitExceededException}
+     * @param plan 执行计划
+     */
+    public void acquire(ApiExecutionPlan plan) {
+        if (!plan.isRateLimited()) {
+            return;
+        }
+
+        ServiceBuckets serviceBuckets = getServiceBuckets(plan);
+        TokenBucket bucket = serviceBuckets.global;
+        if (perTenant) {
+            Long tenantId = TenantContext.getTenantId();
+            if (tenantId != null) {
+                bucket = serviceBuckets.tenantBuckets.computeIfAbsent(tenantId,
+                    id -> newBucket(serviceBuckets.rateLimit));
+            }
+        }
+
+        long waitNanos = bucket.tryAcquire();
+        if (waitNanos > 0) {
+            serviceBuckets.rejected.increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            throw new RateLimitExceededException("请求过于频繁，请稍后重试", retryAfterSeconds);
+        }
+    }
+
+    /**
+     * 移除服务的限流状态
+     */
+    public void remove(Long serviceId) {
+        buckets.remove(serviceId);
+    }
+
+    /**
+     * 获取各服务被拒绝的请求数
+     */
+    public Map<Long, Long> getRejectedStatistics() {
+        Map<Long, Long> statistics = new HashMap<>();
+        buckets.forEach((serviceId, serviceBuckets) -> statistics.put(serviceId, serviceBuckets.rejected.sum()));
+        return statistics;
+    }
+
+    private ServiceBuckets getServiceBuckets(ApiExecutionPlan plan) {
+        int rateLimit = plan.getRateLimit();
+        ServiceBuckets serviceBuckets = buckets.get(plan.getServiceId());
+        if (serviceBuckets != null && serviceBuckets.rateLimit == rateLimit) {
+            return serviceBuckets;
+        }
+        // 阈值变更（新版本发布）时重建令牌桶
+        return buckets.compute(plan.getServiceId(), (id, existing) ->
+            existing != null && existing.rateLimit == rateLimit ? existing : new ServiceBuckets(rateLimit));
+    }
+
+    private static TokenBucket newBucket(int rateLimit) {
+        return new TokenBucket(rateLimit, 1, TimeUnit.MINUTES);
+    }
+
+    private static final class ServiceBuckets {
+        private final int rateLimit;
+        private final TokenBucket global;
+        private final Map<Long, TokenBucket> tenantBuckets = new ConcurrentHashMap<>();
+        private final LongAdder rejected = new LongAdder();
+
+        ServiceBuckets(int rateLimit) {
+            this.rateLimit = rateLimit;
+            this.global = newBucket(rateLimit);
+        }
+    }
+}
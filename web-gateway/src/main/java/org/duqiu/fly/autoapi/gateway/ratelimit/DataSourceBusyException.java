@@ -0,0 +1,11 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+/**
+ * 数据源并发已满，等待超时
+ */
+public class DataSourceBusyException extends RuntimeException {
+
+    public DataSourceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.jdbc.HikariConnectionPool;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 数据源并发限制
+ * 虚拟线程模式下请求线程数不再受限，按后端资源用信号量约束同时访问后端的请求数：
+ * 有连接池的数据源按连接池（配置相同的数据源共享同一个池）限制，取连接池最大连接数；
+ * 其余按数据源限制，取配置的上限
+ */
+@Component
+public class DataSourceConcurrencyLimiter {
+
+    @Value("${app.gateway.datasource.max-concurrency:64}")
+    private int defaultMaxConcurrency;
+
+    @Value("${app.gateway.datasource.acquire-timeout-ms:3000}")
+    private long acquireTimeoutMs;
+
+    /**
+     * Key: 连接池（按对象标识），无连接池的数据源为数据源ID
+     */
+    private final Map<Object, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 数据源最近一次使用的限制键，用于按数据源统计和清理
+     * Key: 数据源ID
+     */
+    private final Map<Long, Object> dataSourceKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 获取数据源访问许可，超时抛出 {@link DataSourceBusyException}
+     * @param plan 执行计划
+     * @return 许可，使用完毕后关闭
+     */
+    public Permit acquire(ApiExecutionPlan plan) {
+        ConnectionPool connectionPool = activePool(plan.getConnectionPool());
+        Object key = connectionPool != null ? connectionPool : plan.getDataSourceId();
+        if (!Objects.equals(dataSourceKeys.get(plan.getDataSourceId()), key)) {
+            dataSourceKeys.put(plan.getDataSourceId(), key);
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(key,
+            k -> new Bulkhead(resolveMaxConcurrency(connectionPool)));
+        try {
+            if (!bulkhead.semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                bulkhead.rejected.increment();
+                throw new DataSourceBusyException("数据源繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataSourceBusyException("等待数据源许可被中断");
+        }
+        return bulkhead.semaphore::release;
+    }
+
+    /**
+     * 连接池最大连接数调整后就地调整其并发许可，共享该池的数据源同时生效
+     * 缩小时已借出的许可照常归还，在途请求降到新上限以下之前不再放行新请求
+     * @param connectionPool 连接池
+     * @param maxConcurrency 新的并发上限
+     */
+    public void resize(ConnectionPool connectionPool, int maxConcurrency) {
+        Bulkhead bulkhead = bulkheads.get(activePool(connectionPool));
+        if (bulkhead != null) {
+            bulkhead.resize(Math.max(1, maxConcurrency));
+        }
+    }
+
+    /**
+     * 移除数据源的并发限制状态（连接池重建后按新池重新创建），
+     * 不再被任何数据源使用的限制一并清理
+     */
+    public void remove(Long dataSourceId) {
+        dataSourceKeys.remove(dataSourceId);
+        bulkheads.keySet().removeIf(key -> !dataSourceKeys.containsValue(key));
+    }
+
+    /**
+     * 获取各数据源的并发统计，共享连接池的数据源统计相同
+     */
+    public Map<Long, Map<String, Long>> getStatistics() {
+        Map<Long, Map<String, Long>> result = new HashMap<>();
+        dataSourceKeys.forEach((dataSourceId, key) -> {
+            Bulkhead bulkhead = bulkheads.get(key);
+            if (bulkhead == null) {
+                return;
+            }
+            Map<String, Long> stats = new HashMap<>();
+            stats.put("maxConcurrency", (long) bulkhead.maxConcurrency);
+            stats.put("inFlight", (long) (bulkhead.maxConcurrency - bulkhead.semaphore.availablePermits()));
+            stats.put("waiting", (long) bulkhead.semaphore.getQueueLength());
+            stats.put("rejected", bulkhead.rejected.sum());
+            result.put(dataSourceId, stats);
+        });
+        return result;
+    }
+
+    /**
+     * 执行计划持有的池在配置变更后可能已退役，按接替后的池限制
+     */
+    private static ConnectionPool activePool(ConnectionPool connectionPool) {
+        if (connectionPool instanceof HikariConnectionPool hikariPool) {
+            return hikariPool.getActivePool();
+        }
+        return connectionPool;
+    }
+
+    private int resolveMaxConcurrency(ConnectionPool connectionPool) {
+        if (connectionPool != null) {
+            int maxConnections = connectionPool.getStatus().getMaxConnections();
+            if (maxConnections > 0) {
+                return maxConnections;
+            }
+        }
+        return Math.max(1, defaultMaxConcurrency);
+    }
+
+    /**
+     * 数据源访问许可
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Bulkhead {
+        private volatile int maxConcurrency;
+        private final ResizableSemaphore semaphore;
+        private final LongAdder rejected = new LongAdder();
+
+        Bulkhead(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            // 公平模式，避免等待中的请求长期饥饿
+            this.semaphore = new ResizableSemaphore(maxConcurrency);
+        }
+
+        synchronized void resize(int newMaxConcurrency) {
+            int delta = newMaxConcurrency - maxConcurrency;
+            if (delta > 0) {
+                semaphore.release(delta);
+            } else if (delta < 0) {
+                semaphore.reducePermits(-delta);
+            }
+            maxConcurrency = newMaxConcurrency;
+        }
+    }
+
+    /**
+     * 可缩减许可的信号量，缩减后可用许可可以为负，由归还的许可抵扣
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+}
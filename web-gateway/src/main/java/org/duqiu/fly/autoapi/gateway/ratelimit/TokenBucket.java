@@ -0,0 +1,66 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶
+ * 采用GCRA（虚拟调度）形式：状态只有一个"理论到达时间"，一次获取就是一次CAS，不分配对象。
+ * 与容量为 capacity、每 period 补充 capacity 个令牌的令牌桶等价。
+ */
+public final class TokenBucket {
+
+    private final int capacity;
+
+    /**
+     * 生成一个令牌所需的纳秒数
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * 桶满时允许提前消费的最大时长
+     */
+    private final long burstToleranceNanos;
+
+    /**
+     * 理论到达时间(纳秒)
+     */
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, long period, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("令牌桶容量必须大于0");
+        }
+        this.capacity = capacity;
+        this.emissionIntervalNanos = Math.max(1, unit.toNanos(period) / capacity);
+        this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @return 0 表示获取成功，否则为需要等待的纳秒数
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long start = tat - now > 0 ? tat : now;
+            long next = start + emissionIntervalNanos;
+            long waitNanos = next - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,261 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 数据面路由索引（不可变）
+ * 纯字面量路径走哈希表精确匹配；含模板段的路径按HTTP方法建立分段字典树，支持：
+ * <ul>
+ *     <li>{var}：匹配单个段，值作为路径变量</li>
+ *     <li>*：匹配单个段</li>
+ *     <li>**：匹配剩余的零个或多个段，只能出现在末尾</li>
+ * </ul>
+ * 同一位置的优先级为 字面量 &gt; {var} &gt; * &gt; **
+ */
+public final class RouteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteIndex.class);
+
+    private static final RouteIndex EMPTY = new RouteIndex(Map.of(), Map.of(), 0);
+
+    private static final String SINGLE_WILDCARD = "*";
+    private static final String MULTI_WILDCARD = "**";
+
+    /**
+     * Key: HTTP方法 -> 规范化路径
+     */
+    private final Map<String, Map<String, ApiServiceInfo>> exactRoutes;
+
+    /**
+     * Key: HTTP方法
+     */
+    private final Map<String, Node> templateRoots;
+
+    private final int size;
+
+    private RouteIndex(Map<String, Map<String, ApiServiceInfo>> exactRoutes, Map<String, Node> templateRoots, int size) {
+        this.exactRoutes = exactRoutes;
+        this.templateRoots = templateRoots;
+        this.size = size;
+    }
+
+    public static RouteIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建路由索引，相同的方法和路径模板只保留最后一个服务
+     */
+    public static RouteIndex build(Collection<ApiServiceInfo> services) {
+        if (services.isEmpty()) {
+            return EMPTY;
+        }
+        Map<String, Map<String, ApiServiceInfo>> exactRoutes = new HashMap<>();
+        Map<String, Node> templateRoots = new HashMap<>();
+        for (ApiServiceInfo service : services) {
+            String method = service.getHttpMethod().toUpperCase(Locale.ROOT);
+            String[] segments = split(service.getServicePath());
+            if (isLiteral(segments)) {
+                exactRoutes.computeIfAbsent(method, m -> new HashMap<>()).put(join(segments), service);
+                continue;
+            }
+            try {
+                insert(templateRoots.computeIfAbsent(method, m -> new Node()), segments, service);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skip invalid route template for service {}: {}", service.getServiceId(), e.getMessage());
+            }
+        }
+        return new RouteIndex(exactRoutes, templateRoots, services.size());
+    }
+
+    /**
+     * 匹配路由
+     * @param method HTTP方法
+     * @param path 请求路径
+     * @return 匹配结果，未匹配时返回null
+     */
+    public RouteMatch match(String method, String path) {
+        String upperMethod = method.toUpperCase(Locale.ROOT);
+        Map<String, ApiServiceInfo> methodRoutes = exactRoutes.get(upperMethod);
+        if (methodRoutes != null) {
+            ApiServiceInfo exact = methodRoutes.get(normalize(path));
+            if (exact != null) {
+                return new RouteMatch(exact, Map.of());
+            }
+        }
+
+        Node root = templateRoots.get(upperMethod);
+        if (root == null) {
+            return null;
+        }
+        String[] segments = split(path);
+        String[] captured = new String[segments.length];
+        Route route = find(root, segments, 0, captured, 0);
+        if (route == null) {
+            return null;
+        }
+        if (route.variableNames.length == 0) {
+            return new RouteMatch(route.service, Map.of());
+        }
+        if (route.variableNames.length == 1) {
+            return new RouteMatch(route.service, Map.of(route.variableNames[0], captured[0]));
+        }
+        Map<String, String> variables = new HashMap<>(route.variableNames.length * 4 / 3 + 1);
+        for (int i = 0; i < route.variableNames.length; i++) {
+            variables.put(route.variableNames[i], captured[i]);
+        }
+        return new RouteMatch(route.service, Map.copyOf(variables));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static Route find(Node node, String[] segments, int depth, String[] captured, int captureCount) {
+        if (depth == segments.length) {
+            if (node.route != null) {
+                return node.route;
+            }
+            return node.multiWildcard;
+        }
+
+        String segment = segments[depth];
+        Node literal = node.literals.get(segment);
+        if (literal != null) {
+            Route route = find(literal, segments, depth + 1, captured, captureCount);
+            if (route != null) {
+                return route;
+            }
+        }
+        if (node.variable != null) {
+            captured[captureCount] = segment;
+            Route route = find(node.variable, segments, depth + 1, captured, captureCount + 1);
+            if (route != null) {
+                return route;
+            }
+        }
+        if (node.singleWildcard != null) {
+            Route route = find(node.singleWildcard, segments, depth + 1, captured, captureCount);
+            if (route != null) {
+                return route;
+            }
+        }
+        return node.multiWildcard;
+    }
+
+    private static void insert(Node root, String[] segments, ApiServiceInfo service) {
+        Node node = root;
+        List<String> variableNames = new ArrayList<>();
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (MULTI_WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("** 只能出现在路径末尾: " + service.getServicePath());
+                }
+                node.multiWildcard = new Route(service, variableNames);
+                return;
+            }
+            if (SINGLE_WILDCARD.equals(segment)) {
+                node = node.singleWildcard != null ? node.singleWildcard : (node.singleWildcard = new Node());
+            } else if (isVariable(segment)) {
+                variableNames.add(segment.substring(1, segment.length() - 1));
+                node = node.variable != null ? node.variable : (node.variable = new Node());
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.route = new Route(service, variableNames);
+    }
+
+    private static boolean isLiteral(String[] segments) {
+        for (String segment : segments) {
+            if (SINGLE_WILDCARD.equals(segment) || MULTI_WILDCARD.equals(segment) || isVariable(segment)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    /**
+     * 按 / 拆分路径，忽略空段（兼容重复斜杠和末尾斜杠）
+     */
+    static String[] split(String path) {
+        if (path == null || path.isEmpty()) {
+            return new String[0];
+        }
+        int count = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) != '/' && (i == 0 || path.charAt(i - 1) == '/')) {
+                count++;
+            }
+        }
+        String[] segments = new String[count];
+        int index = 0;
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) {
+                    segments[index++] = path.substring(start, i);
+                }
+                start = i + 1;
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * 规范化路径：以 / 开头、无重复斜杠和末尾斜杠；已规范的路径原样返回
+     */
+    static String normalize(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        boolean normalized = path.charAt(0) == '/' && (path.length() == 1 || path.charAt(path.length() - 1) != '/');
+        for (int i = 1; normalized && i < path.length(); i++) {
+            normalized = !(path.charAt(i) == '/' && path.charAt(i - 1) == '/');
+        }
+        return normalized ? path : join(split(path));
+    }
+
+    private static String join(String[] segments) {
+        if (segments.length == 0) {
+            return "/";
+        }
+        StringBuilder path = new StringBuilder(32);
+        for (String segment : segments) {
+            path.append('/').append(segment);
+        }
+        return path.toString();
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>(4);
+        private Node variable;
+        private Node singleWildcard;
+        private Route multiWildcard;
+        private Route route;
+    }
+
+    private static final class Route {
+        private final ApiServiceInfo service;
+        private final String[] variableNames;
+
+        Route(ApiServiceInfo service, List<String> variableNames) {
+            this.service = service;
+            this.variableNames = variableNames.toArray(new String[0]);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+
+import java.util.Map;
+
+/**
+ * 路由匹配结果
+ */
+public final class RouteMatch {
+
+    private final ApiServiceInfo service;
+    private final Map<String, String> pathVariables;
+
+    RouteMatch(ApiServiceInfo service, Map<String, String> pathVariables) {
+        this.service = service;
+        this.pathVariables = pathVariables;
+    }
+
+    public ApiServiceInfo getService() {
+        return service;
+    }
+
+    /**
+     * 路径变量，路由模板不含 {var} 时为空
+     */
+    public Map<String, String> getPathVariables() {
+        return pathVariables;
+    }
+}
@@ -0,0 +1,378 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * 路由表本地快照
+ * 路由表变更时写入紧凑的二进制文件，重启时内存映射读取，使节点在与管理库对账完成前即可提供服务。
+ * 快照包含SQL与数据源地址，文件和目录只允许属主访问，权限被放宽的快照会被忽略。
+ */
+@Component
+public class RouteSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RouteSnapshotStore.class);
+
+    private static final int MAGIC = 0x52545331; // "RTS1"
+    private static final short FORMAT_VERSION = 5;
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIR = PosixFilePermissions.fromString("rwx------");
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_INT = 2;
+    private static final byte VALUE_LONG = 3;
+    private static final byte VALUE_BOOLEAN = 4;
+
+    @Value("${app.gateway.route-snapshot.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.gateway.route-snapshot.path:data/route-snapshot.bin}")
+    private String snapshotPath = "data/route-snapshot.bin";
+
+    /**
+     * 写入路由表快照，先写临时文件再原子替换
+     */
+    public void save(RouteTable routeTable) {
+        if (!enabled) {
+            return;
+        }
+        Path target = Paths.get(snapshotPath).toAbsolutePath();
+        Path temp = null;
+        try {
+            byte[] content = encode(routeTable);
+            Path dir = target.getParent();
+            boolean posix = isPosix(dir);
+            if (!Files.isDirectory(dir)) {
+                if (posix) {
+                    Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIR));
+                } else {
+                    Files.createDirectories(dir);
+                }
+            }
+            FileAttribute<?>[] attributes = posix
+                    ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE)}
+                    : new FileAttribute<?>[0];
+            temp = Files.createTempFile(dir, "route-snapshot", ".tmp", attributes);
+            Files.write(temp, content);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.debug("Saved route snapshot version {} ({} services, {} bytes) to {}",
+                        routeTable.getVersion(), routeTable.size(), content.length, target);
+        } catch (Exception e) {
+            logger.warn("Failed to save route snapshot to {}: {}", target, e.getMessage());
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                    // 临时文件清理失败不影响主流程
+                }
+            }
+        }
+    }
+
+    /**
+     * 加载路由表快照
+     * @return 快照中的路由表，快照不存在、损坏或权限不安全时返回null
+     */
+    public RouteTable load() {
+        if (!enabled) {
+            return null;
+        }
+        Path target = Paths.get(snapshotPath).toAbsolutePath();
+        if (!Files.isRegularFile(target)) {
+            return null;
+        }
+        try {
+            if (isPosix(target)) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(target);
+                if (!OWNER_ONLY_FILE.containsAll(permissions)) {
+                    logger.warn("Ignoring route snapshot {} with insecure permissions {}",
+                               target, PosixFilePermissions.toString(permissions));
+                    return null;
+                }
+            }
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.READ)) {
+                RouteTable routeTable = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+                logger.info("Loaded route snapshot version {} with {} services from {}",
+                           routeTable.getVersion(), routeTable.size(), target);
+                return routeTable;
+            }
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable route snapshot {}: {}", target, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 编码路由表：头部 + 服务列表 + CRC32校验
+     */
+    static byte[] encode(RouteTable routeTable) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeLong(routeTable.getVersion());
+        writeDateTime(out, routeTable.getPublishedAt());
+        out.writeInt(routeTable.size());
+        for (ApiServiceInfo service : routeTable.getServices().values()) {
+            writeLong(out, service.getServiceId());
+            writeString(out, service.getServiceName());
+            writeString(out, service.getServicePath());
+            writeString(out, service.getHttpMethod());
+            writeString(out, service.getVersion());
+            writeBoolean(out, service.getIsActive());
+            writeString(out, service.getSqlContent());
+            writeLong(out, service.getDataSourceId());
+            writeLong(out, service.getTenantId());
+            writeString(out, service.getCreatedBy());
+            writeDateTime(out, service.getCreatedAt());
+            writeDateTime(out, service.getUpdatedAt());
+            writeString(out, service.getDescription());
+            writeBoolean(out, service.getCacheEnabled());
+            writeInteger(out, service.getCacheDuration());
+            writeInteger(out, service.getRateLimit());
+            writeBoolean(out, service.getCoalescingEnabled());
+            writeInteger(out, service.getQueryTimeout());
+            writeInteger(out, service.getMaxResultRows());
+            writeLong(out, service.getMaxResultBytes());
+            writeBoolean(out, service.getPaginationEnabled());
+            writeString(out, service.getPaginationKey());
+            writeInteger(out, service.getPageSize());
+            writeConfig(out, service.getDataSourceConfig());
+        }
+        out.flush();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 解码路由表，校验失败时抛出IllegalStateException
+     */
+    static RouteTable decode(ByteBuffer buffer) {
+        if (buffer.remaining() < Integer.BYTES + Short.BYTES + Long.BYTES) {
+            throw new IllegalStateException("快照文件过短");
+        }
+        int end = buffer.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if (crc.getValue() != buffer.getLong(end)) {
+            throw new IllegalStateException("快照校验和不匹配");
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IllegalStateException("不是路由表快照文件");
+        }
+        short format = buffer.getShort();
+        if (format != FORMAT_VERSION) {
+            throw new IllegalStateException("不支持的快照格式版本: " + format);
+        }
+
+        long version = buffer.getLong();
+        LocalDateTime publishedAt = readDateTime(buffer);
+        int count = buffer.getInt();
+        Map<String, ApiServiceInfo> services = new HashMap<>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            ApiServiceInfo service = new ApiServiceInfo();
+            service.setServiceId(readLong(buffer));
+            service.setServiceName(readString(buffer));
+            service.setServicePath(readString(buffer));
+            service.setHttpMethod(readString(buffer));
+            service.setVersion(readString(buffer));
+            service.setIsActive(readBoolean(buffer));
+            service.setSqlContent(readString(buffer));
+            service.setDataSourceId(readLong(buffer));
+            service.setTenantId(readLong(buffer));
+            service.setCreatedBy(readString(buffer));
+            service.setCreatedAt(readDateTime(buffer));
+            service.setUpdatedAt(readDateTime(buffer));
+            service.setDescription(readString(buffer));
+            service.setCacheEnabled(readBoolean(buffer));
+            service.setCacheDuration(readInteger(buffer));
+            service.setRateLimit(readInteger(buffer));
+            service.setCoalescingEnabled(readBoolean(buffer));
+            service.setQueryTimeout(readInteger(buffer));
+            service.setMaxResultRows(readInteger(buffer));
+            service.setMaxResultBytes(readLong(buffer));
+            service.setPaginationEnabled(readBoolean(buffer));
+            service.setPaginationKey(readString(buffer));
+            service.setPageSize(readInteger(buffer));
+            service.setDataSourceConfig(readConfig(buffer));
+            services.put(service.getServiceKey(), service);
+        }
+        if (buffer.position() != end) {
+            throw new IllegalStateException("快照内容长度不匹配");
+        }
+        return RouteTable.restore(version, services, publishedAt);
+    }
+
+    private static boolean isPosix(Path path) {
+        Path existing = path;
+        while (existing != null && !Files.exists(existing)) {
+            existing = existing.getParent();
+        }
+        return existing != null
+                && existing.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    // ===== 编码 =====
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static void writeInteger(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeBoolean(DataOutputStream out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : (value ? 1 : 0));
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    /**
+     * 数据源配置只保存展示用的摘要，非基本类型的值（如枚举）按字符串保存
+     */
+    private static void writeConfig(DataOutputStream out, Map<String, Object> config) throws IOException {
+        if (config == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(config.size());
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            writeString(out, entry.getKey());
+            Object value = entry.getValue();
+            if (value == null) {
+                out.writeByte(VALUE_NULL);
+            } else if (value instanceof Integer number) {
+                out.writeByte(VALUE_INT);
+                out.writeInt(number);
+            } else if (value instanceof Long number) {
+                out.writeByte(VALUE_LONG);
+                out.writeLong(number);
+            } else if (value instanceof Boolean flag) {
+                out.writeByte(VALUE_BOOLEAN);
+                out.writeBoolean(flag);
+            } else {
+                out.writeByte(VALUE_STRING);
+                writeString(out, value.toString());
+            }
+        }
+    }
+
+    // ===== 解码 =====
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new IllegalStateException("快照字符串长度越界: " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Long readLong(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getLong() : null;
+    }
+
+    private static Integer readInteger(ByteBuffer buffer) {
+        return buffer.get() != 0 ? buffer.getInt() : null;
+    }
+
+    private static Boolean readBoolean(ByteBuffer buffer) {
+        byte value = buffer.get();
+        return value < 0 ? null : value == 1;
+    }
+
+    private static LocalDateTime readDateTime(ByteBuffer buffer) {
+        if (buffer.get() == 0) {
+            return null;
+        }
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(seconds, nanos), ZoneOffset.UTC);
+    }
+
+    private static Map<String, Object> readConfig(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, Object> config = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(buffer);
+            byte type = buffer.get();
+            Object value = switch (type) {
+                case VALUE_NULL -> null;
+                case VALUE_INT -> buffer.getInt();
+                case VALUE_LONG -> buffer.getLong();
+                case VALUE_BOOLEAN -> buffer.get() != 0;
+                case VALUE_STRING -> readString(buffer);
+                default -> throw new IllegalStateException("未知的配置值类型: " + type);
+            };
+            config.put(key, value);
+        }
+        return config;
+    }
+}
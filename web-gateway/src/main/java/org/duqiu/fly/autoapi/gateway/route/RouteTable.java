@@ -0,0 +1,81 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 路由表快照（不可变）
+ * 服务发现每次变更都构建新的快照并整体替换，读请求无需加锁，也不会看到部分更新的状态
+ */
+public final class RouteTable {
+
+    private static final RouteTable EMPTY = new RouteTable(0, Map.of(), RouteIndex.empty(), null);
+
+    private final long version;
+
+    /**
+     * Key: 服务唯一标识(method:path:version)
+     */
+    private final Map<String, ApiServiceInfo> services;
+
+    private final RouteIndex routeIndex;
+    private final LocalDateTime publishedAt;
+
+    private RouteTable(long version, Map<String, ApiServiceInfo> services,
+                       RouteIndex routeIndex, LocalDateTime publishedAt) {
+        this.version = version;
+        this.services = services;
+        this.routeIndex = routeIndex;
+        this.publishedAt = publishedAt;
+    }
+
+    public static RouteTable empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 基于当前快照生成下一版本
+     * @param services 新的服务集合
+     */
+    public RouteTable next(Map<String, ApiServiceInfo> services) {
+        Map<String, ApiServiceInfo> snapshot = Map.copyOf(services);
+        return new RouteTable(version + 1, snapshot, RouteIndex.build(snapshot.values()), LocalDateTime.now());
+    }
+
+    /**
+     * 由持久化快照恢复路由表，保留原版本号
+     */
+    static RouteTable restore(long version, Map<String, ApiServiceInfo> services, LocalDateTime publishedAt) {
+        Map<String, ApiServiceInfo> snapshot = Map.copyOf(services);
+        return new RouteTable(version, snapshot, RouteIndex.build(snapshot.values()), publishedAt);
+    }
+
+    public RouteMatch match(String method, String path) {
+        return routeIndex.match(method, path);
+    }
+
+    public ApiServiceInfo getService(String serviceKey) {
+        return services.get(serviceKey);
+    }
+
+    /**
+     * 快照版本号，每次发布递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Map<String, ApiServiceInfo> getServices() {
+        return services;
+    }
+
+    public int size() {
+        return services.size();
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+}
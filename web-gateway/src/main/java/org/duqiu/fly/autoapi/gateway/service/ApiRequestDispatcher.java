@@ -0,0 +1,382 @@
+package org.duqiu.fly.autoapi.gateway.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.datasource.core.QueryOptions;
+import org.duqiu.fly.autoapi.datasource.core.SpilledRowList;
+import org.duqiu.fly.autoapi.datasource.exception.DataSourceExceptions;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcConnection;
+import org.duqiu.fly.autoapi.datasource.jdbc.NamedParameterSql;
+import org.duqiu.fly.autoapi.gateway.cache.ApiResultCache;
+import org.duqiu.fly.autoapi.gateway.coalesce.RequestCoalescer;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.dto.ServiceRequestLog;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlanRegistry;
+import org.duqiu.fly.autoapi.gateway.plan.KeysetPagination;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQuery;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQueryRegistry;
+import org.duqiu.fly.autoapi.gateway.ratelimit.ApiRateLimiter;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceBusyException;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.ratelimit.RateLimitExceededException;
+import org.duqiu.fly.autoapi.gateway.route.RouteMatch;
+import org.duqiu.fly.autoapi.gateway.stream.JsonStreamingResultWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API请求分发服务（数据面）
+ * 仅依赖内存中的路由表和执行计划执行已发布的API，不访问管理库
+ */
+@Service
+public class ApiRequestDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiRequestDispatcher.class);
+
+    @Autowired
+    private ApiServiceDiscoveryService discoveryService;
+
+    @Autowired
+    private ApiExecutionPlanRegistry planRegistry;
+
+    @Autowired
+    private DataSourceConnectionPoolService connectionPoolService;
+
+    @Autowired
+    private ApiResultCache resultCache;
+
+    @Autowired
+    private ApiRateLimiter rateLimiter;
+    
+    @Autowired
+    private DataSourceConcurrencyLimiter concurrencyLimiter;
+    
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+    
+    @Autowired
+    private ActiveQueryRegistry activeQueryRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ServiceRequestLogService requestLogService;
+
+    /**
+     * 服务未配置时的结果行数上限，0表示不限制
+     */
+    @Value("${app.gateway.result.max-rows:1000000}")
+    private int defaultMaxResultRows;
+
+    /**
+     * 服务未配置时的结果大小上限（估算字节数），0表示不限制
+     */
+    @Value("${app.gateway.result.max-bytes:536870912}")
+    private long defaultMaxResultBytes;
+
+    /**
+     * 结果在堆内超过该字节数后溢出到临时文件，0表示不溢出
+     */
+    @Value("${app.gateway.result.spill-threshold-bytes:33554432}")
+    private long spillThresholdBytes;
+
+    @Value("${app.gateway.result.spill-dir:}")
+    private String spillDirectory;
+
+    /**
+     * 解析路由
+     * @param method HTTP方法
+     * @param path 服务路径
+     * @return 路由匹配结果（含路径变量），未发布时返回null
+     */
+    public RouteMatch resolve(String method, String path) {
+        return discoveryService.matchRoute(method, path);
+    }
+
+    /**
+     * 执行API服务
+     * @param service 已解析的API服务
+     * @param params 请求参数
+     * @return 执行结果(data/count)
+     */
+    public Map<String, Object> dispatch(ApiServiceInfo service, Map<String, Object> params) {
+        ApiExecutionPlan plan = planRegistry.getPlan(service);
+
+        ServiceRequestLog log = createRequestLog(plan, params);
+
+        // 每个请求在读缓存之前计入限流，缓存命中和合并等待的请求同样消耗令牌
+        try {
+            rateLimiter.acquire(plan);
+        } catch (RateLimitExceededException e) {
+            markRateLimited(log, e);
+            requestLogService.logServiceRequest(log);
+            throw e;
+        }
+
+        if (plan.isCacheable()) {
+            Map<String, Object> cached = resultCache.get(plan, params);
+            if (cached != null) {
+                log.setExecutedSqlScript("CACHE_HIT");
+                log.setRecordCount(((Number) cached.get("count")).intValue());
+                log.markRequestCompleted(true);
+                requestLogService.logServiceRequest(log);
+                return cached;
+            }
+        }
+
+        try {
+            // 相同请求并发到达时只有一个访问后端，其余共享结果
+            boolean[] executed = new boolean[1];
+            Map<String, Object> result = requestCoalescer.execute(plan, params, () -> {
+                executed[0] = true;
+                return executeOnBackend(plan, params, log);
+            });
+            if (!executed[0]) {
+                log.setExecutedSqlScript("COALESCED");
+            }
+
+            log.setRecordCount(((Number) result.get("count")).intValue());
+            log.markRequestCompleted(true);
+            return result;
+        } catch (RuntimeException e) {
+            logger.warn("Failed to dispatch API service {}: {}", plan.getServiceKey(), e.getMessage());
+            log.setError(e.getMessage(), null);
+            log.markRequestCompleted(false);
+            throw e;
+        } finally {
+            requestLogService.logServiceRequest(log);
+        }
+    }
+
+    private Map<String, Object> executeOnBackend(ApiExecutionPlan plan, Map<String, Object> params,
+                                                 ServiceRequestLog log) {
+        long connectStart = System.currentTimeMillis();
+        QueryCancellation cancellation = new QueryCancellation();
+        try (DataSourceConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(plan);
+             DataSourceConnection connection = openConnection(plan);
+             ActiveQuery activeQuery = activeQueryRegistry.register(plan, cancellation, false)) {
+            log.setConnectionTimeMs(System.currentTimeMillis() - connectStart);
+
+            long queryStart = System.currentTimeMillis();
+            DataSourceConnection.QueryResult queryResult;
+            KeysetPagination pagination = plan.getPagination();
+            if (pagination != null && connection instanceof JdbcConnection jdbcConnection) {
+                return executePage(plan, pagination, jdbcConnection, params, cancellation, log, queryStart);
+            }
+            if (connection instanceof JdbcConnection jdbcConnection) {
+                // 同一服务始终使用同一条语句文本，参数按名称绑定
+                log.setExecutedSqlScript(plan.getCompiledSql().getSql());
+                queryResult = jdbcConnection.executeQuery(plan.getCompiledSql(), params, queryOptions(plan, cancellation));
+            } else {
+                String sql = plan.render(params);
+                log.setExecutedSqlScript(sql);
+                queryResult = connection.executeQuery(sql, Collections.emptyMap(), queryOptions(plan, cancellation));
+            }
+            log.setSqlExecutionTimeMs(System.currentTimeMillis() - queryStart);
+
+            if (!queryResult.isSuccess()) {
+                throw new RuntimeException("执行SQL失败: " + queryResult.getErrorMessage());
+            }
+            // JDBC在读取时已检查上限，其他数据源在返回后检查
+            int maxResultRows = maxResultRows(plan);
+            if (maxResultRows > 0 && queryResult.getCount() > maxResultRows) {
+                throw new DataSourceExceptions.ResultLimitExceededException(
+                    "查询结果超过行数上限(" + maxResultRows + ")，请增加过滤条件或使用流式查询");
+            }
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("data", queryResult.getData());
+            result.put("count", queryResult.getCount());
+
+            // 溢出到文件的结果不进入缓存
+            if (plan.isCacheable() && !SpilledRowList.isSpilled(queryResult.getData())) {
+                resultCache.put(plan, params, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 按键集分页执行一页：游标解码为上一页最后一行的键，多取一行判断是否还有下一页
+     * 游标和每页行数保留在请求参数中，不同页的结果各自缓存
+     */
+    private Map<String, Object> executePage(ApiExecutionPlan plan, KeysetPagination pagination,
+                                            JdbcConnection connection, Map<String, Object> params,
+                                            QueryCancellation cancellation, ServiceRequestLog log, long queryStart) {
+        Object after = pagination.decodeCursor((String) params.get(KeysetPagination.CURSOR_PARAMETER));
+        int limit = pagination.resolvePageSize(params.get(KeysetPagination.PAGE_SIZE_PARAMETER));
+        NamedParameterSql sql = pagination.getSql(after);
+        log.setExecutedSqlScript(sql.getSql());
+        DataSourceConnection.QueryResult queryResult = connection.executeQuery(
+            sql, pagination.bind(params, after, limit), queryOptions(plan, cancellation));
+        log.setSqlExecutionTimeMs(System.currentTimeMillis() - queryStart);
+        if (!queryResult.isSuccess()) {
+            throw new RuntimeException("执行SQL失败: " + queryResult.getErrorMessage());
+        }
+
+        List<Map<String, Object>> rows = queryResult.getData();
+        String nextCursor = pagination.nextCursor(rows, limit);
+        List<Map<String, Object>> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        Map<String, Object> result = new HashMap<>();
+        result.put("data", page);
+        result.put("count", page.size());
+        result.put("pageSize", limit);
+        result.put("nextCursor", nextCursor);
+
+        if (plan.isCacheable()) {
+            resultCache.put(plan, params, result);
+        }
+        return result;
+    }
+
+    /**
+     * 流式执行API服务
+     * 结果从ResultSet逐行写入响应流，堆内存占用与结果行数无关；流式结果不进入结果缓存
+     * 流式模式不分页，启用键集分页的服务同样返回完整结果
+     * @param service 已解析的API服务
+     * @param params 请求参数
+     * @return 响应体
+     */
+    public StreamingResponseBody stream(ApiServiceInfo service, Map<String, Object> params) {
+        return stream(service, params, new QueryCancellation());
+    }
+
+    /**
+     * 流式执行API服务，异步请求超时或出错时通过取消句柄中止后端查询
+     * @param cancellation 取消句柄
+     */
+    public StreamingResponseBody stream(ApiServiceInfo service, Map<String, Object> params,
+                                        QueryCancellation cancellation) {
+        ApiExecutionPlan plan = planRegistry.getPlan(service);
+        ServiceRequestLog log = createRequestLog(plan, params);
+        DataSourceConcurrencyLimiter.Permit permit;
+        try {
+            rateLimiter.acquire(plan);
+            // 在返回响应体之前获取许可，数据源繁忙时响应尚未提交，仍可返回503
+            permit = concurrencyLimiter.acquire(plan);
+        } catch (RateLimitExceededException e) {
+            markRateLimited(log, e);
+            requestLogService.logServiceRequest(log);
+            throw e;
+        } catch (DataSourceBusyException e) {
+            log.setError(e.getMessage(), null);
+            log.markRequestCompleted(false);
+            requestLogService.logServiceRequest(log);
+            throw e;
+        }
+
+        return outputStream -> {
+            try (DataSourceConcurrencyLimiter.Permit held = permit) {
+                writeStream(plan, params, cancellation, log, outputStream);
+            }
+        };
+    }
+
+    /**
+     * 在已获取的数据源许可下执行查询并逐行写出结果
+     */
+    private void writeStream(ApiExecutionPlan plan, Map<String, Object> params, QueryCancellation cancellation,
+                             ServiceRequestLog log, OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        JsonStreamingResultWriter writer = new JsonStreamingResultWriter(generator);
+
+        long connectStart = System.currentTimeMillis();
+        try (DataSourceConnection connection = openConnection(plan);
+             ActiveQuery activeQuery = activeQueryRegistry.register(plan, cancellation, true)) {
+            log.setConnectionTimeMs(System.currentTimeMillis() - connectStart);
+            activeQuery.setRowCounter(writer::getRowCount);
+
+            long queryStart = System.currentTimeMillis();
+            if (connection instanceof JdbcConnection jdbcConnection) {
+                log.setExecutedSqlScript(plan.getCompiledSql().getSql());
+                jdbcConnection.streamQuery(plan.getCompiledSql(), params, queryOptions(plan, cancellation), writer);
+            } else {
+                String sql = plan.render(params);
+                log.setExecutedSqlScript(sql);
+                DataSourceConnection.QueryResult queryResult = connection.executeQuery(
+                    sql, Collections.emptyMap(), queryOptions(plan, cancellation));
+                if (!queryResult.isSuccess()) {
+                    throw new RuntimeException("执行SQL失败: " + queryResult.getErrorMessage());
+                }
+                writer.writeRowSet(queryResult.getRowSet());
+            }
+            log.setSqlExecutionTimeMs(System.currentTimeMillis() - queryStart);
+            log.setRecordCount((int) Math.min(Integer.MAX_VALUE, writer.getRowCount()));
+            log.markRequestCompleted(true);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to stream API service {}: {}", plan.getServiceKey(), e.getMessage());
+            log.setError(e.getMessage(), null);
+            log.markRequestCompleted(false);
+            if (!writer.isStarted()) {
+                throw e;
+            }
+            // 响应头已发送，只能在JSON尾部标记错误
+            writer.fail(e.getMessage());
+        } finally {
+            generator.close();
+            requestLogService.logServiceRequest(log);
+        }
+    }
+
+    /**
+     * 按执行计划生成查询选项：应用服务配置的查询超时与结果上限，取消句柄同时登记在活跃查询中
+     * 结果上限与溢出只作用于需要完整结果的查询，流式查询不累积结果
+     */
+    private QueryOptions queryOptions(ApiExecutionPlan plan, QueryCancellation cancellation) {
+        return QueryOptions.defaults()
+            .setQueryTimeoutSeconds(plan.getQueryTimeoutSeconds())
+            .setCancellation(cancellation)
+            .setMaxResultRows(maxResultRows(plan))
+            .setMaxResultBytes(plan.getMaxResultBytes() > 0 ? plan.getMaxResultBytes() : defaultMaxResultBytes)
+            .setSpillThresholdBytes(spillThresholdBytes)
+            .setSpillDirectory(spillDirectory.isBlank() ? null : Path.of(spillDirectory));
+    }
+
+    private int maxResultRows(ApiExecutionPlan plan) {
+        return plan.getMaxResultRows() > 0 ? plan.getMaxResultRows() : defaultMaxResultRows;
+    }
+
+    private ServiceRequestLog createRequestLog(ApiExecutionPlan plan, Map<String, Object> params) {
+        ServiceRequestLog log = requestLogService.createRequestLog(
+            "DYNAMIC_API", plan.getServiceId(), plan.getServicePath());
+        log.setHttpMethod(plan.getHttpMethod());
+        log.setServiceVersion(plan.getVersion());
+        log.setRequestParameters(params);
+        return log;
+    }
+
+    private void markRateLimited(ServiceRequestLog log, RateLimitExceededException e) {
+        log.setResponseStatusCode(429);
+        log.setError(e.getMessage(), null);
+        log.markRequestCompleted(false);
+    }
+
+    /**
+     * 优先使用执行计划持有的连接池句柄
+     */
+    private DataSourceConnection openConnection(ApiExecutionPlan plan) {
+        ConnectionPool connectionPool = plan.getConnectionPool();
+        if (connectionPool != null) {
+            return connectionPool.getConnection();
+        }
+        return connectionPoolService.acquireConnection(plan.getDataSourceId());
+    }
+}
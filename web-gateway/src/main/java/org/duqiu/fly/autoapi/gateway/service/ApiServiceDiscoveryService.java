@@ -1,31 +1,50 @@
 package org.duqiu.fly.autoapi.gateway.service;
 
 import org.duqiu.fly.autoapi.api.service.ApiServiceExecutor;
-import org.duqiu.fly.autoapi.api.dto.ApiServiceResponse;
-import org.duqiu.fly.autoapi.api.dto.ApiServiceVersionResponse;
-import org.duqiu.fly.autoapi.datasource.service.DataSourceService;
-import org.duqiu.fly.autoapi.datasource.dto.DataSourceResponse;
+import org.duqiu.fly.autoapi.api.dto.ApiServiceRoute;
+import org.duqiu.fly.autoapi.api.event.ApiServiceChangedEvent;
+import org.duqiu.fly.autoapi.api.model.ApiServiceChangeLog;
+import org.duqiu.fly.autoapi.gateway.cache.ApiResultCache;
 import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
 import org.duqiu.fly.autoapi.gateway.dto.ServiceRequestLog;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlanRegistry;
+import org.duqiu.fly.autoapi.gateway.ratelimit.ApiRateLimiter;
+import org.duqiu.fly.autoapi.gateway.route.RouteMatch;
+import org.duqiu.fly.autoapi.gateway.route.RouteSnapshotStore;
+import org.duqiu.fly.autoapi.gateway.route.RouteTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.duqiu.fly.autoapi.common.enums.ApiStatus;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import jakarta.annotation.PostConstruct;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * API服务发现服务
  * 负责定时发现、更新、管理已发布的API服务
+ * 本节点的发布/下线在事务提交后通过事件立即生效，其他节点的变更通过拉取路由变更日志获得；
+ * 常规周期按更新时间水位增量拉取变更的服务，低频执行一次全量对账兜底
  */
 @Service
 public class ApiServiceDiscoveryService {
@@ -35,32 +54,74 @@ public class ApiServiceDiscoveryService {
     @Autowired
     private ApiServiceExecutor apiServiceExecutor;
     
-    @Autowired
-    private DataSourceService dataSourceService;
-    
     @Autowired
     private DataSourceConnectionPoolService connectionPoolService;
     
     @Autowired
     private ServiceRequestLogService requestLogService;
     
+    @Autowired
+    private ApiExecutionPlanRegistry planRegistry;
+    
+    @Autowired
+    private ApiResultCache resultCache;
+    
+    @Autowired
+    private ApiRateLimiter rateLimiter;
+    
+    @Autowired
+    private RouteSnapshotStore snapshotStore;
+    
     /**
-     * 当前活跃的API服务缓存
-     * Key: 服务唯一标识(method:path:version)
-     * Value: API服务信息
+     * 键集分页的每页条数
      */
-    private final Map<String, ApiServiceInfo> activeServices = new ConcurrentHashMap<>();
+    @Value("${app.gateway.discovery.page-size:500}")
+    private int pageSize = 500;
+    
+    /**
+     * 增量扫描时水位回退的毫秒数，覆盖扫描期间尚未提交的事务和节点间时钟偏差
+     */
+    @Value("${app.gateway.discovery.watermark-overlap-ms:5000}")
+    private long watermarkOverlapMs = 5000;
+    
+    /**
+     * 路由变更日志保留小时数
+     */
+    @Value("${app.gateway.discovery.change-log-retention-hours:24}")
+    private long changeLogRetentionHours = 24;
+    
+    /**
+     * 当前路由表快照
+     * 只在服务发现锁内整体替换，数据面读取无锁
+     */
+    private final AtomicReference<RouteTable> routeTable = new AtomicReference<>(RouteTable.empty());
     
     /**
      * 上次扫描的时间戳
      */
     private volatile LocalDateTime lastScanTime;
     
+    /**
+     * 更新时间水位，早于该时间的变更均已应用到路由表
+     * 为null时表示尚未完成全量对账，增量扫描会退化为全量
+     */
+    private volatile LocalDateTime watermark;
+    
+    /**
+     * 已应用的最大路由变更日志ID，为null时表示尚未完成全量对账
+     */
+    private volatile Long changeLogCursor;
+    
     /**
      * 服务变更统计
      */
     private final Map<String, Integer> changeStatistics = new ConcurrentHashMap<>();
     
+    /**
+     * 服务发现互斥锁
+     */
+    private final ReentrantLock discoveryLock = new ReentrantLock();
+    
     @PostConstruct
     public void init() {
         logger.info("Initializing API Service Discovery Service...");
@@ -68,17 +129,115 @@ public class ApiServiceDiscoveryService {
         changeStatistics.put("updated", 0);
         changeStatistics.put("removed", 0);
         
-        // 初始化时执行一次服务发现
-        discoverAndUpdateServices();
+        // 有本地快照时先用快照提供服务，在后台预热并与管理库对账
+        RouteTable restored = snapshotStore.load();
+        if (restored != null) {
+            routeTable.set(restored);
+            Thread.ofVirtual().name("route-snapshot-reconcile").start(() -> reconcileRestoredRoutes(restored));
+        } else {
+            // 初始化时执行一次服务发现
+            discoverAndUpdateServices();
+        }
         logger.info("API Service Discovery Service initialized with {} active services", 
-                    activeServices.size());
+                    routeTable.get().size());
+    }
+    
+    /**
+     * 为快照恢复的服务建立连接池和执行计划，然后执行全量对账
+     * 连接池使用计数与正常发现的服务保持一致，对账下线服务时才能正确回收
+     */
+    private void reconcileRestoredRoutes(RouteTable restored) {
+        // 预热访问业务数据库，不持有服务发现锁，期间本节点的发布可正常生效
+        for (ApiServiceInfo service : restored.getServices().values()) {
+            connectionPoolService.ensureDataSourceConnection(service.getDataSourceId());
+            ApiExecutionPlan plan = compileExecutionPlan(service);
+            if (plan != null) {
+                warmUpExecutionPlan(plan);
+                // 预热期间该服务可能已被更新或下线
+                if (routeTable.get().getService(service.getServiceKey()) == service) {
+                    planRegistry.installIfAbsent(plan);
+                }
+            }
+        }
+        discoveryLock.lock();
+        try {
+            doDiscoverAndUpdateServices();
+            logger.info("Route snapshot reconciled, active services: {}", routeTable.get().size());
+        } catch (Exception e) {
+            logger.error("Error reconciling restored route snapshot", e);
+        } finally {
+            discoveryLock.unlock();
+        }
     }
     
     /**
-     * 定时服务发现和更新
-     * 每30秒执行一次
+     * 定时增量服务发现
+     * 默认每5秒执行一次，只拉取水位之后变更的服务
      */
-    @Scheduled(fixedDelay = 30000)
+    @Scheduled(fixedDelayString = "${app.gateway.discovery.incremental-interval-ms:5000}",
+               initialDelayString = "${app.gateway.discovery.incremental-interval-ms:5000}")
+    public void scheduledIncrementalDiscovery() {
+        try {
+            refreshChangedServices();
+        } catch (Exception e) {
+            logger.error("Error during incremental service discovery", e);
+        }
+    }
+    
+    /**
+     * 定时拉取路由变更日志
+     * 默认每秒执行一次，使其他节点的发布/下线快速生效
+     */
+    @Scheduled(fixedDelayString = "${app.gateway.discovery.change-log-interval-ms:1000}",
+               initialDelayString = "${app.gateway.discovery.change-log-interval-ms:1000}")
+    public void scheduledChangeLogPolling() {
+        try {
+            applyChangeLogs();
+        } catch (Exception e) {
+            logger.error("Error during change log polling", e);
+        }
+    }
+    
+    /**
+     * 定时清理过期的路由变更日志
+     * 每小时执行一次
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void scheduledChangeLogPurge() {
+        try {
+            int purged = apiServiceExecutor.purgeChangeLogs(
+                LocalDateTime.now().minusHours(changeLogRetentionHours));
+            if (purged > 0) {
+                logger.info("Purged {} route change logs older than {} hours", purged, changeLogRetentionHours);
+            }
+        } catch (Exception e) {
+            logger.error("Error during change log purge", e);
+        }
+    }
+    
+    /**
+     * 本节点发布、下线、激活版本的事务提交后立即刷新对应服务的路由
+     * 监听器在发布方的请求线程上执行，刷新交给虚拟线程，发布请求不等待服务发现锁和预热
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onApiServiceChanged(ApiServiceChangedEvent event) {
+        logger.debug("Received {}", event);
+        Thread.ofVirtual().name("route-refresh-" + event.getApiServiceId()).start(() -> {
+            try {
+                refreshServices(List.of(event.getApiServiceId()));
+            } catch (Exception e) {
+                // 不影响发布方，变更日志拉取和增量扫描会兜底
+                logger.warn("Failed to apply {}: {}", event, e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 定时全量对账
+     * 默认每5分钟执行一次，兜底修正增量扫描可能遗漏的变更（如直接修改数据库、更新时间为空的历史数据）
+     */
+    @Scheduled(fixedDelayString = "${app.gateway.discovery.full-reconcile-interval-ms:300000}",
+               initialDelayString = "${app.gateway.discovery.full-reconcile-interval-ms:300000}")
     public void scheduledServiceDiscovery() {
         try {
             discoverAndUpdateServices();
@@ -88,59 +247,125 @@ public class ApiServiceDiscoveryService {
     }
     
     /**
-     * 执行服务发现和更新
+     * 执行全量服务发现和更新
+     * 使用ReentrantLock而非synchronized，避免虚拟线程在查询管理库时钉住载体线程
+     */
+    public void discoverAndUpdateServices() {
+        discoveryLock.lock();
+        try {
+            doDiscoverAndUpdateServices();
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+    
+    /**
+     * 刷新指定服务的路由
+     * @param serviceIds 服务ID
+     */
+    public void refreshServices(Collection<Long> serviceIds) {
+        discoveryLock.lock();
+        try {
+            applyChangedRoutes(Set.copyOf(serviceIds), apiServiceExecutor.getServiceRoutes(serviceIds));
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+    
+    /**
+     * 拉取并应用上次之后的路由变更日志，尚未完成全量对账时不处理
+     * 并发事务的提交顺序可能使ID出现空洞，被跳过的变更由增量扫描兜底
+     */
+    public void applyChangeLogs() {
+        discoveryLock.lock();
+        try {
+            if (changeLogCursor == null) {
+                return;
+            }
+            long cursor = changeLogCursor;
+            Set<Long> changedServiceIds = new HashSet<>();
+            List<ApiServiceChangeLog> page;
+            do {
+                page = apiServiceExecutor.getChangeLogsAfter(cursor, pageSize);
+                for (ApiServiceChangeLog changeLog : page) {
+                    changedServiceIds.add(changeLog.getApiServiceId());
+                    cursor = changeLog.getId();
+                }
+            } while (page.size() >= pageSize);
+            
+            if (!changedServiceIds.isEmpty()) {
+                logger.debug("Applying route change logs up to {} for {} services", cursor, changedServiceIds.size());
+                applyChangedRoutes(changedServiceIds, apiServiceExecutor.getServiceRoutes(changedServiceIds));
+            }
+            if (cursor > changeLogCursor) {
+                changeLogCursor = cursor;
+            }
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+    
+    /**
+     * 执行增量服务发现，尚未完成全量对账时执行全量
      */
-    public synchronized void discoverAndUpdateServices() {
+    public void refreshChangedServices() {
+        discoveryLock.lock();
+        try {
+            if (watermark == null) {
+                doDiscoverAndUpdateServices();
+            } else {
+                doRefreshChangedServices();
+            }
+        } finally {
+            discoveryLock.unlock();
+        }
+    }
+    
+    private void doDiscoverAndUpdateServices() {
         logger.debug("Starting service discovery and update process...");
         LocalDateTime scanStartTime = LocalDateTime.now();
         
         // 记录发现开始事件
         Map<String, Object> discoveryStartDetails = new HashMap<>();
         discoveryStartDetails.put("scanStartTime", scanStartTime);
-        discoveryStartDetails.put("currentActiveServices", activeServices.size());
+        discoveryStartDetails.put("currentActiveServices", routeTable.get().size());
         logServiceDiscoveryEvent("DISCOVERY_START", "Service discovery process started", discoveryStartDetails);
         
         try {
-            // 获取所有已发布的API服务
-            List<ApiServiceResponse> publishedServices = getPublishedApiServices();
-            logger.debug("Found {} published API services", publishedServices.size());
+            // 先记录变更日志位置，扫描期间产生的变更之后会再拉取一次
+            Long latestChangeLogId = apiServiceExecutor.getLatestChangeLogId();
             
-            // 构建新的服务映射
+            // 按ID键集分页获取所有已发布的API服务，构建新的服务映射
             Map<String, ApiServiceInfo> newServiceMap = new HashMap<>();
-            
-            for (ApiServiceResponse service : publishedServices) {
-                try {
-                    // 获取活跃版本
-                    ApiServiceVersionResponse activeVersion = getActiveVersion(service.getId());
-                    if (activeVersion != null) {
-                        ApiServiceInfo serviceInfo = createServiceInfo(service, activeVersion);
-                        newServiceMap.put(serviceInfo.getServiceKey(), serviceInfo);
-                    }
-                } catch (Exception e) {
-                    logger.warn("Failed to process service {}: {}", service.getId(), e.getMessage());
-                    
-                    // 记录处理失败日志
-                    Map<String, Object> errorDetails = new HashMap<>();
-                    errorDetails.put("serviceId", service.getId());
-                    errorDetails.put("serviceName", service.getName());
-                    errorDetails.put("error", e.getMessage());
-                    logServiceDiscoveryEvent("PROCESS_ERROR", 
-                                           "Failed to process service: " + service.getId(), 
-                                           errorDetails);
+            int publishedServicesCount = 0;
+            long afterId = 0L;
+            List<ApiServiceRoute> page;
+            do {
+                page = apiServiceExecutor.getPublishedServiceRoutes(afterId, pageSize);
+                for (ApiServiceRoute route : page) {
+                    ApiServiceInfo serviceInfo = createServiceInfo(route);
+                    newServiceMap.put(serviceInfo.getServiceKey(), serviceInfo);
                 }
-            }
-            
-            // 检测服务变更
-            detectServiceChanges(newServiceMap);
+                publishedServicesCount += page.size();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getServiceId();
+                }
+            } while (page.size() >= pageSize);
+            logger.debug("Found {} published API services", publishedServicesCount);
             
-            // 更新服务缓存
-            activeServices.clear();
-            activeServices.putAll(newServiceMap);
+            // 检测服务变更并发布路由表
+            publishRouteTable(current -> newServiceMap);
             
             lastScanTime = scanStartTime;
+            if (watermark == null || scanStartTime.isAfter(watermark)) {
+                watermark = scanStartTime;
+            }
+            if (changeLogCursor == null || latestChangeLogId > changeLogCursor) {
+                changeLogCursor = latestChangeLogId;
+            }
             
             logger.info("Service discovery completed. Active services: {}, Added: {}, Updated: {}, Removed: {}",
-                       activeServices.size(),
+                       routeTable.get().size(),
                        changeStatistics.get("added"),
                        changeStatistics.get("updated"), 
                        changeStatistics.get("removed"));
@@ -149,8 +374,9 @@ public class ApiServiceDiscoveryService {
             Map<String, Object> discoveryCompleteDetails = new HashMap<>();
             discoveryCompleteDetails.put("scanStartTime", scanStartTime);
             discoveryCompleteDetails.put("scanEndTime", LocalDateTime.now());
-            discoveryCompleteDetails.put("publishedServicesCount", publishedServices.size());
-            discoveryCompleteDetails.put("activeServicesCount", activeServices.size());
+            discoveryCompleteDetails.put("publishedServicesCount", publishedServicesCount);
+            discoveryCompleteDetails.put("activeServicesCount", routeTable.get().size());
+            discoveryCompleteDetails.put("routeTableVersion", routeTable.get().getVersion());
             discoveryCompleteDetails.put("servicesAdded", changeStatistics.get("added"));
             discoveryCompleteDetails.put("servicesUpdated", changeStatistics.get("updated"));
             discoveryCompleteDetails.put("servicesRemoved", changeStatistics.get("removed"));
@@ -172,72 +398,187 @@ public class ApiServiceDiscoveryService {
     }
     
     /**
-     * 获取所有已发布的API服务
+     * 增量发现：从水位开始按 (updatedAt, id) 键集分页拉取变更的服务，只替换这些服务的路由
      */
-    private List<ApiServiceResponse> getPublishedApiServices() {
+    private void doRefreshChangedServices() {
+        LocalDateTime scanStartTime = LocalDateTime.now();
+        LocalDateTime cursorTime = watermark.minus(Duration.ofMillis(watermarkOverlapMs));
+        long cursorId = 0L;
+        LocalDateTime newWatermark = watermark;
+        
         try {
-            Page<ApiServiceResponse> servicesPage = apiServiceExecutor.getPublishedApiServices(
-                PageRequest.of(0, 1000)
-            );
-            return servicesPage.getContent();
+            Set<Long> changedServiceIds = new HashSet<>();
+            List<ApiServiceRoute> changedRoutes = new ArrayList<>();
+            List<ApiServiceRoute> page;
+            do {
+                page = apiServiceExecutor.getChangedServiceRoutes(cursorTime, cursorId, pageSize);
+                for (ApiServiceRoute route : page) {
+                    changedServiceIds.add(route.getServiceId());
+                    changedRoutes.add(route);
+                }
+                if (!page.isEmpty()) {
+                    ApiServiceRoute last = page.get(page.size() - 1);
+                    cursorTime = last.getUpdatedAt();
+                    cursorId = last.getServiceId();
+                    if (cursorTime.isAfter(newWatermark)) {
+                        newWatermark = cursorTime;
+                    }
+                }
+            } while (page.size() >= pageSize);
+            
+            if (!changedServiceIds.isEmpty()) {
+                logger.debug("Found {} API services changed since {}", changedServiceIds.size(), watermark);
+                applyChangedRoutes(changedServiceIds, changedRoutes);
+            }
+            
+            lastScanTime = scanStartTime;
+            // 预热期间释放锁，其他扫描可能已推进水位
+            if (newWatermark.isAfter(watermark)) {
+                watermark = newWatermark;
+            }
         } catch (Exception e) {
-            logger.error("Failed to get published API services", e);
-            return List.of();
+            // 水位不前移，下一轮从原水位重新扫描
+            logger.error("Error during incremental service discovery", e);
+            Map<String, Object> errorDetails = new HashMap<>();
+            errorDetails.put("error", e.getMessage());
+            errorDetails.put("watermark", watermark);
+            logServiceDiscoveryEvent("DISCOVERY_ERROR", 
+                                   "Incremental service discovery failed: " + e.getMessage(), 
+                                   errorDetails);
+        }
+    }
+    
+    /**
+     * 在当前路由表基础上替换变更的服务，未变更的服务原样保留
+     * @param changedServiceIds 变更的服务ID，其现有路由全部移除
+     * @param routes 变更服务的最新路由，只有已发布且有激活版本的会重新加入
+     */
+    private void applyChangedRoutes(Set<Long> changedServiceIds, List<ApiServiceRoute> routes) {
+        publishRouteTable(current -> {
+            Map<String, ApiServiceInfo> newServiceMap = new HashMap<>(current.getServices());
+            newServiceMap.values().removeIf(service -> changedServiceIds.contains(service.getServiceId()));
+            for (ApiServiceRoute route : routes) {
+                if (route.getStatus() == ApiStatus.PUBLISHED && route.hasActiveVersion()) {
+                    ApiServiceInfo serviceInfo = createServiceInfo(route);
+                    newServiceMap.put(serviceInfo.getServiceKey(), serviceInfo);
+                }
+            }
+            return newServiceMap;
+        });
+    }
+    
+    /**
+     * 检测服务变更，有变更时发布新的路由表快照，单次引用替换
+     * 新增和更新的服务先编译执行计划并预热，执行计划在路由表替换时一并安装，
+     * 预热期间旧路由和旧执行计划继续提供服务；下线和清理在路由表替换后执行。
+     * 预热访问业务数据库，期间释放服务发现锁；其他发现在此期间替换了路由表时按新路由表重新计算
+     * @param nextServices 由当前路由表计算新的服务映射
+     */
+    private void publishRouteTable(Function<RouteTable, Map<String, ApiServiceInfo>> nextServices) {
+        RouteTable current;
+        Map<String, ApiServiceInfo> newServiceMap;
+        Map<Long, ApiExecutionPlan> preparedPlans;
+        do {
+            current = routeTable.get();
+            newServiceMap = nextServices.apply(current);
+            RouteTable base = current;
+            Map<String, ApiServiceInfo> services = newServiceMap;
+            preparedPlans = withoutDiscoveryLock(() -> prepareExecutionPlans(base, services));
+        } while (routeTable.get() != current);
+        
+        List<ApiServiceInfo> retiredServices = new ArrayList<>();
+        int changes = detectServiceChanges(current, newServiceMap, preparedPlans, retiredServices);
+        if (changes > 0) {
+            RouteTable next = current.next(newServiceMap);
+            preparedPlans.values().forEach(planRegistry::install);
+            routeTable.set(next);
+            logger.info("Published route table version {} with {} services", next.getVersion(), next.size());
+            retiredServices.forEach(this::retireService);
+            snapshotStore.save(next);
         }
     }
     
     /**
-     * 获取API服务的活跃版本
+     * 临时释放当前线程持有的服务发现锁执行操作，结束后重新获取
      */
-    private ApiServiceVersionResponse getActiveVersion(Long serviceId) {
+    private <T> T withoutDiscoveryLock(Supplier<T> action) {
+        int holds = discoveryLock.getHoldCount();
+        for (int i = 0; i < holds; i++) {
+            discoveryLock.unlock();
+        }
         try {
-            Page<ApiServiceVersionResponse> versions = apiServiceExecutor.getVersions(
-                serviceId, 1L, PageRequest.of(0, 10)
-            );
-            
-            return versions.getContent().stream()
-                    .filter(ApiServiceVersionResponse::getIsActive)
-                    .findFirst()
-                    .orElse(null);
-        } catch (Exception e) {
-            logger.warn("Failed to get active version for service {}: {}", serviceId, e.getMessage());
-            return null;
+            return action.get();
+        } finally {
+            for (int i = 0; i < holds; i++) {
+                discoveryLock.lock();
+            }
         }
     }
     
     /**
-     * 创建API服务信息对象
+     * 为新增和更新的服务编译执行计划并预热，不安装
+     * @return 服务ID到执行计划的映射，编译失败的服务不在其中
      */
-    private ApiServiceInfo createServiceInfo(ApiServiceResponse service, ApiServiceVersionResponse version) {
+    private Map<Long, ApiExecutionPlan> prepareExecutionPlans(RouteTable current,
+                                                             Map<String, ApiServiceInfo> newServiceMap) {
+        Map<Long, ApiExecutionPlan> preparedPlans = new HashMap<>();
+        for (Map.Entry<String, ApiServiceInfo> entry : newServiceMap.entrySet()) {
+            ApiServiceInfo existing = current.getService(entry.getKey());
+            ApiServiceInfo service = entry.getValue();
+            if (existing == null || isServiceUpdated(existing, service)) {
+                connectionPoolService.ensureDataSourceConnection(service.getDataSourceId());
+                ApiExecutionPlan plan = compileExecutionPlan(service);
+                if (plan != null) {
+                    warmUpExecutionPlan(plan);
+                    preparedPlans.put(service.getServiceId(), plan);
+                }
+            }
+        }
+        return preparedPlans;
+    }
+    
+    /**
+     * 由服务路由投影创建API服务信息对象
+     */
+    private ApiServiceInfo createServiceInfo(ApiServiceRoute route) {
         ApiServiceInfo serviceInfo = new ApiServiceInfo(
-            service.getId(),
-            service.getName(),
-            service.getPath(),
-            service.getMethod().name(),
-            version.getVersion(),
-            version.getIsActive(),
-            version.getSqlContent(),
-            service.getDataSourceId()
+            route.getServiceId(),
+            route.getName(),
+            route.getPath(),
+            route.getMethod().name(),
+            route.getVersion(),
+            route.hasActiveVersion(),
+            route.getSqlContent(),
+            route.getDataSourceId()
         );
         
-        serviceInfo.setDescription(service.getDescription());
-        serviceInfo.setCreatedBy(String.valueOf(service.getCreatedBy()));
-        serviceInfo.setCreatedAt(service.getCreatedAt());
-        serviceInfo.setUpdatedAt(service.getUpdatedAt());
+        serviceInfo.setDescription(route.getDescription());
+        serviceInfo.setTenantId(route.getTenantId());
+        serviceInfo.setCreatedBy(String.valueOf(route.getCreatedBy()));
+        serviceInfo.setCreatedAt(route.getCreatedAt());
+        serviceInfo.setUpdatedAt(route.getUpdatedAt());
+        serviceInfo.setCacheEnabled(route.getCacheEnabled());
+        serviceInfo.setCacheDuration(route.getCacheDuration());
+        serviceInfo.setRateLimit(route.getRateLimit());
+        serviceInfo.setCoalescingEnabled(route.getCoalescingEnabled());
+        serviceInfo.setQueryTimeout(route.getQueryTimeout());
+        serviceInfo.setMaxResultRows(route.getMaxResultRows());
+        serviceInfo.setMaxResultBytes(route.getMaxResultBytes());
+        serviceInfo.setPaginationEnabled(route.getPaginationEnabled());
+        serviceInfo.setPaginationKey(route.getPaginationKey());
+        serviceInfo.setPageSize(route.getPageSize());
         
-        // 获取数据源配置信息
-        try {
-            DataSourceResponse dataSource = dataSourceService.getDataSourceById(service.getDataSourceId(), 1L);
+        // 数据源配置信息来自同一次关联查询
+        if (route.getDataSourceName() != null) {
             Map<String, Object> dataSourceConfig = new HashMap<>();
-            dataSourceConfig.put("name", dataSource.getName());
-            dataSourceConfig.put("type", dataSource.getType());
-            dataSourceConfig.put("host", dataSource.getHost());
-            dataSourceConfig.put("port", dataSource.getPort());
-            dataSourceConfig.put("database", dataSource.getDatabase());
+            dataSourceConfig.put("name", route.getDataSourceName());
+            dataSourceConfig.put("type", route.getDataSourceType());
+            dataSourceConfig.put("host", route.getDataSourceHost());
+            dataSourceConfig.put("port", route.getDataSourcePort());
+            dataSourceConfig.put("database", route.getDataSourceDatabase());
             serviceInfo.setDataSourceConfig(dataSourceConfig);
-        } catch (Exception e) {
-            logger.warn("Failed to get datasource config for service {}: {}", 
-                       service.getId(), e.getMessage());
+        } else {
+            logger.warn("Datasource {} not found for service {}", route.getDataSourceId(), route.getServiceId());
         }
         
         return serviceInfo;
@@ -245,43 +586,58 @@ public class ApiServiceDiscoveryService {
     
     /**
      * 检测服务变更
+     * @param preparedPlans 新增和更新服务已编译的执行计划
+     * @param retiredServices 收集路由表替换后需要下线的服务
+     * @return 变更的服务数
      */
-    private void detectServiceChanges(Map<String, ApiServiceInfo> newServiceMap) {
+    private int detectServiceChanges(RouteTable current, Map<String, ApiServiceInfo> newServiceMap,
+                                     Map<Long, ApiExecutionPlan> preparedPlans,
+                                     List<ApiServiceInfo> retiredServices) {
+        int changes = 0;
         // 检测新增和更新的服务
         for (Map.Entry<String, ApiServiceInfo> entry : newServiceMap.entrySet()) {
             String serviceKey = entry.getKey();
             ApiServiceInfo newService = entry.getValue();
-            ApiServiceInfo existingService = activeServices.get(serviceKey);
+            ApiServiceInfo existingService = current.getService(serviceKey);
             
             if (existingService == null) {
                 // 新增服务
                 handleServiceAdded(newService);
                 changeStatistics.merge("added", 1, Integer::sum);
+                changes++;
             } else if (isServiceUpdated(existingService, newService)) {
                 // 更新服务
                 handleServiceUpdated(existingService, newService);
+                if (!preparedPlans.containsKey(newService.getServiceId())) {
+                    // 新版本编译失败，下线旧计划，留待首次请求按新版本编译
+                    retiredServices.add(existingService);
+                }
                 changeStatistics.merge("updated", 1, Integer::sum);
+                changes++;
             }
         }
         
         // 检测删除的服务
-        for (Map.Entry<String, ApiServiceInfo> entry : activeServices.entrySet()) {
+        for (Map.Entry<String, ApiServiceInfo> entry : current.getServices().entrySet()) {
             String serviceKey = entry.getKey();
             if (!newServiceMap.containsKey(serviceKey)) {
                 // 删除服务
                 handleServiceRemoved(entry.getValue());
+                retiredServices.add(entry.getValue());
                 changeStatistics.merge("removed", 1, Integer::sum);
+                changes++;
             }
         }
+        return changes;
     }
     
     /**
      * 判断服务是否已更新
      */
     private boolean isServiceUpdated(ApiServiceInfo existing, ApiServiceInfo newService) {
-        return !existing.getUpdatedAt().equals(newService.getUpdatedAt()) ||
-               !existing.getSqlContent().equals(newService.getSqlContent()) ||
-               !existing.getIsActive().equals(newService.getIsActive());
+        return !Objects.equals(existing.getUpdatedAt(), newService.getUpdatedAt()) ||
+               !Objects.equals(existing.getSqlContent(), newService.getSqlContent()) ||
+               !Objects.equals(existing.getIsActive(), newService.getIsActive());
     }
     
     /**
@@ -296,13 +652,10 @@ public class ApiServiceDiscoveryService {
         
         // 记录服务新增日志
         logServiceChange("added", service, "New service discovered");
-        
-        // 确保数据源连接池可用
-        connectionPoolService.ensureDataSourceConnection(service.getDataSourceId());
     }
     
     /**
-     * 处理服务更新
+     * 处理服务更新，旧结果缓存失效
      */
     private void handleServiceUpdated(ApiServiceInfo oldService, ApiServiceInfo newService) {
         logger.info("API service updated: {} [{}:{}:{}]", 
@@ -314,8 +667,7 @@ public class ApiServiceDiscoveryService {
         // 记录服务更新日志
         logServiceChange("updated", newService, "Service configuration updated");
         
-        // 确保数据源连接池可用
-        connectionPoolService.ensureDataSourceConnection(newService.getDataSourceId());
+        resultCache.invalidateService(newService.getServiceId());
     }
     
     /**
@@ -330,34 +682,78 @@ public class ApiServiceDiscoveryService {
         
         // 记录服务删除日志
         logServiceChange("removed", service, "Service no longer available");
+    }
+    
+    /**
+     * 路由表替换后下线服务的执行计划并清理结果缓存
+     */
+    private void retireService(ApiServiceInfo service) {
+        planRegistry.retire(service.getServiceId(), service.getVersion());
+        resultCache.invalidateService(service.getServiceId());
+        if (!planRegistry.hasPlan(service.getServiceId())) {
+            rateLimiter.remove(service.getServiceId());
+        }
         
         // 检查是否需要清理数据源连接池
         connectionPoolService.checkAndCleanupDataSourceConnection(service.getDataSourceId());
     }
     
+    /**
+     * 编译执行计划，失败时留待首次请求再编译
+     * @return 执行计划，失败时返回null
+     */
+    private ApiExecutionPlan compileExecutionPlan(ApiServiceInfo service) {
+        try {
+            return planRegistry.compile(service);
+        } catch (Exception e) {
+            logger.warn("Failed to compile execution plan for service {}: {}",
+                       service.getServiceKey(), e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 预热执行计划所用的连接池：建满最小空闲连接，执行测试查询并预编译服务SQL
+     * 在路由表发布前执行，路由上线时首批请求不再承担建连和语句解析的开销
+     */
+    private void warmUpExecutionPlan(ApiExecutionPlan plan) {
+        connectionPoolService.warmUp(plan.getDataSourceId(), plan.getWarmUpStatements());
+    }
+    
     /**
      * 获取当前活跃服务列表
      */
     public List<ApiServiceInfo> getActiveServices() {
-        return activeServices.values().stream().collect(Collectors.toList());
+        return new ArrayList<>(routeTable.get().getServices().values());
     }
     
     /**
      * 根据服务键获取服务信息
      */
     public ApiServiceInfo getService(String serviceKey) {
-        return activeServices.get(serviceKey);
+        return routeTable.get().getService(serviceKey);
     }
     
     /**
      * 根据路径和方法获取服务信息
      */
     public ApiServiceInfo getService(String method, String path) {
-        return activeServices.values().stream()
-                .filter(service -> service.getHttpMethod().equalsIgnoreCase(method) && 
-                                 service.getServicePath().equals(path))
-                .findFirst()
-                .orElse(null);
+        RouteMatch match = routeTable.get().match(method, path);
+        return match != null ? match.getService() : null;
+    }
+    
+    /**
+     * 根据路径和方法匹配路由，包含提取的路径变量
+     */
+    public RouteMatch matchRoute(String method, String path) {
+        return routeTable.get().match(method, path);
+    }
+    
+    /**
+     * 获取当前路由表快照
+     */
+    public RouteTable getRouteTable() {
+        return routeTable.get();
     }
     
     /**
@@ -381,11 +777,25 @@ public class ApiServiceDiscoveryService {
         return lastScanTime;
     }
     
+    /**
+     * 获取当前更新时间水位
+     */
+    public LocalDateTime getWatermark() {
+        return watermark;
+    }
+    
+    /**
+     * 获取已应用的最大路由变更日志ID
+     */
+    public Long getChangeLogCursor() {
+        return changeLogCursor;
+    }
+    
     /**
      * 获取服务总数
      */
     public int getActiveServiceCount() {
-        return activeServices.size();
+        return routeTable.get().size();
     }
     
     /**
@@ -403,7 +813,7 @@ public class ApiServiceDiscoveryService {
         log.setRequestParameters(details);
         log.setExecutedSqlScript("N/A");
         log.setIsSuccess(true);
-        log.setRecordCount(activeServices.size());
+        log.setRecordCount(routeTable.get().size());
         log.setResponseSizeBytes(0L);
         log.setClientIpAddress("127.0.0.1");
         log.setUserAgent("ApiServiceDiscoveryService");
@@ -1,20 +1,26 @@
 package org.duqiu.fly.autoapi.gateway.service;
 
 import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
 import org.duqiu.fly.autoapi.datasource.factory.UnifiedDataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.jdbc.HikariConnectionPool;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 数据源连接池服务
@@ -31,6 +37,12 @@ public class DataSourceConnectionPoolService {
     @Autowired
     private UnifiedDataSourceFactory dataSourceFactory;
     
+    /**
+     * 路由上线前是否预热连接池和语句
+     */
+    @Value("${app.gateway.warmup.enabled:true}")
+    private boolean warmUpEnabled = true;
+    
     /**
      * 活跃的数据源连接池映射
      * Key: 数据源ID
@@ -45,6 +57,19 @@ public class DataSourceConnectionPoolService {
      */
     private final Map<Long, AtomicInteger> dataSourceUsageCount = new ConcurrentHashMap<>();
     
+    /**
+     * 已解析的数据源配置
+     * Key: 数据源ID
+     * Value: 数据源实体（数据面请求直接使用，避免回查管理库）
+     */
+    private final Map<Long, DataSource> resolvedDataSources = new ConcurrentHashMap<>();
+    
+    /**
+     * 连接池创建/清理锁
+     * 创建连接池会访问管理库并建立连接，使用ReentrantLock避免虚拟线程钉住载体线程
+     */
+    private final ReentrantLock poolLock = new ReentrantLock();
+    
     /**
      * 初始化服务
      */
@@ -69,7 +94,7 @@ public class DataSourceConnectionPoolService {
                 .incrementAndGet();
             
             // 如果连接池不存在，则创建
-            if (!activeConnectionPools.containsKey(dataSourceId)) {
+            if (!resolvedDataSources.containsKey(dataSourceId)) {
                 createConnectionPool(dataSourceId);
             }
             
@@ -84,23 +109,87 @@ public class DataSourceConnectionPoolService {
      * 创建数据源连接池
      * @param dataSourceId 数据源ID
      */
-    private synchronized void createConnectionPool(Long dataSourceId) {
-        if (activeConnectionPools.containsKey(dataSourceId)) {
-            return;
-        }
-        
+    private void createConnectionPool(Long dataSourceId) {
+        poolLock.lock();
         try {
+            if (resolvedDataSources.containsKey(dataSourceId)) {
+                return;
+            }
+            
             DataSource dataSource = dataSourceRepository.findById(dataSourceId)
                 .orElseThrow(() -> new IllegalArgumentException("DataSource not found: " + dataSourceId));
             
+            // 非JDBC数据源没有连接池，仅缓存数据源配置
             ConnectionPool connectionPool = dataSourceFactory.getConnectionPool(dataSource);
-            activeConnectionPools.put(dataSourceId, connectionPool);
+            if (connectionPool != null) {
+                activeConnectionPools.put(dataSourceId, connectionPool);
+            }
+            resolvedDataSources.put(dataSourceId, dataSource);
             
             logger.info("Created connection pool for datasource: {} ({})", 
                        dataSourceId, dataSource.getName());
             
         } catch (Exception e) {
             logger.error("Failed to create connection pool for datasource: {}", dataSourceId, e);
+        } finally {
+            poolLock.unlock();
+        }
+    }
+    
+    /**
+     * 数据源配置变更后刷新缓存的配置和连接池句柄，未使用过的数据源不做处理
+     * 连接池切换由数据源工厂完成，旧池句柄上的新借用也会转到新池
+     * @param dataSourceId 数据源ID
+     * @return 是否刷新了该数据源
+     */
+    public boolean refreshDataSource(Long dataSourceId) {
+        poolLock.lock();
+        try {
+            if (!resolvedDataSources.containsKey(dataSourceId)) {
+                return false;
+            }
+            DataSource dataSource = dataSourceRepository.findById(dataSourceId).orElse(null);
+            if (dataSource == null) {
+                return false;
+            }
+            ConnectionPool connectionPool = dataSourceFactory.getConnectionPool(dataSource);
+            if (connectionPool != null) {
+                activeConnectionPools.put(dataSourceId, connectionPool);
+            } else {
+                activeConnectionPools.remove(dataSourceId);
+            }
+            resolvedDataSources.put(dataSourceId, dataSource);
+            logger.info("Refreshed datasource {} ({}) after configuration change", dataSourceId, dataSource.getName());
+            return true;
+        } finally {
+            poolLock.unlock();
+        }
+    }
+    
+    /**
+     * 预热数据源连接池：建满最小空闲连接，在每个连接上执行数据源的测试查询并预编译给定语句
+     * 非JDBC数据源或未建立连接池时不做处理，预热失败只记录日志
+     * @param dataSourceId 数据源ID
+     * @param statements 需要预编译的语句
+     * @return 完成预热的连接数
+     */
+    public int warmUp(Long dataSourceId, Collection<String> statements) {
+        if (!warmUpEnabled || dataSourceId == null) {
+            return 0;
+        }
+        DataSource dataSource = resolvedDataSources.get(dataSourceId);
+        if (dataSource == null || !(activeConnectionPools.get(dataSourceId) instanceof HikariConnectionPool pool)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try {
+            int warmed = pool.warmUp(dataSource.getTestQuery(), statements);
+            logger.debug("Warmed {} connections with {} statements for datasource {} in {} ms",
+                        warmed, statements.size(), dataSourceId, (System.nanoTime() - start) / 1_000_000);
+            return warmed;
+        } catch (Exception e) {
+            logger.warn("Failed to warm up connection pool for datasource {}: {}", dataSourceId, e.getMessage());
+            return 0;
         }
     }
     
@@ -146,18 +235,27 @@ public class DataSourceConnectionPoolService {
     
     /**
      * 清理数据源连接池
+     * 连接池归数据源工厂所有，可能按配置指纹与其他数据源或管理端共享，不能在这里直接关闭；
+     * 通过工厂释放，仍被共享的池保留，借出的连接归还后再关闭
      * @param dataSourceId 数据源ID
      */
-    private synchronized void cleanupConnectionPool(Long dataSourceId) {
-        ConnectionPool connectionPool = activeConnectionPools.remove(dataSourceId);
-        dataSourceUsageCount.remove(dataSourceId);
+    private void cleanupConnectionPool(Long dataSourceId) {
+        DataSource dataSource;
+        poolLock.lock();
+        try {
+            activeConnectionPools.remove(dataSourceId);
+            dataSourceUsageCount.remove(dataSourceId);
+            dataSource = resolvedDataSources.remove(dataSourceId);
+        } finally {
+            poolLock.unlock();
+        }
         
-        if (connectionPool != null) {
+        if (dataSource != null) {
             try {
-                connectionPool.close();
-                logger.info("Closed connection pool for datasource: {}", dataSourceId);
+                dataSourceFactory.releaseDataSource(dataSourceId);
+                logger.info("Released connection pool for datasource: {}", dataSourceId);
             } catch (Exception e) {
-                logger.warn("Failed to close connection pool for datasource: {}", dataSourceId, e);
+                logger.warn("Failed to release connection pool for datasource: {}", dataSourceId, e);
             }
         }
     }
@@ -172,7 +270,7 @@ public class DataSourceConnectionPoolService {
         
         try {
             // 获取所有活跃的数据源ID
-            activeConnectionPools.keySet().forEach(dataSourceId -> {
+            resolvedDataSources.keySet().forEach(dataSourceId -> {
                 if (!isDataSourceInUse(dataSourceId)) {
                     cleanupConnectionPool(dataSourceId);
                     logger.info("Scheduled cleanup: removed unused connection pool for datasource: {}", dataSourceId);
@@ -195,6 +293,43 @@ public class DataSourceConnectionPoolService {
         return activeConnectionPools.get(dataSourceId);
     }
     
+    /**
+     * 获取已解析的数据源配置，未解析时按需建立连接池
+     * @param dataSourceId 数据源ID
+     * @return 数据源实体，不可用时返回null
+     */
+    public DataSource resolveDataSource(Long dataSourceId) {
+        if (!resolvedDataSources.containsKey(dataSourceId)) {
+            createConnectionPool(dataSourceId);
+        }
+        return resolvedDataSources.get(dataSourceId);
+    }
+    
+    /**
+     * 获取数据源连接
+     * 优先从已建立的连接池借用；非JDBC数据源按缓存的配置直接创建连接。
+     * 调用方负责关闭返回的连接（池化连接关闭即归还）。
+     * @param dataSourceId 数据源ID
+     * @return 数据源连接
+     */
+    public DataSourceConnection acquireConnection(Long dataSourceId) {
+        if (!resolvedDataSources.containsKey(dataSourceId)) {
+            // 服务发现阶段未能建立连接池时，按需补建一次
+            createConnectionPool(dataSourceId);
+        }
+        
+        ConnectionPool connectionPool = activeConnectionPools.get(dataSourceId);
+        if (connectionPool != null) {
+            return connectionPool.getConnection();
+        }
+        
+        DataSource dataSource = resolvedDataSources.get(dataSourceId);
+        if (dataSource == null) {
+            throw new IllegalStateException("数据源不可用: " + dataSourceId);
+        }
+        return dataSourceFactory.createConnection(dataSource);
+    }
+    
     /**
      * 获取活跃连接池数量
      * @return 连接池数量
@@ -214,23 +349,43 @@ public class DataSourceConnectionPoolService {
     }
     
     /**
-     * 服务销毁时清理所有连接池
+     * 获取连接池借用/归还统计
+     * @return 数据源ID到统计快照的映射
+     */
+    public Map<Long, HikariConnectionPool.PoolMetrics> getPoolMetrics() {
+        Map<Long, HikariConnectionPool.PoolMetrics> metrics = new ConcurrentHashMap<>();
+        activeConnectionPools.forEach((id, pool) -> {
+            if (pool instanceof HikariConnectionPool hikariPool) {
+                metrics.put(id, hikariPool.getMetrics());
+            }
+        });
+        return metrics;
+    }
+    
+    /**
+     * 获取各数据源当前使用的HikariCP连接池
+     * @return 数据源ID到连接池的映射
+     */
+    public Map<Long, HikariConnectionPool> getHikariConnectionPools() {
+        Map<Long, HikariConnectionPool> pools = new HashMap<>();
+        activeConnectionPools.forEach((id, pool) -> {
+            if (pool instanceof HikariConnectionPool hikariPool) {
+                pools.put(id, hikariPool);
+            }
+        });
+        return pools;
+    }
+    
+    /**
+     * 服务销毁时清理连接池句柄，连接池本身由数据源工厂销毁时关闭
      */
     @PreDestroy
     public void cleanupAll() {
         logger.info("Cleaning up all connection pools...");
         
-        activeConnectionPools.forEach((dataSourceId, connectionPool) -> {
-            try {
-                connectionPool.close();
-                logger.info("Closed connection pool for datasource: {}", dataSourceId);
-            } catch (Exception e) {
-                logger.warn("Failed to close connection pool for datasource: {}", dataSourceId, e);
-            }
-        });
-        
         activeConnectionPools.clear();
         dataSourceUsageCount.clear();
+        resolvedDataSources.clear();
         
         logger.info("All connection pools cleaned up");
     }
@@ -11,8 +11,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,9 +32,19 @@ public class ServiceRequestLogService {
     private final Map<String, ServiceRequestLog> requestLogs = new ConcurrentHashMap<>();
     
     /**
-     * 异步日志处理线程池
+     * 排队中的日志任务上限，超过后由调用线程直接处理
      */
-    private ThreadPoolExecutor logExecutor;
+    private static final int MAX_PENDING_LOGS = 1000;
+    
+    /**
+     * 异步日志处理执行器（每个任务一个虚拟线程）
+     */
+    private ExecutorService logExecutor;
+    
+    /**
+     * 排队中的日志任务许可
+     */
+    private final Semaphore pendingLogs = new Semaphore(MAX_PENDING_LOGS);
     
     /**
      * 初始化服务
@@ -41,15 +53,9 @@ public class ServiceRequestLogService {
     public void init() {
         logger.info("Initializing Service Request Log Service...");
         
-        // 创建异步日志处理线程池
-        logExecutor = new ThreadPoolExecutor(
-            2, // 核心线程数
-            5, // 最大线程数
-            60, // 空闲线程存活时间
-            TimeUnit.SECONDS,
-            new LinkedBlockingQueue<>(1000), // 队列容量
-            new ThreadPoolExecutor.CallerRunsPolicy() // 拒绝策略
-        );
+        // 日志处理只做内存写入和输出，使用虚拟线程，积压量由信号量限制
+        logExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("request-log-", 0).factory());
         
         logger.info("Service Request Log Service initialized");
     }
@@ -63,14 +69,33 @@ public class ServiceRequestLogService {
             return;
         }
         
+        // 积压已满时由调用线程处理，保持原 CallerRunsPolicy 语义
+        if (!pendingLogs.tryAcquire()) {
+            safeProcessLog(log);
+            return;
+        }
+        
         // 异步处理日志记录
-        logExecutor.submit(() -> {
-            try {
-                processLog(log);
-            } catch (Exception e) {
-                logger.error("Failed to process service request log: {}", log.getLogId(), e);
-            }
-        });
+        try {
+            logExecutor.execute(() -> {
+                try {
+                    safeProcessLog(log);
+                } finally {
+                    pendingLogs.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingLogs.release();
+            safeProcessLog(log);
+        }
+    }
+    
+    private void safeProcessLog(ServiceRequestLog log) {
+        try {
+            processLog(log);
+        } catch (Exception e) {
+            logger.error("Failed to process service request log: {}", log.getLogId(), e);
+        }
     }
     
     /**
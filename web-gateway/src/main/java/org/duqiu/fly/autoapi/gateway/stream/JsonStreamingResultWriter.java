@@ -0,0 +1,104 @@
+package org.duqiu.fly.autoapi.gateway.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.duqiu.fly.autoapi.datasource.core.ColumnarRowSet;
+import org.duqiu.fly.autoapi.datasource.core.RowStreamHandler;
+
+import java.io.IOException;
+
+/**
+ * 流式JSON结果输出
+ * 输出结构与 Result&lt;Map&gt; 一致：{"success":true,"code":"200","message":"成功","data":{"data":[...],"count":n}}
+ */
+public class JsonStreamingResultWriter implements RowStreamHandler {
+
+    private final JsonGenerator generator;
+    private String[] columnNames;
+    private boolean started;
+    private boolean completed;
+    /**
+     * 已输出行数，活跃查询列表会从其他线程读取
+     */
+    private volatile long rowCount;
+
+    public JsonStreamingResultWriter(JsonGenerator generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public void onStart(String[] columnNames) throws IOException {
+        this.columnNames = columnNames.clone();
+        generator.writeStartObject();
+        generator.writeBooleanField("success", true);
+        generator.writeStringField("code", "200");
+        generator.writeStringField("message", "成功");
+        generator.writeObjectFieldStart("data");
+        generator.writeArrayFieldStart("data");
+        started = true;
+    }
+
+    @Override
+    public void onRow(Object[] values) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < columnNames.length; i++) {
+            generator.writeFieldName(columnNames[i]);
+            generator.writeObject(values[i]);
+        }
+        generator.writeEndObject();
+        rowCount++;
+    }
+
+    @Override
+    public void onComplete(long rowCount) throws IOException {
+        finish(null);
+    }
+
+    /**
+     * 输出已物化的结果（不支持流式的数据源），缺失的字段不输出
+     */
+    public void writeRowSet(ColumnarRowSet rowSet) throws IOException {
+        onStart(rowSet.getColumnNames());
+        for (int row = 0; row < rowSet.getRowCount(); row++) {
+            generator.writeStartObject();
+            for (int column = 0; column < columnNames.length; column++) {
+                if (rowSet.isPresent(row, column)) {
+                    generator.writeFieldName(columnNames[column]);
+                    generator.writeObject(rowSet.getValue(row, column));
+                }
+            }
+            generator.writeEndObject();
+            rowCount++;
+        }
+        onComplete(rowCount);
+    }
+
+    /**
+     * 输出中途失败时收尾，保证JSON结构完整并附带错误信息
+     */
+    public void fail(String errorMessage) throws IOException {
+        if (started && !completed) {
+            finish(errorMessage);
+        }
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void finish(String errorMessage) throws IOException {
+        generator.writeEndArray();
+        generator.writeNumberField("count", rowCount);
+        if (errorMessage != null) {
+            generator.writeBooleanField("truncated", true);
+            generator.writeStringField("error", errorMessage);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.flush();
+        completed = true;
+    }
+}
@@ -2,7 +2,10 @@ package org.duqiu.fly.autoapi.gateway;
 
 import org.duqiu.fly.autoapi.AutoApiApplication;
 import org.duqiu.fly.autoapi.api.model.ApiService;
+import org.duqiu.fly.autoapi.api.model.ApiServiceChangeLog;
+import org.duqiu.fly.autoapi.api.repository.ApiServiceChangeLogRepository;
 import org.duqiu.fly.autoapi.api.repository.ApiServiceRepository;
+import org.duqiu.fly.autoapi.api.repository.ApiServiceVersionRepository;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
 import org.duqiu.fly.autoapi.datasource.model.DataSource;
 import org.duqiu.fly.autoapi.datasource.repository.DataSourceRepository;
@@ -34,6 +37,12 @@ public class ServiceDiscoveryIntegrationTest {
     @Autowired
     private ApiServiceRepository apiServiceRepository;
 
+    @Autowired
+    private ApiServiceVersionRepository apiServiceVersionRepository;
+
+    @Autowired
+    private ApiServiceChangeLogRepository changeLogRepository;
+
     @Autowired
     private DataSourceRepository dataSourceRepository;
 
@@ -286,4 +295,53 @@ public class ServiceDiscoveryIntegrationTest {
         assertNotNull(foundService, "应该能找到服务");
         assertEquals(service.getId(), foundService.getServiceId());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testIncrementalDiscoveryAppliesChangedServicesOnly() {
+        // Given: 全量发现之后新建并激活一个服务版本
+        ApiService service = TestServiceFactory.createUserQueryService(testDataSourceId, 1L);
+        service.setTenantId(1L);
+        service = apiServiceRepository.save(service);
+        apiServiceVersionRepository.save(TestServiceFactory.createActiveVersion(service, "1.0"));
+        assertNotNull(apiServiceDiscoveryService.getWatermark(), "全量发现后应该设置水位");
+
+        // When
+        apiServiceDiscoveryService.refreshChangedServices();
+
+        // Then
+        ApiServiceInfo discovered = apiServiceDiscoveryService.getService("GET", "/api/users/42");
+        assertNotNull(discovered, "增量发现应该发现新服务");
+        assertEquals(service.getId(), discovered.getServiceId());
+
+        // When: 下线服务后再次增量发现
+        service.setStatus(ApiStatus.DISABLED);
+        apiServiceRepository.saveAndFlush(service);
+        apiServiceDiscoveryService.refreshChangedServices();
+
+        // Then
+        assertNull(apiServiceDiscoveryService.getService("GET", "/api/users/42"), "下线的服务应该被移除");
+    }
+
+    @Test
+    void testChangeLogPollingAppliesChangesFromOtherNodes() {
+        // Given: 另一个节点发布了服务并写入变更日志
+        ApiService service = TestServiceFactory.createProductService(testDataSourceId, 1L);
+        service.setTenantId(1L);
+        service = apiServiceRepository.save(service);
+        apiServiceVersionRepository.save(TestServiceFactory.createActiveVersion(service, "2.0"));
+        ApiServiceChangeLog changeLog = new ApiServiceChangeLog();
+        changeLog.setApiServiceId(service.getId());
+        changeLog.setChangeType(ApiServiceChangeLog.ChangeType.PUBLISHED);
+        changeLog.setVersion("2.0");
+        changeLog = changeLogRepository.save(changeLog);
+
+        // When
+        apiServiceDiscoveryService.applyChangeLogs();
+
+        // Then
+        ApiServiceInfo discovered = apiServiceDiscoveryService.getService("GET", "/api/products");
+        assertNotNull(discovered, "变更日志中的服务应该被发现");
+        assertEquals("2.0", discovered.getVersion());
+        assertEquals(changeLog.getId(), apiServiceDiscoveryService.getChangeLogCursor());
+    }
+}
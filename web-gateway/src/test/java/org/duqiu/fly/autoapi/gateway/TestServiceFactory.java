@@ -1,6 +1,7 @@
 package org.duqiu.fly.autoapi.gateway;
 
 import org.duqiu.fly.autoapi.api.model.ApiService;
+import org.duqiu.fly.autoapi.api.model.ApiServiceVersion;
 import org.duqiu.fly.autoapi.common.enums.ApiStatus;
 
 import java.util.HashMap;
@@ -29,6 +30,27 @@ public class TestServiceFactory {
         return service;
     }
 
+    /**
+     * 根据服务当前内容创建激活版本快照
+     */
+    public static ApiServiceVersion createActiveVersion(ApiService service, String version) {
+        ApiServiceVersion snapshot = new ApiServiceVersion();
+        snapshot.setApiServiceId(service.getId());
+        snapshot.setVersion(version);
+        snapshot.setName(service.getName());
+        snapshot.setDescription(service.getDescription());
+        snapshot.setPath(service.getPath());
+        snapshot.setMethod(service.getMethod());
+        snapshot.setDataSourceId(service.getDataSourceId());
+        snapshot.setSqlContent(service.getSqlContent());
+        snapshot.setStatus(ApiStatus.PUBLISHED);
+        snapshot.setIsActive(true);
+        snapshot.setCreatedBy(service.getCreatedBy());
+        snapshot.setUpdatedBy(service.getCreatedBy());
+        snapshot.setTenantId(service.getTenantId());
+        return snapshot;
+    }
+
     public static ApiService createMultiParamService(Long dataSourceId, Long creatorId) {
         ApiService service = new ApiService();
         service.setName("多参数查询服务");
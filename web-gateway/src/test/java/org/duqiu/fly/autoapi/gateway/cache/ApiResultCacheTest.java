@@ -0,0 +1,102 @@
+package org.duqiu.fly.autoapi.gateway.cache;
+
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * API结果缓存测试类
+ */
+class ApiResultCacheTest {
+
+    private ApiResultCache resultCache;
+    private ApiExecutionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        resultCache = new ApiResultCache();
+        ReflectionTestUtils.setField(resultCache, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(resultCache, "maxEntries", 100L);
+        resultCache.init();
+
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT * FROM users WHERE id = ${userId}", 1L);
+        service.setCacheEnabled(true);
+        service.setCacheDuration(60);
+        plan = ApiExecutionPlan.compile(service, new DataSource(), null);
+    }
+
+    @Test
+    void testGet_HitAfterPut() {
+        // Given
+        Map<String, Object> result = Map.of("data", List.of(Map.of("id", 1)), "count", 1L);
+        resultCache.put(plan, Map.of("userId", 1), result);
+
+        // When
+        Map<String, Object> cached = resultCache.get(plan, Map.of("userId", "1", "ignored", "x"));
+
+        // Then
+        assertNotNull(cached);
+        assertEquals(1L, cached.get("count"));
+        assertEquals(1L, resultCache.getStatistics().get(1L).get("hits"));
+    }
+
+    @Test
+    void testGet_MissForDifferentParameters() {
+        // Given
+        resultCache.put(plan, Map.of("userId", 1), Map.of("data", List.of(), "count", 0L));
+
+        // When
+        Map<String, Object> cached = resultCache.get(plan, Map.of("userId", 2));
+
+        // Then
+        assertNull(cached);
+        assertEquals(1L, resultCache.getStatistics().get(1L).get("misses"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGet_ResultRowsAreReadOnly() {
+        // Given
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1);
+        List<Map<String, Object>> rows = new ArrayList<>(List.of(row));
+        Map<String, Object> result = new HashMap<>();
+        result.put("data", rows);
+        result.put("count", 1L);
+        resultCache.put(plan, Map.of("userId", 1), result);
+
+        // When
+        Map<String, Object> cached = resultCache.get(plan, Map.of("userId", 1));
+        List<Map<String, Object>> data = (List<Map<String, Object>>) cached.get("data");
+
+        // Then
+        assertThrows(UnsupportedOperationException.class, () -> cached.put("count", 2L));
+        assertThrows(UnsupportedOperationException.class, () -> data.add(Map.of()));
+        assertThrows(UnsupportedOperationException.class, () -> data.get(0).put("id", 2));
+        assertThrows(UnsupportedOperationException.class, () -> data.iterator().next().put("id", 2));
+        assertEquals(1, data.get(0).get("id"));
+    }
+
+    @Test
+    void testInvalidateService() {
+        // Given
+        resultCache.put(plan, Map.of("userId", 1), Map.of("data", List.of(), "count", 0L));
+
+        // When
+        resultCache.invalidateService(1L);
+
+        // Then
+        assertNull(resultCache.get(plan, Map.of("userId", 1)));
+    }
+}
@@ -0,0 +1,127 @@
+package org.duqiu.fly.autoapi.gateway.coalesce;
+
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 请求合并测试类
+ */
+class RequestCoalescerTest {
+
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+
+    private ApiExecutionPlan createPlan(Boolean coalescingEnabled) {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT * FROM users WHERE id = ${userId}", 1L);
+        service.setCoalescingEnabled(coalescingEnabled);
+        return ApiExecutionPlan.compile(service, new DataSource(), null);
+    }
+
+    @Test
+    void testExecute_ConcurrentIdenticalCallsShareOneExecution() throws Exception {
+        // Given
+        ApiExecutionPlan plan = createPlan(null);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Map<String, Object>> leader = CompletableFuture.supplyAsync(() ->
+            coalescer.execute(plan, Map.of("userId", 1), () -> {
+                executions.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return Map.of("data", List.of(), "count", 0L);
+            }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<Map<String, Object>> follower = CompletableFuture.supplyAsync(() ->
+            coalescer.execute(plan, Map.of("userId", "1"), () -> {
+                executions.incrementAndGet();
+                return Map.of("data", List.of(), "count", 0L);
+            }));
+        while (!Long.valueOf(1L).equals(coalescer.getStatistics().get(1L).get("coalesced"))) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+        assertEquals(0.5, coalescer.getStatistics().get(1L).get("coalescingRatio"));
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    void testExecute_DisabledRunsEveryCall() {
+        // Given
+        ApiExecutionPlan plan = createPlan(false);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        coalescer.execute(plan, Map.of(), () -> Map.of("count", (long) executions.incrementAndGet()));
+        coalescer.execute(plan, Map.of(), () -> Map.of("count", (long) executions.incrementAndGet()));
+
+        // Then
+        assertEquals(2, executions.get());
+        assertTrue(coalescer.getStatistics().isEmpty());
+    }
+
+    @Test
+    void testExecute_FailureIsNotRemembered() {
+        // Given
+        ApiExecutionPlan plan = createPlan(true);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> coalescer.execute(plan, Map.of(), () -> {
+            throw new IllegalStateException("查询失败");
+        }));
+        Map<String, Object> result = coalescer.execute(plan, Map.of(), () -> Map.of("count", 1L));
+
+        // Then
+        assertEquals(1L, result.get("count"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExecute_SharedResultIsReadOnly() {
+        // Given
+        ApiExecutionPlan plan = createPlan(true);
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", 1);
+        Map<String, Object> loaded = new HashMap<>();
+        loaded.put("data", new ArrayList<>(List.of(row)));
+        loaded.put("count", 1L);
+        loaded.put("nextCursor", null);
+
+        // When
+        Map<String, Object> result = coalescer.execute(plan, Map.of(), () -> loaded);
+        List<Map<String, Object>> data = (List<Map<String, Object>>) result.get("data");
+
+        // Then
+        assertTrue(result.containsKey("nextCursor"));
+        assertThrows(UnsupportedOperationException.class, () -> data.remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> data.get(0).remove("id"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.duqiu.fly.autoapi.gateway.controller;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.route.RouteIndex;
+import org.duqiu.fly.autoapi.gateway.service.ApiRequestDispatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 动态API入口测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class DynamicApiControllerTest {
+
+    @Mock
+    private ApiRequestDispatcher requestDispatcher;
+
+    @InjectMocks
+    private DynamicApiController controller;
+
+    private RouteIndex routeIndex;
+
+    @BeforeEach
+    void setUp() {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "文件查询", "/api/files/{name}", "GET", "v1", true,
+            "SELECT * FROM files WHERE name = ${name}", 1L);
+        routeIndex = RouteIndex.build(List.of(service));
+        when(requestDispatcher.resolve(eq("GET"), anyString()))
+            .thenAnswer(invocation -> routeIndex.match("GET", invocation.getArgument(1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testHandle_DecodesPathVariablesAfterMatching() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dynamic/api/files/a%2Fb%20%E6%8A%A5%E8%A1%A8");
+        when(requestDispatcher.dispatch(any(), any())).thenReturn(Map.of("count", 0));
+
+        // When
+        ResponseEntity<?> response = controller.handle(request, null);
+
+        // Then
+        ArgumentCaptor<Map<String, Object>> params = ArgumentCaptor.forClass(Map.class);
+        verify(requestDispatcher).dispatch(any(), params.capture());
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals("a/b 报表", params.getValue().get("name"));
+    }
+
+    @Test
+    void testHandle_MalformedPathVariableRejected() {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/dynamic/api/files/a%2");
+
+        // When
+        ResponseEntity<?> response = controller.handle(request, null);
+
+        // Then
+        assertEquals(400, response.getStatusCode().value());
+        verify(requestDispatcher, never()).dispatch(any(), any());
+    }
+}
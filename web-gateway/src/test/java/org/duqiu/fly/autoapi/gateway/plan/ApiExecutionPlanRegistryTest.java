@@ -0,0 +1,84 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.service.DataSourceConnectionPoolService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * API执行计划注册表测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class ApiExecutionPlanRegistryTest {
+
+    @Mock
+    private DataSourceConnectionPoolService connectionPoolService;
+
+    @Mock
+    private DataSourceConcurrencyLimiter concurrencyLimiter;
+
+    @InjectMocks
+    private ApiExecutionPlanRegistry registry;
+
+    @Test
+    void testGetPlan_OldVersionDoesNotReplaceInstalledPlan() {
+        // Given
+        when(connectionPoolService.resolveDataSource(1L)).thenReturn(new DataSource());
+        ApiServiceInfo oldVersion = createService("v1");
+        ApiServiceInfo newVersion = createService("v2");
+        ApiExecutionPlan installed = registry.install(registry.compile(newVersion));
+
+        // When
+        ApiExecutionPlan straggler = registry.getPlan(oldVersion);
+
+        // Then
+        assertEquals("v1", straggler.getVersion());
+        assertSame(installed, registry.getPlan(newVersion));
+        assertEquals(1, registry.getPlanCount());
+    }
+
+    @Test
+    void testGetPlan_OldVersionCompiledOnce() {
+        // Given
+        when(connectionPoolService.resolveDataSource(1L)).thenReturn(new DataSource());
+        registry.install(registry.compile(createService("v2")));
+        ApiServiceInfo oldVersion = createService("v1");
+
+        // When
+        ApiExecutionPlan first = registry.getPlan(oldVersion);
+        ApiExecutionPlan second = registry.getPlan(oldVersion);
+
+        // Then
+        assertSame(first, second);
+        verify(connectionPoolService, times(2)).resolveDataSource(1L);
+    }
+
+    @Test
+    void testInstall_ReplacedPlanServesOldVersion() {
+        // Given
+        when(connectionPoolService.resolveDataSource(1L)).thenReturn(new DataSource());
+        ApiServiceInfo oldVersion = createService("v1");
+        ApiExecutionPlan previous = registry.install(oldVersion);
+
+        // When
+        registry.install(createService("v2"));
+
+        // Then
+        assertSame(previous, registry.getPlan(oldVersion));
+        assertEquals("v2", registry.getPlan(createService("v2")).getVersion());
+        verify(connectionPoolService, times(2)).resolveDataSource(1L);
+    }
+
+    private ApiServiceInfo createService(String version) {
+        return new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", version, true,
+            "SELECT * FROM users WHERE id = ${id}", 1L);
+    }
+}
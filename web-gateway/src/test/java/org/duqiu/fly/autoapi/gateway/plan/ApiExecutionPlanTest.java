@@ -0,0 +1,93 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * API执行计划测试类
+ */
+class ApiExecutionPlanTest {
+
+    @Test
+    void testCompile_ParameterLayout() {
+        // Given
+        ApiServiceInfo service = createService("SELECT * FROM users WHERE id = ${userId} AND name = ${name}");
+
+        // When
+        ApiExecutionPlan plan = ApiExecutionPlan.compile(service, new DataSource(), null);
+
+        // Then
+        assertEquals(List.of("userId", "name"), plan.getParameterNames());
+        assertEquals("GET:/api/users:v1", plan.getServiceKey());
+        assertTrue(plan.isCacheable());
+        assertTrue(plan.isRateLimited());
+    }
+
+    @Test
+    void testRender_BindsParametersInOrder() {
+        // Given
+        ApiExecutionPlan plan = ApiExecutionPlan.compile(
+            createService("SELECT * FROM users WHERE id = ${userId} AND name = ${name}"), new DataSource(), null);
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", 1);
+        params.put("name", "O'Brien");
+
+        // When
+        String sql = plan.render(params);
+
+        // Then
+        assertEquals("SELECT * FROM users WHERE id = 1 AND name = 'O''Brien'", sql);
+    }
+
+    @Test
+    void testRender_MissingParameterBecomesNull() {
+        // Given
+        ApiExecutionPlan plan = ApiExecutionPlan.compile(
+            createService("SELECT * FROM users WHERE id = ${userId}"), new DataSource(), null);
+
+        // When
+        String sql = plan.render(Map.of());
+
+        // Then
+        assertEquals("SELECT * FROM users WHERE id = NULL", sql);
+    }
+
+    @Test
+    void testRender_SamePlaceholderGrammarAsJdbc() {
+        // Given
+        ApiExecutionPlan plan = ApiExecutionPlan.compile(
+            createService("SELECT * FROM users WHERE id = ${ userId } AND name = '${name}' -- ${ignored}"),
+            new DataSource(), null);
+        Map<String, Object> params = new HashMap<>();
+        params.put("userId", 1);
+        params.put("name", "O'Brien");
+
+        // When
+        String sql = plan.render(params);
+
+        // Then
+        assertEquals(plan.getCompiledSql().getParameterNames(), plan.getParameterNames());
+        assertEquals("SELECT * FROM users WHERE id = 1 AND name = 'O''Brien' -- ${ignored}", sql);
+    }
+
+    @Test
+    void testCompile_NullSqlRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> ApiExecutionPlan.compile(createService(null), new DataSource(), null));
+    }
+
+    private ApiServiceInfo createService(String sql) {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true, sql, 1L);
+        service.setCacheEnabled(true);
+        service.setCacheDuration(300);
+        service.setRateLimit(100);
+        return service;
+    }
+}
@@ -0,0 +1,42 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * API请求键测试类
+ */
+class ApiRequestKeyTest {
+
+    @Test
+    void testPaginatedService_PagesHaveDifferentKeys() {
+        // Given
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT id, name FROM users WHERE status = ${status}", 1L);
+        service.setPaginationEnabled(true);
+        service.setPaginationKey("users.id");
+        service.setPageSize(10);
+        DataSource dataSource = new DataSource();
+        dataSource.setType(DataSourceType.H2);
+        ApiExecutionPlan plan = ApiExecutionPlan.compile(service, dataSource, null);
+        String cursor = plan.getPagination().encodeCursor(10L);
+
+        // When
+        ApiRequestKey firstPage = new ApiRequestKey(plan, Map.of("status", 1, "ignored", "x"));
+        ApiRequestKey secondPage = new ApiRequestKey(plan,
+            Map.of("status", 1, KeysetPagination.CURSOR_PARAMETER, cursor));
+        ApiRequestKey smallerPage = new ApiRequestKey(plan,
+            Map.of("status", 1, KeysetPagination.PAGE_SIZE_PARAMETER, "5"));
+
+        // Then
+        assertEquals(firstPage, new ApiRequestKey(plan, Map.of("status", "1")));
+        assertNotEquals(firstPage, secondPage);
+        assertNotEquals(firstPage, smallerPage);
+    }
+}
@@ -0,0 +1,70 @@
+package org.duqiu.fly.autoapi.gateway.plan;
+
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 键集分页测试类
+ */
+class KeysetPaginationTest {
+
+    @Test
+    void testCompile_WrapsSqlPerDialect() {
+        // Given
+        ApiServiceInfo service = createService();
+
+        // When
+        KeysetPagination mysql = KeysetPagination.compile(service, dataSource(DataSourceType.MYSQL));
+        KeysetPagination oracle = KeysetPagination.compile(service, dataSource(DataSourceType.ORACLE));
+
+        // Then
+        assertEquals("SELECT * FROM (SELECT id, name FROM users WHERE status = ?) keyset_page"
+            + " WHERE keyset_page.id > ? ORDER BY keyset_page.id LIMIT ?", mysql.getSql(1L).getSql());
+        assertEquals("SELECT * FROM (SELECT id, name FROM users WHERE status = ?) keyset_page"
+            + " ORDER BY keyset_page.id FETCH FIRST ? ROWS ONLY", oracle.getSql(null).getSql());
+        assertNull(KeysetPagination.compile(service, dataSource(DataSourceType.MONGODB)));
+    }
+
+    @Test
+    void testNextCursor_RoundTripsLastKey() {
+        // Given
+        KeysetPagination pagination = KeysetPagination.compile(createService(), dataSource(DataSourceType.H2));
+        List<Map<String, Object>> rows = List.of(
+            Map.of("ID", new BigDecimal("41"), "NAME", "a"),
+            Map.of("ID", new BigDecimal("42"), "NAME", "b"),
+            Map.of("ID", new BigDecimal("43"), "NAME", "c"));
+
+        // When
+        String cursor = pagination.nextCursor(rows, 2);
+
+        // Then
+        assertEquals(42L, pagination.decodeCursor(cursor));
+        assertNull(pagination.nextCursor(rows, 3));
+        assertEquals(3, pagination.bind(Map.of("status", 1), 42L, 2).get(KeysetPagination.LIMIT_PARAMETER));
+        assertEquals(10, pagination.resolvePageSize("500"));
+        assertThrows(IllegalArgumentException.class, () -> pagination.decodeCursor("not-a-cursor"));
+    }
+
+    private ApiServiceInfo createService() {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT id, name FROM users WHERE status = ${status};", 1L);
+        service.setPaginationEnabled(true);
+        service.setPaginationKey("users.id");
+        service.setPageSize(10);
+        return service;
+    }
+
+    private DataSource dataSource(DataSourceType type) {
+        DataSource dataSource = new DataSource();
+        dataSource.setType(type);
+        return dataSource;
+    }
+}
@@ -0,0 +1,53 @@
+package org.duqiu.fly.autoapi.gateway.pool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 连接池大小调整策略测试类
+ */
+class PoolSizingPolicyTest {
+
+    private final PoolSizingPolicy policy = new PoolSizingPolicy(2, 20, 5, 2.0, 3);
+
+    @Test
+    void testDecide_GrowsWhenThreadsAwaitWithinBounds() {
+        // Given
+        PoolSizingPolicy.State state = new PoolSizingPolicy.State();
+
+        // When
+        int grown = policy.decide(new PoolSizingPolicy.PoolSample(10, 10, 0, 6, 40, 8), state);
+        int capped = policy.decide(new PoolSizingPolicy.PoolSample(18, 18, 0, 6, 40, 8), state);
+
+        // Then
+        assertEquals(16, grown);
+        assertEquals(20, capped);
+    }
+
+    @Test
+    void testDecide_ShrinksOnlyAfterConsecutiveIdleSamples() {
+        // Given
+        PoolSizingPolicy.State state = new PoolSizingPolicy.State();
+        PoolSizingPolicy.PoolSample idle = new PoolSizingPolicy.PoolSample(8, 1, 7, 0, 0, 5);
+
+        // When & Then
+        assertEquals(8, policy.decide(idle, state));
+        assertEquals(8, policy.decide(idle, state));
+        assertEquals(6, policy.decide(idle, state));
+    }
+
+    @Test
+    void testDecide_BacksOffWhenBackendLatencyRises() {
+        // Given
+        PoolSizingPolicy.State state = new PoolSizingPolicy.State();
+        policy.decide(new PoolSizingPolicy.PoolSample(8, 4, 4, 0, 0, 10), state);
+
+        // When
+        int target = policy.decide(new PoolSizingPolicy.PoolSample(8, 8, 0, 4, 50, 40), state);
+
+        // Then
+        assertEquals(6, target);
+        assertTrue(state.getBaselineHoldMs() < 40);
+    }
+}
@@ -0,0 +1,67 @@
+package org.duqiu.fly.autoapi.gateway.query;
+
+import org.duqiu.fly.autoapi.datasource.core.QueryCancellation;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 活跃查询登记表测试类
+ */
+class ActiveQueryRegistryTest {
+
+    @Test
+    void testRegister_ListedUntilClosed() {
+        // Given
+        ActiveQueryRegistry registry = new ActiveQueryRegistry();
+        ApiExecutionPlan plan = createPlan();
+
+        // When
+        ActiveQuery query = registry.register(plan, new QueryCancellation(), true);
+        query.setRowCounter(() -> 42L);
+
+        // Then
+        assertEquals(1, registry.getActiveCount());
+        ActiveQuery listed = registry.getActiveQueries().get(0);
+        assertEquals(1L, listed.getServiceId());
+        assertEquals(7L, listed.getTenantId());
+        assertEquals(plan.getSqlFingerprint(), listed.getSqlFingerprint());
+        assertEquals(42L, listed.getRowsStreamed());
+
+        query.close();
+        assertEquals(0, registry.getActiveCount());
+        assertNull(registry.getActiveQuery(query.getId()));
+    }
+
+    @Test
+    void testCancel_TriggersRegisteredCancelAction() {
+        // Given
+        ActiveQueryRegistry registry = new ActiveQueryRegistry();
+        QueryCancellation cancellation = new QueryCancellation();
+        AtomicBoolean statementCancelled = new AtomicBoolean();
+        cancellation.onCancel(() -> statementCancelled.set(true));
+        ActiveQuery query = registry.register(createPlan(), cancellation, false);
+
+        // When
+        boolean cancelled = registry.cancel(query.getId());
+
+        // Then
+        assertTrue(cancelled);
+        assertTrue(statementCancelled.get());
+        assertTrue(query.isCancelled());
+        assertEquals(1, registry.getCancelledCount());
+        assertFalse(registry.cancel(query.getId() + 1));
+    }
+
+    private ApiExecutionPlan createPlan() {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT * FROM users WHERE id = ${userId}", 1L);
+        service.setTenantId(7L);
+        return ApiExecutionPlan.compile(service, new DataSource(), null);
+    }
+}
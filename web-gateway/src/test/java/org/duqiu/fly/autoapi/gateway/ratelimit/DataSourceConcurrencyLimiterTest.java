@@ -0,0 +1,100 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 数据源并发限制测试类
+ */
+class DataSourceConcurrencyLimiterTest {
+
+    private DataSourceConcurrencyLimiter limiter;
+    private ApiExecutionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new DataSourceConcurrencyLimiter();
+        ReflectionTestUtils.setField(limiter, "defaultMaxConcurrency", 1);
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 10L);
+
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users", "GET", "v1", true,
+            "SELECT * FROM users", 1L);
+        plan = ApiExecutionPlan.compile(service, new DataSource(), null);
+    }
+
+    @Test
+    void testAcquire_RejectsWhenSaturated() {
+        // Given
+        DataSourceConcurrencyLimiter.Permit permit = limiter.acquire(plan);
+
+        // When & Then
+        assertThrows(DataSourceBusyException.class, () -> limiter.acquire(plan));
+        assertEquals(1L, limiter.getStatistics().get(1L).get("rejected"));
+        permit.close();
+    }
+
+    @Test
+    void testAcquire_SucceedsAfterRelease() {
+        // Given
+        limiter.acquire(plan).close();
+
+        // When
+        DataSourceConcurrencyLimiter.Permit permit = limiter.acquire(plan);
+
+        // Then
+        assertEquals(1L, limiter.getStatistics().get(1L).get("inFlight"));
+        permit.close();
+        assertEquals(0L, limiter.getStatistics().get(1L).get("inFlight"));
+    }
+
+    @Test
+    void testAcquire_DataSourcesSharingPoolShareBulkhead() {
+        // Given
+        ConnectionPool sharedPool = mock(ConnectionPool.class);
+        ConnectionPool.PoolStatus status = mock(ConnectionPool.PoolStatus.class);
+        when(sharedPool.getStatus()).thenReturn(status);
+        when(status.getMaxConnections()).thenReturn(1);
+        ApiExecutionPlan first = ApiExecutionPlan.compile(new ApiServiceInfo(2L, "订单查询", "/api/orders", "GET",
+            "v1", true, "SELECT * FROM orders", 2L), new DataSource(), sharedPool);
+        ApiExecutionPlan second = ApiExecutionPlan.compile(new ApiServiceInfo(3L, "商品查询", "/api/items", "GET",
+            "v1", true, "SELECT * FROM items", 3L), new DataSource(), sharedPool);
+        DataSourceConcurrencyLimiter.Permit permit = limiter.acquire(first);
+
+        // When & Then
+        assertThrows(DataSourceBusyException.class, () -> limiter.acquire(second));
+        assertEquals(1L, limiter.getStatistics().get(2L).get("inFlight"));
+        assertEquals(1L, limiter.getStatistics().get(3L).get("rejected"));
+        permit.close();
+    }
+
+    @Test
+    void testResize_ShrinksInPlaceWithoutExceedingNewLimit() {
+        // Given
+        ConnectionPool pool = mock(ConnectionPool.class);
+        ConnectionPool.PoolStatus status = mock(ConnectionPool.PoolStatus.class);
+        when(pool.getStatus()).thenReturn(status);
+        when(status.getMaxConnections()).thenReturn(2);
+        ApiExecutionPlan pooledPlan = ApiExecutionPlan.compile(new ApiServiceInfo(2L, "订单查询", "/api/orders",
+            "GET", "v1", true, "SELECT * FROM orders", 2L), new DataSource(), pool);
+        DataSourceConcurrencyLimiter.Permit first = limiter.acquire(pooledPlan);
+        DataSourceConcurrencyLimiter.Permit second = limiter.acquire(pooledPlan);
+
+        // When
+        limiter.resize(pool, 1);
+        first.close();
+
+        // Then
+        assertThrows(DataSourceBusyException.class, () -> limiter.acquire(pooledPlan));
+        second.close();
+        limiter.acquire(pooledPlan).close();
+        assertEquals(1L, limiter.getStatistics().get(2L).get("maxConcurrency"));
+    }
+}
@@ -0,0 +1,47 @@
+package org.duqiu.fly.autoapi.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌桶测试类
+ */
+class TokenBucketTest {
+
+    @Test
+    void testTryAcquire_BurstUpToCapacity() {
+        // Given
+        TokenBucket bucket = new TokenBucket(3, 1, TimeUnit.MINUTES);
+        long now = System.nanoTime();
+
+        // When & Then
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertTrue(bucket.tryAcquire(now) > 0);
+    }
+
+    @Test
+    void testTryAcquire_RefillsOverTime() {
+        // Given
+        TokenBucket bucket = new TokenBucket(2, 1, TimeUnit.SECONDS);
+        long now = System.nanoTime();
+        bucket.tryAcquire(now);
+        bucket.tryAcquire(now);
+
+        // When
+        long waitNanos = bucket.tryAcquire(now);
+
+        // Then
+        assertTrue(waitNanos > 0 && waitNanos <= TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, bucket.tryAcquire(now + waitNanos));
+    }
+
+    @Test
+    void testConstructor_InvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, TimeUnit.MINUTES));
+    }
+}
@@ -0,0 +1,71 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由索引测试类
+ */
+class RouteIndexTest {
+
+    private RouteIndex routeIndex;
+
+    @BeforeEach
+    void setUp() {
+        routeIndex = RouteIndex.build(List.of(
+            service(1L, "/api/users/{userId}", "GET"),
+            service(2L, "/api/users/me", "GET"),
+            service(3L, "/api/users/{userId}/orders/{orderId}", "GET"),
+            service(4L, "/api/*/health", "GET"),
+            service(5L, "/files/**", "GET"),
+            service(6L, "/api/users", "POST")
+        ));
+    }
+
+    private static ApiServiceInfo service(Long id, String path, String method) {
+        return new ApiServiceInfo(id, "服务" + id, path, method, "v1", true, "SELECT 1", 1L);
+    }
+
+    @Test
+    void testMatch_LiteralPreferredOverVariable() {
+        // When
+        RouteMatch match = routeIndex.match("GET", "/api/users/me");
+
+        // Then
+        assertEquals(2L, match.getService().getServiceId());
+        assertTrue(match.getPathVariables().isEmpty());
+    }
+
+    @Test
+    void testMatch_ExtractsPathVariables() {
+        // When
+        RouteMatch match = routeIndex.match("get", "/api/users/7/orders/9/");
+
+        // Then
+        assertEquals(3L, match.getService().getServiceId());
+        assertEquals(Map.of("userId", "7", "orderId", "9"), match.getPathVariables());
+    }
+
+    @Test
+    void testMatch_Wildcards() {
+        // When & Then
+        assertEquals(4L, routeIndex.match("GET", "/api/orders/health").getService().getServiceId());
+        assertEquals(5L, routeIndex.match("GET", "/files/2024/report.csv").getService().getServiceId());
+        assertEquals(5L, routeIndex.match("GET", "/files").getService().getServiceId());
+    }
+
+    @Test
+    void testMatch_MethodAndMissingRoute() {
+        // When & Then
+        assertEquals(6L, routeIndex.match("POST", "/api/users").getService().getServiceId());
+        assertNull(routeIndex.match("GET", "/api/users"));
+        assertNull(routeIndex.match("DELETE", "/api/users/1"));
+        assertNull(routeIndex.match("GET", "/api/unknown/path/here"));
+    }
+}
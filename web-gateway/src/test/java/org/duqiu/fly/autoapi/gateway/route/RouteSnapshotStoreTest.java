@@ -0,0 +1,96 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由表快照测试类
+ */
+class RouteSnapshotStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEncodeDecode_RoundTripKeepsRoutesAndVersion() throws Exception {
+        // Given
+        RouteTable routeTable = RouteTable.empty().next(Map.of("GET:/api/users/{id}:v1", createService()));
+
+        // When
+        RouteTable restored = RouteSnapshotStore.decode(ByteBuffer.wrap(RouteSnapshotStore.encode(routeTable)));
+
+        // Then
+        assertEquals(routeTable.getVersion(), restored.getVersion());
+        ApiServiceInfo service = restored.getService("GET:/api/users/{id}:v1");
+        assertNotNull(service);
+        assertEquals("SELECT * FROM users WHERE id = ${id}", service.getSqlContent());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456789), service.getUpdatedAt());
+        assertEquals(3306, service.getDataSourceConfig().get("port"));
+        assertEquals(15, service.getQueryTimeout());
+        assertTrue(service.getPaginationEnabled());
+        assertEquals("users.id", service.getPaginationKey());
+        assertEquals("7", restored.match("GET", "/api/users/7").getPathVariables().get("id"));
+    }
+
+    @Test
+    void testDecode_RejectsCorruptedContent() throws Exception {
+        // Given
+        byte[] content = RouteSnapshotStore.encode(RouteTable.empty().next(Map.of("k", createService())));
+        content[20] ^= 0x7F;
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> RouteSnapshotStore.decode(ByteBuffer.wrap(content)));
+    }
+
+    @Test
+    void testSaveLoad_OwnerOnlyFile() throws Exception {
+        // Given
+        Path snapshot = tempDir.resolve("snapshot/routes.bin");
+        RouteSnapshotStore store = new RouteSnapshotStore();
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshot.toString());
+        RouteTable routeTable = RouteTable.empty().next(Map.of("GET:/api/users/{id}:v1", createService()));
+
+        // When
+        store.save(routeTable);
+        RouteTable loaded = store.load();
+
+        // Then
+        assertNotNull(loaded);
+        assertEquals(1, loaded.size());
+        if (snapshot.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(snapshot)));
+
+            // 权限被放宽后拒绝加载
+            Files.setPosixFilePermissions(snapshot, PosixFilePermissions.fromString("rw-r--r--"));
+            assertNull(store.load());
+        }
+    }
+
+    private ApiServiceInfo createService() {
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users/{id}", "GET", "v1", true,
+            "SELECT * FROM users WHERE id = ${id}", 2L);
+        service.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123456789));
+        service.setCacheEnabled(true);
+        service.setRateLimit(100);
+        service.setQueryTimeout(15);
+        service.setPaginationEnabled(true);
+        service.setPaginationKey("users.id");
+        Map<String, Object> config = new HashMap<>();
+        config.put("host", "localhost");
+        config.put("port", 3306);
+        service.setDataSourceConfig(config);
+        return service;
+    }
+}
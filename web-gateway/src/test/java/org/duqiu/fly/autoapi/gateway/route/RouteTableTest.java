@@ -0,0 +1,42 @@
+package org.duqiu.fly.autoapi.gateway.route;
+
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 路由表快照测试类
+ */
+class RouteTableTest {
+
+    @Test
+    void testNext_IncrementsVersionAndIsolatesSource() {
+        // Given
+        ApiServiceInfo service = new ApiServiceInfo(1L, "用户查询", "/api/users/{userId}", "GET", "v1", true,
+            "SELECT * FROM users WHERE id = ${userId}", 1L);
+        Map<String, ApiServiceInfo> services = new HashMap<>();
+        services.put(service.getServiceKey(), service);
+
+        // When
+        RouteTable table = RouteTable.empty().next(services);
+        services.clear();
+
+        // Then
+        assertEquals(1L, table.getVersion());
+        assertEquals(1, table.size());
+        assertNotNull(table.getPublishedAt());
+        assertSame(service, table.match("GET", "/api/users/1").getService());
+        assertEquals(2L, table.next(Map.of()).getVersion());
+    }
+
+    @Test
+    void testEmpty_MatchesNothing() {
+        // When & Then
+        assertEquals(0L, RouteTable.empty().getVersion());
+        assertNull(RouteTable.empty().match("GET", "/api/users"));
+    }
+}
@@ -0,0 +1,193 @@
+package org.duqiu.fly.autoapi.gateway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.duqiu.fly.autoapi.datasource.core.ConnectionPool;
+import org.duqiu.fly.autoapi.datasource.core.DataSourceConnection;
+import org.duqiu.fly.autoapi.datasource.enums.DataSourceType;
+import org.duqiu.fly.autoapi.datasource.jdbc.JdbcDataSourceFactory;
+import org.duqiu.fly.autoapi.datasource.model.DataSource;
+import org.duqiu.fly.autoapi.gateway.cache.ApiResultCache;
+import org.duqiu.fly.autoapi.gateway.coalesce.RequestCoalescer;
+import org.duqiu.fly.autoapi.gateway.dto.ApiServiceInfo;
+import org.duqiu.fly.autoapi.gateway.dto.ServiceRequestLog;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlan;
+import org.duqiu.fly.autoapi.gateway.plan.ApiExecutionPlanRegistry;
+import org.duqiu.fly.autoapi.gateway.plan.KeysetPagination;
+import org.duqiu.fly.autoapi.gateway.query.ActiveQueryRegistry;
+import org.duqiu.fly.autoapi.gateway.ratelimit.ApiRateLimiter;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceBusyException;
+import org.duqiu.fly.autoapi.gateway.ratelimit.DataSourceConcurrencyLimiter;
+import org.duqiu.fly.autoapi.gateway.ratelimit.RateLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * API请求分发测试类
+ */
+@ExtendWith(MockitoExtension.class)
+class ApiRequestDispatcherTest {
+
+    @Mock
+    private ApiExecutionPlanRegistry planRegistry;
+
+    @Mock
+    private ApiRateLimiter rateLimiter;
+
+    @Mock
+    private DataSourceConcurrencyLimiter concurrencyLimiter;
+
+    @Mock
+    private ServiceRequestLogService requestLogService;
+
+    @InjectMocks
+    private ApiRequestDispatcher dispatcher;
+
+    private final JdbcDataSourceFactory factory = new JdbcDataSourceFactory();
+    private final ApiResultCache resultCache = new ApiResultCache();
+
+    /**
+     * 内存库在最后一个连接关闭时销毁，测试期间保持一个连接
+     */
+    private DataSourceConnection keepAlive;
+    private ApiServiceInfo service;
+    private ApiExecutionPlan plan;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(resultCache, "maxBytes", 1024L * 1024);
+        ReflectionTestUtils.setField(resultCache, "maxEntries", 100L);
+        resultCache.init();
+        ReflectionTestUtils.setField(dispatcher, "resultCache", resultCache);
+        ReflectionTestUtils.setField(dispatcher, "requestCoalescer", new RequestCoalescer());
+        ReflectionTestUtils.setField(dispatcher, "activeQueryRegistry", new ActiveQueryRegistry());
+        ReflectionTestUtils.setField(dispatcher, "spillDirectory", "");
+        ReflectionTestUtils.setField(dispatcher, "objectMapper", new ObjectMapper());
+
+        DataSource dataSource = new DataSource();
+        dataSource.setId(1L);
+        dataSource.setName("h2-dispatch");
+        dataSource.setType(DataSourceType.H2);
+        dataSource.setHost("localhost");
+        dataSource.setPort(0);
+        dataSource.setDatabase("dispatch_" + System.nanoTime());
+        dataSource.setUsername("sa");
+        dataSource.setPassword("");
+        ConnectionPool pool = factory.getConnectionPool(dataSource);
+        keepAlive = pool.getConnection();
+        keepAlive.executeUpdate("CREATE TABLE users (id INT PRIMARY KEY, name VARCHAR(32))", Collections.emptyMap());
+        keepAlive.executeUpdate("INSERT INTO users VALUES (1, 'a'), (2, 'b'), (3, 'c')", Collections.emptyMap());
+
+        service = new ApiServiceInfo(1L, "用户分页", "/api/users", "GET", "v1", true,
+            "SELECT id, name FROM users", 1L);
+        service.setPaginationEnabled(true);
+        service.setPaginationKey("id");
+        service.setPageSize(2);
+        service.setCacheEnabled(true);
+        service.setCacheDuration(60);
+        plan = ApiExecutionPlan.compile(service, dataSource, pool);
+
+        when(planRegistry.getPlan(service)).thenReturn(plan);
+        when(requestLogService.createRequestLog(anyString(), any(), any()))
+            .thenAnswer(invocation -> new ServiceRequestLog("DYNAMIC_API", 1L, "/api/users"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keepAlive.close();
+        factory.closeAllPools();
+    }
+
+    @Test
+    void testDispatch_LastPageWithCoalescingAndCaching() {
+        // Given
+        when(concurrencyLimiter.acquire(plan)).thenReturn(() -> { });
+        Map<String, Object> first = dispatcher.dispatch(service, new HashMap<>());
+        Map<String, Object> params = new HashMap<>();
+        params.put(KeysetPagination.CURSOR_PARAMETER, first.get("nextCursor"));
+
+        // When
+        Map<String, Object> last = dispatcher.dispatch(service, params);
+        Map<String, Object> cached = dispatcher.dispatch(service, params);
+
+        // Then
+        assertNotNull(first.get("nextCursor"));
+        assertEquals(1, last.get("count"));
+        assertTrue(last.containsKey("nextCursor"));
+        assertNull(last.get("nextCursor"));
+        List<?> rows = (List<?>) last.get("data");
+        assertEquals(3, ((Number) ((Map<?, ?>) rows.get(0)).get("ID")).intValue());
+        assertSame(cached, resultCache.get(planRegistry.getPlan(service), params));
+    }
+
+    @Test
+    void testDispatch_CacheHitCountsAgainstRateLimit() {
+        // Given
+        when(concurrencyLimiter.acquire(plan)).thenReturn(() -> { });
+        dispatcher.dispatch(service, new HashMap<>());
+
+        // When
+        dispatcher.dispatch(service, new HashMap<>());
+
+        // Then
+        verify(rateLimiter, times(2)).acquire(plan);
+        verify(concurrencyLimiter, times(1)).acquire(plan);
+    }
+
+    @Test
+    void testDispatch_RateLimitedBeforeCacheLookup() {
+        // Given
+        doThrow(new RateLimitExceededException("请求过于频繁，请稍后重试", 1)).when(rateLimiter).acquire(plan);
+
+        // When & Then
+        assertThrows(RateLimitExceededException.class, () -> dispatcher.dispatch(service, new HashMap<>()));
+        verifyNoInteractions(concurrencyLimiter);
+        verify(requestLogService).logServiceRequest(any());
+    }
+
+    @Test
+    void testStream_DataSourceBusyBeforeResponseCommitted() {
+        // Given
+        when(concurrencyLimiter.acquire(plan)).thenThrow(new DataSourceBusyException("数据源繁忙，请稍后重试"));
+
+        // When & Then
+        assertThrows(DataSourceBusyException.class, () -> dispatcher.stream(service, new HashMap<>()));
+        verify(requestLogService).logServiceRequest(any());
+    }
+
+    @Test
+    void testStream_PermitReleasedAfterBodyWritten() throws Exception {
+        // Given
+        AtomicInteger released = new AtomicInteger();
+        when(concurrencyLimiter.acquire(plan)).thenReturn(released::incrementAndGet);
+        StreamingResponseBody body = dispatcher.stream(service, new HashMap<>());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        int beforeWrite = released.get();
+        body.writeTo(output);
+
+        // Then
+        assertEquals(0, beforeWrite);
+        assertEquals(1, released.get());
+        assertTrue(output.toString(StandardCharsets.UTF_8).contains("\"c\""));
+    }
+}
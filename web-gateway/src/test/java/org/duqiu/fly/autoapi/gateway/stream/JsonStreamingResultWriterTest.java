@@ -0,0 +1,59 @@
+package org.duqiu.fly.autoapi.gateway.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式JSON结果输出测试类
+ */
+class JsonStreamingResultWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testStream_ProducesResultShape() throws Exception {
+        // Given
+        StringWriter output = new StringWriter();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        JsonStreamingResultWriter writer = new JsonStreamingResultWriter(generator);
+
+        // When
+        writer.onStart(new String[]{"id", "name"});
+        writer.onRow(new Object[]{1, "张三"});
+        writer.onRow(new Object[]{2, null});
+        writer.onComplete(2);
+        generator.close();
+
+        // Then
+        JsonNode json = objectMapper.readTree(output.toString());
+        assertTrue(json.get("success").asBoolean());
+        assertEquals(2, json.get("data").get("count").asInt());
+        assertEquals("张三", json.get("data").get("data").get(0).get("name").asText());
+        assertTrue(json.get("data").get("data").get(1).get("name").isNull());
+    }
+
+    @Test
+    void testFail_ClosesJsonWithError() throws Exception {
+        // Given
+        StringWriter output = new StringWriter();
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        JsonStreamingResultWriter writer = new JsonStreamingResultWriter(generator);
+        writer.onStart(new String[]{"id"});
+        writer.onRow(new Object[]{1});
+
+        // When
+        writer.fail("连接中断");
+        generator.close();
+
+        // Then
+        JsonNode json = objectMapper.readTree(output.toString());
+        assertEquals(1, json.get("data").get("count").asInt());
+        assertEquals("连接中断", json.get("data").get("error").asText());
+    }
+}